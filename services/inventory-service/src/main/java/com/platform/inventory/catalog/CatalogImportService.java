@@ -0,0 +1,368 @@
+package com.platform.inventory.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.inventory.StockRestockedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.inventory.contention.LockContentionMonitor;
+import com.platform.inventory.dto.CatalogImportResult;
+import com.platform.inventory.engine.ReservationEngine;
+import com.platform.inventory.outbox.OutboxEvent;
+import com.platform.inventory.repository.InventoryBatchRepository;
+import com.platform.inventory.repository.StockLedgerRepository;
+import com.platform.inventory.repository.StockLedgerRepository.Kind;
+import com.platform.inventory.repository.StockLedgerRepository.StockMovement;
+import com.platform.inventory.repository.StockReservationRepository;
+import com.platform.inventory.repository.StockReservationRepository.LockedProduct;
+import com.platform.inventory.service.StockChanged;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk-loads products from CSV or NDJSON. The input is streamed with {@code COPY} into a
+ * temporary staging table, so memory use does not depend on the file size, and then merged
+ * into {@code products} in id-ordered chunks of {@code inventory.import.chunk-size}, each in
+ * its own short transaction. A chunk locks its existing products like any other stock writer,
+ * so reservations keep running between chunks.
+ *
+ * <p>Imported stock is absolute. The difference to the current stock is applied to the row,
+ * or appended as a {@code RESTOCK} movement when the stock ledger is enabled. Bucketed products
+ * only get their name updated. Every product created or restocked gets a
+ * {@link StockRestockedEvent} on {@code product-events} and a {@link StockChanged}, which
+ * refreshes the availability snapshot.
+ *
+ * <p>Everything runs on one pooled connection, which holds the staging table for the import.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE product_import (
+                line  BIGINT GENERATED ALWAYS AS IDENTITY,
+                id    UUID NOT NULL,
+                name  TEXT,
+                stock INT
+            )
+            """;
+
+    // The last line wins when an id repeats.
+    private static final String NEXT_CHUNK_SQL = """
+            SELECT DISTINCT ON (id) id, name, stock
+            FROM product_import
+            WHERE ?::uuid IS NULL OR id > ?
+            ORDER BY id, line DESC
+            LIMIT ?
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO products (id, name, stock) VALUES (?, ?, ?)
+            ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LockContentionMonitor lockContention;
+    private final ObjectProvider<ReservationEngine> reservationEngine;
+    private final MeterRegistry meterRegistry;
+    private final Counter bytesRead;
+    private final Counter rowsStaged;
+    private final Counter rowsMerged;
+    private final Timer duration;
+    private final boolean ledgerEnabled;
+    private final int chunkSize;
+
+    public CatalogImportService(JdbcTemplate jdbcTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                LockContentionMonitor lockContention,
+                                ObjectProvider<ReservationEngine> reservationEngine,
+                                MeterRegistry meterRegistry,
+                                @Value("${inventory.ledger.enabled:false}") boolean ledgerEnabled,
+                                @Value("${inventory.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.lockContention = lockContention;
+        this.reservationEngine = reservationEngine;
+        this.meterRegistry = meterRegistry;
+        this.bytesRead = meterRegistry.counter("catalog_import_bytes_total");
+        this.rowsStaged = meterRegistry.counter("catalog_import_rows_total", "phase", "staged");
+        this.rowsMerged = meterRegistry.counter("catalog_import_rows_total", "phase", "merged");
+        this.duration = meterRegistry.timer("catalog_import_duration_seconds");
+        this.ledgerEnabled = ledgerEnabled;
+        this.chunkSize = chunkSize;
+    }
+
+    public CatalogImportResult importProducts(InputStream input, ImportFormat format) {
+        if (reservationEngine.getIfAvailable() != null) {
+            // The engine owns stock in memory and would not see the imported rows.
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Catalog import is not available while the reservation engine owns the stock");
+        }
+        return duration.record(() -> jdbcTemplate.execute((ConnectionCallback<CatalogImportResult>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            session.execute(CREATE_STAGING_SQL);
+            try {
+                long rows = copy(connection, new CountingInputStream(input), format);
+                rowsStaged.increment(rows);
+                session.execute("CREATE INDEX ON product_import (id, line)");
+                session.execute("ANALYZE product_import");
+                CatalogImportResult result = merge(session, rows);
+                log.info("Imported catalog: {}", result);
+                return result;
+            } finally {
+                session.execute("DROP TABLE IF EXISTS product_import");
+            }
+        }));
+    }
+
+    private long copy(Connection connection, InputStream input, ImportFormat format) throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        try {
+            return switch (format) {
+                case CSV -> copyManager.copyIn(
+                        "COPY product_import (id, name, stock) FROM STDIN WITH (FORMAT csv, HEADER MATCH)",
+                        input, COPY_BUFFER_SIZE);
+                case NDJSON -> copyNdjson(connection, input);
+            };
+        } catch (SQLException e) {
+            // Malformed ids or numbers, or a wrong CSV header; nothing has been merged yet.
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Import rejected: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Import could not be read: " + e.getMessage(), e);
+        }
+    }
+
+    /** Converts line by line, so no more than one line and the copy buffer are held in memory. */
+    private static long copyNdjson(Connection connection, InputStream input) throws SQLException, IOException {
+        PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                "COPY product_import (id, name, stock) FROM STDIN WITH (FORMAT csv)", COPY_BUFFER_SIZE);
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8));
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    writeCsv(writer, parseLine(line, lineNumber));
+                }
+            }
+            writer.flush();
+            return copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private static JsonNode parseLine(String line, long lineNumber) {
+        try {
+            return EventObjectMapper.instance().readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Import rejected: line " + lineNumber + " is not valid JSON", e);
+        }
+    }
+
+    // Missing fields become NULLs; COPY rejects a missing id, the merge rejects the rest.
+    private static void writeCsv(Writer writer, JsonNode row) throws IOException {
+        writer.write(row.hasNonNull("id") ? row.get("id").asText() : "");
+        writer.write(',');
+        if (row.hasNonNull("name")) {
+            writer.write('"');
+            writer.write(row.get("name").asText().replace("\"", "\"\""));
+            writer.write('"');
+        }
+        writer.write(',');
+        writer.write(row.hasNonNull("stock") ? row.get("stock").asText() : "");
+        writer.write('\n');
+    }
+
+    private CatalogImportResult merge(JdbcTemplate session, long rows) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(session.getDataSource()));
+        StockReservationRepository rowStock = new StockReservationRepository(session);
+        StockLedgerRepository ledger = new StockLedgerRepository(session);
+        InventoryBatchRepository batchRepository = new InventoryBatchRepository(session);
+        MergeTotals totals = new MergeTotals();
+
+        UUID after = null;
+        while (true) {
+            List<ImportRow> chunk = session.query(NEXT_CHUNK_SQL,
+                    (rs, rowNum) -> new ImportRow(rs.getObject("id", UUID.class), rs.getString("name"),
+                            rs.getObject("stock", Integer.class)),
+                    after, after, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    mergeChunk(session, chunk, rowStock, ledger, batchRepository, totals));
+            rowsMerged.increment(chunk.size());
+            // Postgres orders uuids differently from UUID.compareTo, so continue from its last one.
+            after = chunk.get(chunk.size() - 1).id();
+        }
+        return totals.toResult(rows);
+    }
+
+    private void mergeChunk(JdbcTemplate session, List<ImportRow> chunk, StockReservationRepository rowStock, StockLedgerRepository ledger,
+                            InventoryBatchRepository batchRepository, MergeTotals totals) {
+        List<ImportRow> valid = new ArrayList<>();
+        for (ImportRow row : chunk) {
+            if (row.isValid()) {
+                valid.add(row);
+            } else {
+                totals.rejected++;
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = valid.stream().map(ImportRow::id).toList();
+        Map<UUID, LockedProduct> current = lockContention.timeLocks(ids,
+                () -> ledgerEnabled ? ledger.lockProducts(ids) : rowStock.lockProducts(ids));
+
+        List<ImportRow> upserts = new ArrayList<>();
+        Map<UUID, Integer> deltas = new HashMap<>();
+        List<OutboxEvent> events = new ArrayList<>();
+        Set<UUID> changed = new HashSet<>();
+        for (ImportRow row : valid) {
+            LockedProduct product = current.get(row.id());
+            boolean renamed = product == null || !row.name().equals(product.name());
+            if (renamed) {
+                upserts.add(row);
+                changed.add(row.id());
+            }
+            if (product == null) {
+                totals.created++;
+                events.add(restocked(row, row.stock()));
+            } else if (product.sharded()) {
+                totals.skippedBucketed++;
+            } else if (row.stock() != product.stock()) {
+                int delta = row.stock() - product.stock();
+                deltas.put(row.id(), delta);
+                changed.add(row.id());
+                totals.restocked++;
+                events.add(restocked(row, delta));
+            } else if (!renamed) {
+                totals.unchanged++;
+            }
+        }
+
+        // New products get their stock with the insert; existing ones keep theirs and are moved by the delta.
+        session.batchUpdate(UPSERT_SQL, upserts, upserts.size(), (ps, row) -> {
+            ps.setObject(1, row.id());
+            ps.setString(2, row.name());
+            ps.setInt(3, row.stock());
+        });
+        if (ledgerEnabled) {
+            ledger.append(deltas.entrySet().stream()
+                    .map(d -> new StockMovement(d.getKey(), Kind.RESTOCK, d.getValue(), null))
+                    .toList());
+        } else {
+            batchRepository.applyStockDeltas(deltas);
+        }
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new StockChanged(changed));
+        }
+        if (!events.isEmpty()) {
+            batchRepository.insertOutboxEvents(events);
+            meterRegistry.counter("stock_restocked_total").increment(events.size());
+        }
+    }
+
+    private static OutboxEvent restocked(ImportRow row, int delta) {
+        StockRestockedEvent event = new StockRestockedEvent(row.id(), row.name(), row.stock(), delta);
+        try {
+            String payload = EventObjectMapper.instance().writeValueAsString(
+                    EventEnvelope.wrap(EventTypes.STOCK_RESTOCKED, event, row.id()));
+            return new OutboxEvent("Product", row.id(), EventTypes.STOCK_RESTOCKED, payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize event for outbox", e);
+        }
+    }
+
+    private record ImportRow(UUID id, String name, Integer stock) {
+
+        boolean isValid() {
+            return name != null && !name.isBlank() && name.length() <= 255 && stock != null && stock >= 0;
+        }
+    }
+
+    private static final class MergeTotals {
+        int created;
+        int restocked;
+        int unchanged;
+        int rejected;
+        int skippedBucketed;
+
+        CatalogImportResult toResult(long rows) {
+            return new CatalogImportResult(rows, created, restocked, unchanged, rejected, skippedBucketed);
+        }
+    }
+
+    /** Reports progress while COPY is still reading the input. */
+    private final class CountingInputStream extends FilterInputStream {
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                bytesRead.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                bytesRead.increment(n);
+            }
+            return n;
+        }
+    }
+}
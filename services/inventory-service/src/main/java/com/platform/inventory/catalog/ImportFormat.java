@@ -0,0 +1,31 @@
+package com.platform.inventory.catalog;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Formats accepted by the catalog import; both carry {@code id}, {@code name} and {@code stock}. */
+public enum ImportFormat {
+
+    /** CSV with the header {@code id,name,stock}, handed to COPY as is. */
+    CSV("text/csv"),
+
+    /** One JSON object per line, converted to CSV on the way into COPY. */
+    NDJSON("application/x-ndjson");
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public static ImportFormat of(String contentType) {
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for (ImportFormat format : values()) {
+            if (format.mediaType.includes(requested)) {
+                return format;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported import format: " + contentType);
+    }
+}
@@ -0,0 +1,18 @@
+package com.platform.inventory.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hot products whose stock is split across bucket rows, as {@code productId: bucketCount}.
+ * Products sharded earlier but no longer listed are folded back into a single row on startup.
+ */
+@ConfigurationProperties(prefix = "inventory.sharding")
+public record StockShardingProperties(Map<UUID, Integer> products) {
+
+    public StockShardingProperties {
+        products = products != null ? Map.copyOf(products) : Map.of();
+    }
+}
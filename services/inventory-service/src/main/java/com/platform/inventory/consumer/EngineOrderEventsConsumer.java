@@ -0,0 +1,95 @@
+package com.platform.inventory.consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.inventory.engine.ReservationEngine;
+import com.platform.inventory.repository.StockReservationRepository.ReleasedStock;
+import com.platform.inventory.service.InventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link OrderEventsConsumer} for the {@code reservation-engine} profile. Reservations are
+ * acknowledged asynchronously once the engine has persisted them, so the listener keeps
+ * feeding the engine instead of waiting for each batch to commit.
+ */
+@Component
+@Profile("reservation-engine")
+public class EngineOrderEventsConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineOrderEventsConsumer.class);
+
+    private final ReservationEngine reservationEngine;
+    private final InventoryService inventoryService;
+
+    public EngineOrderEventsConsumer(ReservationEngine reservationEngine, InventoryService inventoryService) {
+        this.reservationEngine = reservationEngine;
+        this.inventoryService = inventoryService;
+    }
+
+    @KafkaListener(topics = "order-events", groupId = "inventory-service")
+    public void consume(String message, Acknowledgment acknowledgment) {
+        try {
+            JsonNode root = EventObjectMapper.instance().readTree(message);
+            String eventType = root.get("eventType").asText();
+            UUID eventId = UUID.fromString(root.get("eventId").asText());
+
+            switch (eventType) {
+                case EventTypes.ORDER_CREATED -> handleOrderCreated(root, eventId, acknowledgment);
+                case EventTypes.STOCK_RELEASE_REQUESTED -> {
+                    handleStockReleaseRequested(root, eventId);
+                    acknowledgment.acknowledge();
+                }
+                case EventTypes.ORDER_CONFIRMED -> {
+                    inventoryService.handleOrderConfirmed(
+                            UUID.fromString(root.get("payload").get("orderId").asText()));
+                    acknowledgment.acknowledge();
+                }
+                default -> {
+                    log.debug("Ignoring event type: {}", eventType);
+                    acknowledgment.acknowledge();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to process order event: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to process event", e);
+        }
+    }
+
+    private void handleOrderCreated(JsonNode root, UUID eventId, Acknowledgment acknowledgment) throws Exception {
+        JsonNode payload = root.get("payload");
+        UUID orderId = UUID.fromString(payload.get("orderId").asText());
+        BigDecimal totalAmount = new BigDecimal(payload.get("totalAmount").asText());
+        String currency = payload.get("currency").asText();
+        UUID customerId = OrderEventsConsumer.parseCustomerId(payload);
+        List<OrderLineItem> items = OrderEventsConsumer.parseItems(payload);
+
+        reservationEngine.reserve(eventId, orderId, customerId, items, totalAmount, currency)
+                .whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        acknowledgment.acknowledge();
+                    } else {
+                        // Left unacknowledged, so the event is redelivered after a restart.
+                        log.warn("Reservation for order {} was not persisted: {}", orderId, error.getMessage());
+                    }
+                });
+    }
+
+    // Releases stay on the transactional path; deltas commute with the engine's write-behind
+    // batches, and the engine is credited only after the release has committed.
+    private void handleStockReleaseRequested(JsonNode root, UUID eventId) {
+        UUID orderId = UUID.fromString(root.get("payload").get("orderId").asText());
+        List<ReleasedStock> released = inventoryService.handleStockReleaseRequested(eventId, orderId);
+        released.forEach(r -> reservationEngine.credit(r.productId(), r.quantity()));
+    }
+}
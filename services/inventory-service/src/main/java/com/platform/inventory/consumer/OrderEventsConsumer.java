@@ -5,9 +5,13 @@ import com.platform.events.EventTypes;
 import com.platform.events.OrderLineItem;
 import com.platform.events.serde.EventObjectMapper;
 import com.platform.inventory.service.InventoryService;
+import com.platform.inventory.service.OrderReservationRequest;
+import com.platform.inventory.service.StockReleaseRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -16,6 +20,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Component
+@Profile("!reservation-engine")
 public class OrderEventsConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(OrderEventsConsumer.class);
@@ -26,7 +31,8 @@ public class OrderEventsConsumer {
         this.inventoryService = inventoryService;
     }
 
-    @KafkaListener(topics = "order-events", groupId = "inventory-service")
+    @KafkaListener(topics = "order-events", groupId = "inventory-service",
+            autoStartup = "#{!${inventory.batch-reservations.enabled:false}}")
     public void consume(String message) {
         try {
             JsonNode root = EventObjectMapper.instance().readTree(message);
@@ -36,6 +42,7 @@ public class OrderEventsConsumer {
             switch (eventType) {
                 case EventTypes.ORDER_CREATED -> handleOrderCreated(root, eventId);
                 case EventTypes.STOCK_RELEASE_REQUESTED -> handleStockReleaseRequested(root, eventId);
+                case EventTypes.ORDER_CONFIRMED -> handleOrderConfirmed(root);
                 default -> log.debug("Ignoring event type: {}", eventType);
             }
         } catch (Exception e) {
@@ -44,12 +51,143 @@ public class OrderEventsConsumer {
         }
     }
 
+    /**
+     * Alternative to {@link #consume} when {@code inventory.batch-reservations.enabled} is set:
+     * consecutive {@code OrderCreated} events of a poll are reserved in one transaction, and
+     * consecutive {@code StockReleaseRequested} events released in one. A run is flushed before
+     * any other event is handled, so per-order ordering is preserved.
+     *
+     * <p>Every record is parsed before it joins a run, so a malformed record flushes the run
+     * ahead of it and is reported by its own index. A run that fails in the database is retried
+     * record by record, so the error handler is pointed at the record that actually fails and
+     * only that one ends up on the dead letter topic.
+     */
+    @KafkaListener(topics = "order-events", groupId = "inventory-service",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${inventory.batch-reservations.enabled:false}")
+    public void consumeBatch(List<String> messages) {
+        List<OrderReservationRequest> orders = new ArrayList<>();
+        List<StockReleaseRequest> releases = new ArrayList<>();
+        List<Integer> runIndexes = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            String eventType;
+            JsonNode root;
+            UUID eventId;
+            OrderReservationRequest order = null;
+            UUID orderId = null;
+            try {
+                root = EventObjectMapper.instance().readTree(messages.get(i));
+                eventType = root.get("eventType").asText();
+                eventId = UUID.fromString(root.get("eventId").asText());
+                switch (eventType) {
+                    case EventTypes.ORDER_CREATED -> order = parseOrderCreated(root, eventId);
+                    case EventTypes.STOCK_RELEASE_REQUESTED, EventTypes.ORDER_CONFIRMED -> orderId = parseOrderId(root);
+                    default -> { }
+                }
+            } catch (Exception e) {
+                flush(orders, releases, runIndexes);
+                log.error("Failed to parse order event: {}", e.getMessage(), e);
+                throw new BatchListenerFailedException("Failed to parse event", e, i);
+            }
+
+            switch (eventType) {
+                case EventTypes.ORDER_CREATED -> {
+                    if (!releases.isEmpty()) {
+                        flush(orders, releases, runIndexes);
+                    }
+                    orders.add(order);
+                    runIndexes.add(i);
+                }
+                case EventTypes.STOCK_RELEASE_REQUESTED -> {
+                    if (!orders.isEmpty()) {
+                        flush(orders, releases, runIndexes);
+                    }
+                    releases.add(new StockReleaseRequest(eventId, orderId));
+                    runIndexes.add(i);
+                }
+                case EventTypes.ORDER_CONFIRMED -> {
+                    flush(orders, releases, runIndexes);
+                    try {
+                        inventoryService.handleOrderConfirmed(orderId);
+                    } catch (Exception e) {
+                        log.error("Failed to process order event: {}", e.getMessage(), e);
+                        throw new BatchListenerFailedException("Failed to process event", e, i);
+                    }
+                }
+                default -> log.debug("Ignoring event type: {}", eventType);
+            }
+        }
+        flush(orders, releases, runIndexes);
+    }
+
+    /**
+     * Commits the pending run, either reservations or releases. If the run fails as a whole, its
+     * records are handled one by one; records already committed are recognised as processed.
+     */
+    private void flush(List<OrderReservationRequest> orders, List<StockReleaseRequest> releases,
+                       List<Integer> runIndexes) {
+        if (runIndexes.isEmpty()) {
+            return;
+        }
+        try {
+            if (!orders.isEmpty()) {
+                reserveAll(orders);
+            } else {
+                inventoryService.handleStockReleaseRequestedBatch(releases);
+            }
+        } catch (Exception batchFailure) {
+            log.warn("Run of {} order events failed, retrying one by one: {}",
+                    runIndexes.size(), batchFailure.getMessage());
+            for (int k = 0; k < runIndexes.size(); k++) {
+                try {
+                    if (!orders.isEmpty()) {
+                        OrderReservationRequest order = orders.get(k);
+                        inventoryService.handleOrderCreated(order.eventId(), order.orderId(), order.customerId(),
+                                order.items(), order.totalAmount(), order.currency());
+                    } else {
+                        StockReleaseRequest release = releases.get(k);
+                        inventoryService.handleStockReleaseRequested(release.eventId(), release.orderId());
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to process order event: {}", e.getMessage(), e);
+                    // Records before this one are committed; it and the rest of the poll are retried.
+                    throw new BatchListenerFailedException("Failed to process event", e, runIndexes.get(k));
+                }
+            }
+        } finally {
+            orders.clear();
+            releases.clear();
+            runIndexes.clear();
+        }
+    }
+
+    private void reserveAll(List<OrderReservationRequest> orders) {
+        List<OrderReservationRequest> deferred = inventoryService.handleOrderCreatedBatch(orders);
+        deferred.forEach(order -> inventoryService.handleOrderCreated(order.eventId(), order.orderId(),
+                order.customerId(), order.items(), order.totalAmount(), order.currency()));
+    }
+
     private void handleOrderCreated(JsonNode root, UUID eventId) throws Exception {
+        OrderReservationRequest order = parseOrderCreated(root, eventId);
+        inventoryService.handleOrderCreated(eventId, order.orderId(), order.customerId(), order.items(),
+                order.totalAmount(), order.currency());
+    }
+
+    private static OrderReservationRequest parseOrderCreated(JsonNode root, UUID eventId) {
         JsonNode payload = root.get("payload");
         UUID orderId = UUID.fromString(payload.get("orderId").asText());
         BigDecimal totalAmount = new BigDecimal(payload.get("totalAmount").asText());
         String currency = payload.get("currency").asText();
+        return new OrderReservationRequest(eventId, orderId, parseCustomerId(payload), parseItems(payload),
+                totalAmount, currency);
+    }
+
+    static UUID parseCustomerId(JsonNode payload) {
+        JsonNode customerId = payload.get("customerId");
+        return customerId == null || customerId.isNull() ? null : UUID.fromString(customerId.asText());
+    }
 
+    static List<OrderLineItem> parseItems(JsonNode payload) {
         List<OrderLineItem> items = new ArrayList<>();
         for (JsonNode itemNode : payload.get("items")) {
             items.add(new OrderLineItem(
@@ -58,13 +196,18 @@ public class OrderEventsConsumer {
                     new BigDecimal(itemNode.get("unitPrice").asText())
             ));
         }
-
-        inventoryService.handleOrderCreated(eventId, orderId, items, totalAmount, currency);
+        return items;
     }
 
     private void handleStockReleaseRequested(JsonNode root, UUID eventId) {
-        JsonNode payload = root.get("payload");
-        UUID orderId = UUID.fromString(payload.get("orderId").asText());
-        inventoryService.handleStockReleaseRequested(eventId, orderId);
+        inventoryService.handleStockReleaseRequested(eventId, parseOrderId(root));
+    }
+
+    private void handleOrderConfirmed(JsonNode root) {
+        inventoryService.handleOrderConfirmed(parseOrderId(root));
+    }
+
+    private static UUID parseOrderId(JsonNode root) {
+        return UUID.fromString(root.get("payload").get("orderId").asText());
     }
 }
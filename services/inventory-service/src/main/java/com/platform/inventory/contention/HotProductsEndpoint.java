@@ -0,0 +1,24 @@
+package com.platform.inventory.contention;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** {@code GET /actuator/hotproducts}: the products inventory currently waits on most for locks. */
+@Component
+@Endpoint(id = "hotproducts")
+public class HotProductsEndpoint {
+
+    private final LockContentionMonitor monitor;
+
+    public HotProductsEndpoint(LockContentionMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @ReadOperation
+    public List<LockContentionMonitor.HotProduct> hotProducts() {
+        return monitor.hotProducts();
+    }
+}
@@ -0,0 +1,164 @@
+package com.platform.inventory.contention;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Measures how long inventory waits for product locks and how long it then holds them, per
+ * product. Only the {@code inventory.contention.top-k} products with the most lock wait get
+ * their own {@code product} tag; all others share {@code product="other"}, so the number of
+ * meters stays bounded. The hot set comes from a space-saving sketch that is refreshed every
+ * few seconds and decays over time.
+ *
+ * <p>A statement that locks several products counts its whole duration against each of them.
+ * Hold time runs from the end of that statement until the surrounding transaction completes.
+ */
+@Component
+public class LockContentionMonitor {
+
+    private static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final int topK;
+    private final SpaceSaving<UUID> sketch;
+    private final Map<String, Timer> waitTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+    private volatile List<SpaceSaving.Entry<UUID>> hot = List.of();
+    private volatile Set<UUID> hotIds = Set.of();
+
+    public LockContentionMonitor(MeterRegistry meterRegistry,
+                                 @Value("${inventory.contention.top-k:10}") int topK) {
+        this.meterRegistry = meterRegistry;
+        this.topK = topK;
+        this.sketch = new SpaceSaving<>(topK * 4);
+    }
+
+    /**
+     * Runs a statement that locks products and records its duration as lock wait for each of
+     * {@code lockedProducts(result)}. Their hold time is recorded when the transaction completes.
+     */
+    public <T> T timeLocks(Supplier<T> locking, Function<? super T, ? extends Collection<UUID>> lockedProducts) {
+        long start = System.nanoTime();
+        T result = locking.get();
+        long acquired = System.nanoTime();
+        Collection<UUID> productIds = lockedProducts.apply(result);
+        if (productIds.isEmpty()) {
+            return result;
+        }
+        long waitNanos = acquired - start;
+        synchronized (sketch) {
+            productIds.forEach(id -> sketch.offer(id, TimeUnit.NANOSECONDS.toMicros(waitNanos) + 1));
+        }
+        productIds.forEach(id -> timer(waitTimers, "inventory_lock_wait_seconds", id).record(waitNanos, TimeUnit.NANOSECONDS));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    long holdNanos = System.nanoTime() - acquired;
+                    productIds.forEach(id ->
+                            timer(holdTimers, "inventory_lock_hold_seconds", id).record(holdNanos, TimeUnit.NANOSECONDS));
+                }
+            });
+        }
+        return result;
+    }
+
+    /** Same as {@link #timeLocks(Supplier, Function)} for products known up front. */
+    public <T> T timeLocks(Collection<UUID> productIds, Supplier<T> locking) {
+        return timeLocks(locking, result -> productIds);
+    }
+
+    public void timeLocks(Collection<UUID> productIds, Runnable locking) {
+        timeLocks(productIds, () -> {
+            locking.run();
+            return null;
+        });
+    }
+
+    /** The current hot products, hottest first, with their lock wait and hold percentiles. */
+    public List<HotProduct> hotProducts() {
+        return hot.stream()
+                .map(entry -> {
+                    String tag = entry.key.toString();
+                    return new HotProduct(entry.key, entry.weight, entry.error,
+                            percentiles(waitTimers.get(tag)), percentiles(holdTimers.get(tag)));
+                })
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.contention.refresh-interval-ms:5000}")
+    public void refreshHotProducts() {
+        List<SpaceSaving.Entry<UUID>> top;
+        synchronized (sketch) {
+            top = sketch.top(topK);
+        }
+        hot = top;
+        hotIds = Set.copyOf(top.stream().map(e -> e.key).toList());
+        // Products that cooled down give their meters back; their later samples count as "other".
+        removeCooled(waitTimers);
+        removeCooled(holdTimers);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.contention.decay-interval-ms:60000}")
+    public void decay() {
+        synchronized (sketch) {
+            sketch.decay();
+        }
+    }
+
+    private Timer timer(Map<String, Timer> timers, String name, UUID productId) {
+        String tag = hotIds.contains(productId) ? productId.toString() : OTHER;
+        return timers.computeIfAbsent(tag, t -> Timer.builder(name)
+                .tag("product", t)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+    }
+
+    private void removeCooled(Map<String, Timer> timers) {
+        timers.entrySet().removeIf(entry -> {
+            if (entry.getKey().equals(OTHER) || hotIds.contains(UUID.fromString(entry.getKey()))) {
+                return false;
+            }
+            meterRegistry.remove(entry.getValue());
+            return true;
+        });
+    }
+
+    private static Map<String, Double> percentiles(Timer timer) {
+        if (timer == null) {
+            return Map.of();
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Double> millis = new LinkedHashMap<>();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            millis.put("p" + Math.round(value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+        }
+        return millis;
+    }
+
+    /**
+     * One entry of the hot set. {@code waitMicros} is the sketch's estimate of accumulated lock
+     * wait and may overstate it by up to {@code errorMicros}; percentiles are in milliseconds.
+     */
+    public record HotProduct(UUID productId, long waitMicros, long errorMicros,
+                             Map<String, Double> waitMillis, Map<String, Double> holdMillis) {}
+}
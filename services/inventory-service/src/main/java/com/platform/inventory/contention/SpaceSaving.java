@@ -0,0 +1,68 @@
+package com.platform.inventory.contention;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-saving heavy-hitters sketch (Metwally et al.): tracks at most {@code capacity} keys, so
+ * memory stays bounded however many keys are offered. When a new key arrives and the sketch is
+ * full, it replaces the key with the smallest weight and inherits that weight as its error;
+ * any key whose true weight exceeds total / capacity is guaranteed to be tracked. Not thread-safe.
+ */
+class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void offer(K key, long weight) {
+        Entry<K> entry = entries.get(key);
+        if (entry != null) {
+            entry.weight += weight;
+            return;
+        }
+        if (entries.size() < capacity) {
+            entries.put(key, new Entry<>(key, weight, 0));
+            return;
+        }
+        Entry<K> smallest = entries.values().stream().min(Comparator.comparingLong(e -> e.weight)).orElseThrow();
+        entries.remove(smallest.key);
+        entries.put(key, new Entry<>(key, smallest.weight + weight, smallest.weight));
+    }
+
+    /** The {@code k} heaviest keys, heaviest first. */
+    List<Entry<K>> top(int k) {
+        List<Entry<K>> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparingLong((Entry<K> e) -> e.weight).reversed());
+        return sorted.subList(0, Math.min(k, sorted.size())).stream()
+                .map(e -> new Entry<>(e.key, e.weight, e.error))
+                .toList();
+    }
+
+    /** Halves every weight, so that the sketch follows what is hot now rather than all time. */
+    void decay() {
+        entries.values().removeIf(e -> {
+            e.weight /= 2;
+            e.error /= 2;
+            return e.weight == 0;
+        });
+    }
+
+    static final class Entry<K> {
+        final K key;
+        long weight;
+        long error;
+
+        Entry(K key, long weight, long error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.platform.inventory.controller;
+
+import com.platform.inventory.catalog.CatalogImportService;
+import com.platform.inventory.catalog.ImportFormat;
+import com.platform.inventory.dto.CatalogImportResult;
+import com.platform.inventory.dto.ProductAvailability;
+import com.platform.inventory.service.StockAvailabilityService;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/products")
+public class ProductController {
+
+    private final StockAvailabilityService availabilityService;
+    private final CatalogImportService catalogImportService;
+
+    public ProductController(StockAvailabilityService availabilityService, CatalogImportService catalogImportService) {
+        this.availabilityService = availabilityService;
+        this.catalogImportService = catalogImportService;
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<ProductAvailability> getAvailability(@PathVariable UUID id) {
+        return ResponseEntity.ok(availabilityService.getAvailability(id));
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<List<ProductAvailability>> getAvailability(
+            @RequestParam @Size(min = 1, max = 100) List<UUID> ids) {
+        return ResponseEntity.ok(availabilityService.getAvailability(ids));
+    }
+
+    /** Streams the request body into {@code products}; see {@link CatalogImportService}. */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<CatalogImportResult> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return ResponseEntity.ok(catalogImportService.importProducts(body, ImportFormat.of(contentType)));
+    }
+}
@@ -0,0 +1,9 @@
+package com.platform.inventory.dto;
+
+/**
+ * Outcome of one catalog import. {@code rows} counts every line read, including repeated ids,
+ * of which the last one wins. {@code skippedBucketed} products had their name updated but not
+ * their stock, which lives in buckets.
+ */
+public record CatalogImportResult(long rows, int created, int restocked, int unchanged,
+                                  int rejected, int skippedBucketed) {}
@@ -0,0 +1,7 @@
+package com.platform.inventory.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** Stock a product had when the snapshot was read at {@code asOf}; buckets are summed in. */
+public record ProductAvailability(UUID productId, String name, int available, Instant asOf) {}
@@ -0,0 +1,112 @@
+package com.platform.inventory.engine;
+
+import com.platform.inventory.repository.StockReservationRepository.StockLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stock of a subset of products, owned by one thread. Counters are plain ints that only
+ * that thread reads or writes, so they need no locks; other threads hand it work through its
+ * inbox.
+ */
+final class EngineShard {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineShard.class);
+
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final BlockingQueue<Runnable> inbox = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private int[] stock = new int[16];
+
+    private volatile boolean running = false;
+
+    EngineShard(int index) {
+        this.thread = new Thread(this::run, "reservation-engine-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    /** Only before {@link #start}. */
+    void load(UUID productId, int quantity) {
+        int slot = slots.size();
+        if (slot == stock.length) {
+            stock = Arrays.copyOf(stock, slot * 2);
+        }
+        slots.put(productId, slot);
+        stock[slot] = quantity;
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void submit(Runnable task) {
+        inbox.add(task);
+    }
+
+    /**
+     * Takes every requested quantity if all of them fit, otherwise nothing. Returns one line
+     * per product with the stock it had before. Shard thread only.
+     */
+    List<StockLine> tryReserve(Map<UUID, Integer> requested) {
+        List<StockLine> lines = new ArrayList<>(requested.size());
+        boolean fits = true;
+        for (Map.Entry<UUID, Integer> entry : requested.entrySet()) {
+            Integer slot = slots.get(entry.getKey());
+            Integer available = slot != null ? stock[slot] : null;
+            StockLine line = new StockLine(entry.getKey(), null, entry.getValue(), available, false, false);
+            fits &= !line.isShort();
+            lines.add(line);
+        }
+        if (fits) {
+            requested.forEach((productId, quantity) -> stock[slots.get(productId)] -= quantity);
+        }
+        return lines;
+    }
+
+    /** Gives stock back, for releases and undone reservations. Shard thread only. */
+    void credit(Map<UUID, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            Integer slot = slots.get(productId);
+            if (slot != null) {
+                stock[slot] += quantity;
+            }
+        });
+    }
+
+    private void run() {
+        while (running) {
+            Runnable task;
+            try {
+                task = inbox.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Reservation engine task failed on {}", thread.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.platform.inventory.engine;
+
+import com.platform.events.OrderLineItem;
+import com.platform.inventory.repository.StockReservationRepository.StockLine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One {@code OrderCreated} on its way through the engine. It visits the shards owning its
+ * products one after another; each shard is the only thread touching it at that point, and the
+ * inbox hand-off makes its writes visible to the next one.
+ */
+final class PendingReservation {
+
+    final UUID eventId;
+    final UUID orderId;
+    final UUID customerId;
+    final List<OrderLineItem> items;
+    final BigDecimal totalAmount;
+    final String currency;
+    final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+    private final int[] route;
+    private final List<Map<UUID, Integer>> parts;
+    private final boolean[] taken;
+    private final List<StockLine> lines = new ArrayList<>();
+    private int step = 0;
+
+    PendingReservation(UUID eventId, UUID orderId, UUID customerId, List<OrderLineItem> items,
+                       BigDecimal totalAmount, String currency, int[] route, List<Map<UUID, Integer>> parts) {
+        this.eventId = eventId;
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.items = items;
+        this.totalAmount = totalAmount;
+        this.currency = currency;
+        this.route = route;
+        this.parts = parts;
+        this.taken = new boolean[route.length];
+    }
+
+    int currentShard() {
+        return route[step];
+    }
+
+    Map<UUID, Integer> currentPart() {
+        return parts.get(step);
+    }
+
+    /** Records the current shard's outcome and returns true if another shard is still to visit. */
+    boolean record(List<StockLine> shardLines) {
+        lines.addAll(shardLines);
+        taken[step] = shardLines.stream().noneMatch(StockLine::isShort);
+        return ++step < route.length;
+    }
+
+    boolean reserved() {
+        return lines.stream().noneMatch(StockLine::isShort);
+    }
+
+    List<StockLine> lines() {
+        return lines;
+    }
+
+    int shardCount() {
+        return route.length;
+    }
+
+    int shardAt(int i) {
+        return route[i];
+    }
+
+    Map<UUID, Integer> partAt(int i) {
+        return parts.get(i);
+    }
+
+    boolean takenAt(int i) {
+        return taken[i];
+    }
+}
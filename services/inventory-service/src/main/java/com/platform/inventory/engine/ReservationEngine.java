@@ -0,0 +1,417 @@
+package com.platform.inventory.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.inventory.StockRejectedEvent;
+import com.platform.events.inventory.StockReservedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.inventory.config.StockShardingProperties;
+import com.platform.inventory.entity.Reservation;
+import com.platform.inventory.outbox.OutboxEvent;
+import com.platform.inventory.repository.InventoryBatchRepository;
+import com.platform.inventory.repository.InventoryBatchRepository.ProductStock;
+import com.platform.inventory.repository.StockReservationRepository;
+import com.platform.inventory.repository.StockReservationRepository.StockLine;
+import com.platform.inventory.service.StockChanged;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Alternative to {@code InventoryService} for {@code OrderCreated}: stock lives in memory,
+ * split by product across single-writer shards, and reservations are decided there without
+ * touching the database. Decisions are then persisted by one journal thread in batches (stock
+ * deltas, reservations, processed events and the outbox event in one transaction), and each
+ * caller's future completes only once its batch has committed.
+ *
+ * <p>An order whose products live on several shards visits them in shard order, each taking
+ * its part if it fits. If any part does not fit, the parts already taken are given back. Until
+ * then other orders see that stock as taken and may be rejected.
+ *
+ * <p>State is rebuilt from {@code products} on startup. Only one instance may own the stock, so
+ * startup fails if another instance holds the engine's advisory lock.
+ */
+@Component
+@Profile("reservation-engine")
+public class ReservationEngine implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationEngine.class);
+    private static final long OWNER_LOCK_KEY = 0x696e76656e746f72L; // "inventor"
+
+    private final DataSource dataSource;
+    private final InventoryBatchRepository batchRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockShardingProperties shardingProperties;
+    private final EngineShard[] shards;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Semaphore inFlightPermits;
+    private final Duration holdTtl;
+    private final boolean ledgerEnabled;
+    private final Map<UUID, PendingReservation> inFlight = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingReservation> journalQueue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizes;
+    private final Counter reservedCounter;
+
+    private volatile boolean running = false;
+    private Connection ownerConnection;
+    private boolean ownerLockHeld = false;
+    private Thread journal;
+
+    public ReservationEngine(DataSource dataSource,
+                             InventoryBatchRepository batchRepository,
+                             StockReservationRepository stockReservationRepository,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             StockShardingProperties shardingProperties,
+                             MeterRegistry meterRegistry,
+                             @Value("${inventory.engine.shards:4}") int shardCount,
+                             @Value("${inventory.engine.max-batch-size:256}") int maxBatchSize,
+                             @Value("${inventory.engine.max-wait:2ms}") Duration maxWait,
+                             @Value("${inventory.engine.max-in-flight:10000}") int maxInFlight,
+                             @Value("${inventory.reservations.hold-ttl:30m}") Duration holdTtl,
+                             @Value("${inventory.ledger.enabled:false}") boolean ledgerEnabled) {
+        this.dataSource = dataSource;
+        this.batchRepository = batchRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.shardingProperties = shardingProperties;
+        this.shards = new EngineShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new EngineShard(i);
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.holdTtl = holdTtl;
+        this.ledgerEnabled = ledgerEnabled;
+        this.batchSizes = DistributionSummary.builder("inventory_engine_batch_size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.reservedCounter = meterRegistry.counter("stock_reserved_total");
+        Gauge.builder("inventory_engine_in_flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Decides the reservation in memory and returns a future that completes once the decision
+     * and its outbox event are committed. Blocks while {@code max-in-flight} decisions are
+     * waiting to be persisted.
+     */
+    public CompletableFuture<Void> reserve(UUID eventId, UUID orderId, UUID customerId, List<OrderLineItem> items,
+                                           BigDecimal totalAmount, String currency) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Reservation engine is not running");
+        }
+        PendingReservation existing = inFlight.get(eventId);
+        if (existing != null) {
+            return existing.durable;
+        }
+
+        Map<Integer, Map<UUID, Integer>> byShard = new TreeMap<>();
+        for (OrderLineItem item : items) {
+            byShard.computeIfAbsent(shardOf(item.productId()), s -> new TreeMap<>())
+                    .merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        PendingReservation pending = new PendingReservation(eventId, orderId, customerId, items, totalAmount, currency,
+                byShard.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                new ArrayList<>(byShard.values()));
+
+        inFlightPermits.acquire();
+        PendingReservation raced = inFlight.putIfAbsent(eventId, pending);
+        if (raced != null) {
+            inFlightPermits.release();
+            return raced.durable;
+        }
+        if (byShard.isEmpty()) {
+            journalQueue.add(pending);
+        } else {
+            shards[pending.currentShard()].submit(() -> step(pending));
+        }
+        return pending.durable;
+    }
+
+    /** Gives released stock back to its shard once the release has been committed. */
+    public void credit(UUID productId, int quantity) {
+        EngineShard shard = shards[shardOf(productId)];
+        shard.submit(() -> shard.credit(Map.of(productId, quantity)));
+    }
+
+    @Override
+    public void start() {
+        if (!shardingProperties.products().isEmpty()) {
+            throw new IllegalStateException("Reservation engine cannot be combined with inventory.sharding.products");
+        }
+        if (ledgerEnabled) {
+            throw new IllegalStateException("Reservation engine cannot be combined with inventory.ledger.enabled");
+        }
+        acquireOwnership();
+        List<ProductStock> products = batchRepository.findAllStock();
+        List<UUID> bucketed = products.stream().filter(p -> p.bucketCount() > 0).map(ProductStock::productId).toList();
+        if (!bucketed.isEmpty()) {
+            releaseOwnership();
+            throw new IllegalStateException("Reservation engine cannot own bucketed stock of products " + bucketed
+                    + "; start once without the engine to merge them back");
+        }
+        products.forEach(p -> shards[shardOf(p.productId())].load(p.productId(), p.stock()));
+
+        running = true;
+        for (EngineShard shard : shards) {
+            shard.start();
+        }
+        journal = new Thread(this::runJournal, "reservation-engine-journal");
+        journal.setDaemon(true);
+        journal.start();
+        log.info("Reservation engine owns stock of {} products across {} shards", products.size(), shards.length);
+    }
+
+    @Override
+    public void stop() {
+        // Give decisions already made a chance to become durable before the threads go away.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!inFlight.isEmpty() && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        running = false;
+        for (EngineShard shard : shards) {
+            shard.stop();
+        }
+        journal.interrupt();
+        try {
+            journal.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Unacknowledged events are redelivered and decided again after the restart.
+        inFlight.values().forEach(p -> p.durable.completeExceptionally(
+                new IllegalStateException("Reservation engine stopped before the reservation was persisted")));
+        inFlight.clear();
+        releaseOwnership();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the Kafka listener containers.
+        return DEFAULT_PHASE - 2048;
+    }
+
+    private int shardOf(UUID productId) {
+        return Math.floorMod(productId.hashCode(), shards.length);
+    }
+
+    private void step(PendingReservation pending) {
+        EngineShard shard = shards[pending.currentShard()];
+        if (pending.record(shard.tryReserve(pending.currentPart()))) {
+            shards[pending.currentShard()].submit(() -> step(pending));
+            return;
+        }
+        if (!pending.reserved()) {
+            undo(pending);
+        }
+        journalQueue.add(pending);
+    }
+
+    private void undo(PendingReservation pending) {
+        for (int i = 0; i < pending.shardCount(); i++) {
+            if (pending.takenAt(i)) {
+                EngineShard shard = shards[pending.shardAt(i)];
+                Map<UUID, Integer> part = pending.partAt(i);
+                shard.submit(() -> shard.credit(part));
+            }
+        }
+    }
+
+    private void runJournal() {
+        List<PendingReservation> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(journalQueue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (journalQueue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingReservation next = remaining > 0 ? journalQueue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Decisions are already applied in memory, so a failed batch is retried until it commits
+    // rather than dropped; its events stay unacknowledged meanwhile.
+    private void persist(List<PendingReservation> batch) throws InterruptedException {
+        batchSizes.record(batch.size());
+        while (true) {
+            try {
+                Set<UUID> duplicates = transactionTemplate.execute(status -> write(batch));
+                complete(batch, duplicates);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Persisting {} reservations failed, retrying: {}", batch.size(), e.getMessage());
+                Thread.sleep(1000);
+            }
+        }
+    }
+
+    private Set<UUID> write(List<PendingReservation> batch) {
+        Set<UUID> fresh = batchRepository.insertProcessedEvents(batch.stream().map(p -> p.eventId).toList());
+        Map<UUID, Integer> deltas = new TreeMap<>();
+        List<Reservation> reservations = new ArrayList<>();
+        List<OutboxEvent> events = new ArrayList<>();
+        for (PendingReservation pending : batch) {
+            if (!fresh.contains(pending.eventId)) {
+                continue;
+            }
+            if (pending.reserved()) {
+                for (OrderLineItem item : pending.items) {
+                    deltas.merge(item.productId(), -item.quantity(), Integer::sum);
+                    reservations.add(new Reservation(pending.orderId, item.productId(), item.quantity(), holdTtl));
+                }
+                events.add(outboxEvent(pending.orderId, EventTypes.STOCK_RESERVED, new StockReservedEvent(
+                        pending.orderId, pending.items, pending.totalAmount, pending.currency, pending.customerId)));
+            } else {
+                List<StockLine> shortLines = pending.lines().stream().filter(StockLine::isShort).toList();
+                events.add(outboxEvent(pending.orderId, EventTypes.STOCK_REJECTED, new StockRejectedEvent(
+                        pending.orderId,
+                        shortLines.stream().map(StockLine::describeShortage).collect(Collectors.joining("; ")),
+                        shortLines.stream().map(StockLine::toShortage).toList())));
+            }
+        }
+        batchRepository.applyStockDeltas(deltas);
+        if (!reservations.isEmpty()) {
+            stockReservationRepository.insertReservations(reservations);
+            eventPublisher.publishEvent(new StockChanged(deltas.keySet()));
+        }
+        batchRepository.insertOutboxEvents(events);
+
+        Set<UUID> duplicates = new HashSet<>();
+        batch.stream().map(p -> p.eventId).filter(id -> !fresh.contains(id)).forEach(duplicates::add);
+        return duplicates;
+    }
+
+    private void complete(List<PendingReservation> batch, Set<UUID> duplicates) {
+        for (PendingReservation pending : batch) {
+            if (duplicates.contains(pending.eventId)) {
+                // Decided before a restart or rebalance; that decision is the one that stands.
+                if (pending.reserved()) {
+                    undo(pending);
+                }
+                log.info("Event {} already processed, skipping", pending.eventId);
+            } else if (pending.reserved()) {
+                reservedCounter.increment();
+                log.info("Stock reserved for order {}", pending.orderId);
+            } else {
+                log.warn("Stock rejected for order {}", pending.orderId);
+            }
+            inFlight.remove(pending.eventId);
+            inFlightPermits.release();
+            pending.durable.complete(null);
+        }
+    }
+
+    private static OutboxEvent outboxEvent(UUID orderId, String eventType, Object event) {
+        try {
+            String payload = EventObjectMapper.instance().writeValueAsString(EventEnvelope.wrap(eventType, event, orderId));
+            return new OutboxEvent("Inventory", orderId, eventType, payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize event for outbox", e);
+        }
+    }
+
+    // A session-level advisory lock on a connection kept for the engine's lifetime.
+    private void acquireOwnership() {
+        try {
+            ownerConnection = dataSource.getConnection();
+            try (PreparedStatement ps = ownerConnection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                ps.setLong(1, OWNER_LOCK_KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        ownerLockHeld = true;
+                        return;
+                    }
+                }
+            }
+            releaseOwnership();
+            throw new IllegalStateException("Another inventory instance is running the reservation engine");
+        } catch (SQLException e) {
+            releaseOwnership();
+            throw new IllegalStateException("Could not acquire reservation engine ownership", e);
+        }
+    }
+
+    private void releaseOwnership() {
+        if (ownerConnection == null) {
+            return;
+        }
+        // The pool keeps the physical connection, so the session lock must be released explicitly.
+        try (Connection connection = ownerConnection) {
+            if (ownerLockHeld) {
+                try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                    ps.setLong(1, OWNER_LOCK_KEY);
+                    ps.execute();
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to close reservation engine owner connection: {}", e.getMessage());
+        }
+        ownerConnection = null;
+        ownerLockHeld = false;
+    }
+}
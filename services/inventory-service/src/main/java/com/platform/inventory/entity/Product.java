@@ -1,6 +1,8 @@
 package com.platform.inventory.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
+
 import java.util.UUID;
 
 @Entity
@@ -16,6 +18,18 @@ public class Product {
     @Column(nullable = false)
     private int stock;
 
+    // When > 0 the stock lives in product_stock_buckets and the stock column is 0.
+    @Column(name = "bucket_count", nullable = false)
+    private int bucketCount;
+
+    @Formula("(SELECT coalesce(sum(b.stock), 0) FROM product_stock_buckets b WHERE b.product_id = id)")
+    private int bucketStock;
+
+    // Stock ledger movements not yet rolled up into the stock column.
+    @Formula("(SELECT coalesce(sum(m.quantity), 0) FROM stock_movements m "
+            + "WHERE m.product_id = id AND m.id > ledger_position)")
+    private int pendingMovements;
+
     protected Product() {}
 
     public Product(UUID id, String name, int stock) {
@@ -25,6 +39,7 @@ public class Product {
     }
 
     public boolean reserveStock(int quantity) {
+        requireUnsharded();
         if (stock >= quantity) {
             stock -= quantity;
             return true;
@@ -36,10 +51,24 @@ public class Product {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Release quantity must be positive");
         }
+        requireUnsharded();
         stock += quantity;
     }
 
+    public boolean isSharded() {
+        return bucketCount > 0;
+    }
+
+    private void requireUnsharded() {
+        if (isSharded()) {
+            throw new IllegalStateException("Stock of product " + id + " is held in buckets");
+        }
+    }
+
     public UUID getId() { return id; }
     public String getName() { return name; }
-    public int getStock() { return stock; }
+    public int getBucketCount() { return bucketCount; }
+
+    /** Total stock available, whether it is held in this row, spread across buckets or partly in the ledger. */
+    public int getStock() { return isSharded() ? bucketStock : stock + pendingMovements; }
 }
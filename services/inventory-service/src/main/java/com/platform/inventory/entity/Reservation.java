@@ -1,6 +1,7 @@
 package com.platform.inventory.entity;
 
 import jakarta.persistence.*;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -26,15 +27,19 @@ public class Reservation {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
     protected Reservation() {}
 
-    public Reservation(UUID orderId, UUID productId, int quantity) {
+    public Reservation(UUID orderId, UUID productId, int quantity, Duration holdTtl) {
         this.id = UUID.randomUUID();
         this.orderId = orderId;
         this.productId = productId;
         this.quantity = quantity;
         this.status = "RESERVED";
         this.createdAt = Instant.now();
+        this.expiresAt = createdAt.plus(holdTtl);
     }
 
     public void release() {
@@ -47,4 +52,5 @@ public class Reservation {
     public int getQuantity() { return quantity; }
     public String getStatus() { return status; }
     public Instant getCreatedAt() { return createdAt; }
+    public Instant getExpiresAt() { return expiresAt; }
 }
@@ -56,7 +56,8 @@ public class OutboxPublisher {
 
     @Transactional
     protected void publishSingleEvent(OutboxEvent event) {
-        String topic = "inventory-events";
+        // Product-level events have no order id, which every saga consumer of inventory-events expects.
+        String topic = "Product".equals(event.getAggregateType()) ? "product-events" : "inventory-events";
         try {
             kafkaTemplate.send(topic, event.getAggregateId().toString(), event.getPayload()).get();
             event.markPublished();
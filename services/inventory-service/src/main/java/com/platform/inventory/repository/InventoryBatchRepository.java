@@ -0,0 +1,101 @@
+package com.platform.inventory.repository;
+
+import com.platform.inventory.outbox.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Multi-row writes for handling many inventory events in one transaction, issued as single
+ * array statements or JDBC batches instead of several round trips per event.
+ */
+@Repository
+public class InventoryBatchRepository {
+
+    // Products are locked in id order, like every other multi-product writer in this service.
+    private static final String APPLY_DELTAS_SQL = """
+            WITH deltas AS (
+                SELECT id, delta FROM unnest(?::uuid[], ?::int[]) AS d(id, delta)
+            ),
+            locked AS (
+                SELECT p.id FROM products p JOIN deltas d ON d.id = p.id
+                ORDER BY p.id
+                FOR UPDATE OF p
+            )
+            UPDATE products p SET stock = p.stock + d.delta
+            FROM deltas d, locked l
+            WHERE p.id = d.id AND l.id = p.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Set<UUID> findProcessedEvents(List<UUID> eventIds) {
+        Set<UUID> processed = new HashSet<>();
+        jdbcTemplate.query("SELECT event_id FROM processed_events WHERE event_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", eventIds.toArray())),
+                rs -> { processed.add(rs.getObject("event_id", UUID.class)); });
+        return processed;
+    }
+
+    /** Records the events as processed and returns those that were not already recorded. */
+    public Set<UUID> insertProcessedEvents(List<UUID> eventIds) {
+        Set<UUID> inserted = new HashSet<>();
+        jdbcTemplate.query(
+                "INSERT INTO processed_events (event_id) SELECT unnest(?::uuid[]) "
+                        + "ON CONFLICT DO NOTHING RETURNING event_id",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", eventIds.toArray())),
+                rs -> { inserted.add(rs.getObject("event_id", UUID.class)); });
+        return inserted;
+    }
+
+    /** Adds each delta (negative to take stock) to the product's row stock. */
+    public void applyStockDeltas(Map<UUID, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(APPLY_DELTAS_SQL, ps -> {
+            Array ids = ps.getConnection().createArrayOf("uuid", deltas.keySet().toArray());
+            Array values = ps.getConnection().createArrayOf("int4", deltas.values().toArray());
+            ps.setArray(1, ids);
+            ps.setArray(2, values);
+        });
+    }
+
+    public void insertOutboxEvents(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, created_at, published) "
+                        + "VALUES (?, ?, ?, ?, ?::jsonb, ?, ?)",
+                events, events.size(), (ps, event) -> {
+                    ps.setObject(1, event.getId());
+                    ps.setString(2, event.getAggregateType());
+                    ps.setObject(3, event.getAggregateId());
+                    ps.setString(4, event.getEventType());
+                    ps.setString(5, event.getPayload());
+                    ps.setTimestamp(6, Timestamp.from(event.getCreatedAt()));
+                    ps.setBoolean(7, event.isPublished());
+                });
+    }
+
+    public List<ProductStock> findAllStock() {
+        // Includes stock ledger movements not rolled up yet, in case the ledger was used before.
+        return jdbcTemplate.query("SELECT p.id, p.bucket_count, p.stock + coalesce((SELECT sum(m.quantity) "
+                        + "FROM stock_movements m WHERE m.product_id = p.id AND m.id > p.ledger_position), 0) AS stock "
+                        + "FROM products p",
+                (rs, rowNum) -> new ProductStock(
+                        rs.getObject("id", UUID.class), rs.getInt("stock"), rs.getInt("bucket_count")));
+    }
+
+    /** Row stock of a product; while {@code bucketCount} is above 0 its stock is held in buckets instead. */
+    public record ProductStock(UUID productId, int stock, int bucketCount) {}
+}
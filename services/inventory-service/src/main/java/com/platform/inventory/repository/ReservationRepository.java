@@ -2,6 +2,8 @@ package com.platform.inventory.repository;
 
 import com.platform.inventory.entity.Reservation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.UUID;
@@ -9,4 +11,10 @@ import java.util.UUID;
 public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
 
     List<Reservation> findByOrderIdAndStatus(UUID orderId, String status);
+
+    boolean existsByOrderIdAndStatus(UUID orderId, String status);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :to WHERE r.orderId = :orderId AND r.status = :from")
+    int updateStatus(UUID orderId, String from, String to);
 }
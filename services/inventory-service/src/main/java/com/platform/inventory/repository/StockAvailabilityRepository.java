@@ -0,0 +1,51 @@
+package com.platform.inventory.repository;
+
+import com.platform.inventory.dto.ProductAvailability;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plain MVCC reads of the stock of products, bucketed or not. Nothing here takes a row lock,
+ * so these queries never wait for, or delay, a reservation.
+ */
+@Repository
+public class StockAvailabilityRepository {
+
+    private static final String SELECT_AVAILABILITY = """
+            SELECT p.id, p.name,
+                   CASE WHEN p.bucket_count > 0
+                        THEN (SELECT coalesce(sum(b.stock), 0) FROM product_stock_buckets b WHERE b.product_id = p.id)
+                        ELSE p.stock + coalesce((SELECT sum(m.quantity) FROM stock_movements m
+                                                 WHERE m.product_id = p.id AND m.id > p.ledger_position), 0)
+                   END AS available,
+                   now() AS as_of
+            FROM products p
+            """;
+
+    private static final RowMapper<ProductAvailability> AVAILABILITY = (rs, rowNum) -> new ProductAvailability(
+            rs.getObject("id", UUID.class),
+            rs.getString("name"),
+            rs.getInt("available"),
+            rs.getTimestamp("as_of").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockAvailabilityRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<ProductAvailability> findAll() {
+        return jdbcTemplate.query(SELECT_AVAILABILITY, AVAILABILITY);
+    }
+
+    public List<ProductAvailability> findByIds(Collection<UUID> productIds) {
+        return jdbcTemplate.query(SELECT_AVAILABILITY + "WHERE p.id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", productIds.toArray())),
+                AVAILABILITY);
+    }
+}
@@ -0,0 +1,174 @@
+package com.platform.inventory.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stock of hot products, split across {@code product_stock_buckets} rows so that concurrent
+ * reservations of the same product lock different rows instead of queueing on one.
+ */
+@Repository
+public class StockBucketRepository {
+
+    // Starts at the preferred bucket and wraps around; buckets another transaction holds are skipped.
+    private static final String CLAIM_ONE_SQL = """
+            SELECT bucket FROM product_stock_buckets
+            WHERE product_id = ? AND stock >= ?
+            ORDER BY bucket >= ? DESC, bucket
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String LOCK_ALL_SQL = """
+            SELECT bucket, stock FROM product_stock_buckets
+            WHERE product_id = ?
+            ORDER BY bucket
+            FOR UPDATE
+            """;
+
+    // Evens out the buckets nobody holds right now, once the emptiest has fallen below half of
+    // its fair share. The first (total % n) buckets get the remainder.
+    private static final String REBALANCE_SQL = """
+            WITH locked AS (
+                SELECT bucket, stock FROM product_stock_buckets
+                WHERE product_id = ?
+                ORDER BY bucket
+                FOR UPDATE SKIP LOCKED
+            ),
+            totals AS (
+                SELECT sum(stock) AS total, count(*) AS n, min(stock) AS lowest FROM locked
+            ),
+            target AS (
+                SELECT l.bucket,
+                       t.total / t.n + CASE WHEN row_number() OVER (ORDER BY l.bucket) <= t.total % t.n
+                                            THEN 1 ELSE 0 END AS stock
+                FROM locked l, totals t
+                WHERE t.n > 1 AND t.lowest * 2 < t.total / t.n
+            )
+            UPDATE product_stock_buckets b SET stock = t.stock
+            FROM target t
+            WHERE b.product_id = ? AND b.bucket = t.bucket AND b.stock <> t.stock
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockBucketRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Locks enough bucket stock for {@code quantity} without taking it yet; {@link #take} does
+     * that once the rest of the order is known to fit. Tries a single unlocked bucket first and
+     * only falls back to locking every bucket of the product, in bucket order, when none has
+     * enough on its own. Returns null if the product has no buckets.
+     */
+    public BucketClaim claim(UUID productId, int quantity, int preferredBucket) {
+        List<Integer> free = jdbcTemplate.queryForList(CLAIM_ONE_SQL, Integer.class,
+                productId, quantity, preferredBucket);
+        if (!free.isEmpty()) {
+            return new BucketClaim(List.of(new BucketTake(productId, free.get(0), quantity)), quantity, false);
+        }
+
+        List<int[]> buckets = jdbcTemplate.query(LOCK_ALL_SQL,
+                (rs, rowNum) -> new int[] {rs.getInt("bucket"), rs.getInt("stock")}, productId);
+        if (buckets.isEmpty()) {
+            return null;
+        }
+        int available = buckets.stream().mapToInt(b -> b[1]).sum();
+        if (available < quantity) {
+            return new BucketClaim(List.of(), available, true);
+        }
+        List<BucketTake> takes = new ArrayList<>();
+        int remaining = quantity;
+        for (int[] bucket : buckets) {
+            int taken = Math.min(bucket[1], remaining);
+            if (taken > 0) {
+                takes.add(new BucketTake(productId, bucket[0], taken));
+                remaining -= taken;
+            }
+        }
+        return new BucketClaim(takes, available, true);
+    }
+
+    /** Applies claimed takes; the buckets are already locked by this transaction. */
+    public void take(List<BucketTake> takes) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE product_stock_buckets SET stock = stock - ? WHERE product_id = ? AND bucket = ?",
+                takes, takes.size(), (ps, take) -> {
+                    ps.setInt(1, take.quantity());
+                    ps.setObject(2, take.productId());
+                    ps.setInt(3, take.bucket());
+                });
+    }
+
+    public void release(UUID productId, int bucket, int quantity) {
+        jdbcTemplate.update(
+                "UPDATE product_stock_buckets SET stock = stock + ? WHERE product_id = ? AND bucket = ?",
+                quantity, productId, bucket);
+    }
+
+    /** Returns true if any bucket was rewritten. Never waits for a bucket another transaction holds. */
+    public boolean rebalance(UUID productId) {
+        return jdbcTemplate.update(REBALANCE_SQL, productId, productId) > 0;
+    }
+
+    /** Bucket count of every product whose stock is currently held in buckets. */
+    public Map<UUID, Integer> findShardedProducts() {
+        Map<UUID, Integer> sharded = new HashMap<>();
+        jdbcTemplate.query("SELECT id, bucket_count FROM products WHERE bucket_count > 0",
+                rs -> { sharded.put(rs.getObject("id", UUID.class), rs.getInt("bucket_count")); });
+        return sharded;
+    }
+
+    /**
+     * Moves the whole stock of a product into {@code bucketCount} evenly filled buckets, or back
+     * into the products row when {@code bucketCount} is 0. Returns false if the product does not
+     * exist or already has that many buckets.
+     */
+    @Transactional
+    public boolean reshard(UUID productId, int bucketCount) {
+        List<Integer> current = jdbcTemplate.queryForList(
+                "SELECT bucket_count FROM products WHERE id = ? FOR UPDATE", Integer.class, productId);
+        if (current.isEmpty() || current.get(0) == bucketCount) {
+            return false;
+        }
+        List<Integer> bucketStock = jdbcTemplate.queryForList(
+                "SELECT stock FROM product_stock_buckets WHERE product_id = ? ORDER BY bucket FOR UPDATE",
+                Integer.class, productId);
+        Integer rowStock = jdbcTemplate.queryForObject(
+                "SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+        int total = rowStock + bucketStock.stream().mapToInt(Integer::intValue).sum();
+
+        jdbcTemplate.update("DELETE FROM product_stock_buckets WHERE product_id = ?", productId);
+        if (bucketCount > 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO product_stock_buckets (product_id, bucket, stock) "
+                            + "SELECT ?, g, ? / ? + CASE WHEN g < ? % ? THEN 1 ELSE 0 END "
+                            + "FROM generate_series(0, ? - 1) AS g",
+                    productId, total, bucketCount, total, bucketCount, bucketCount);
+        }
+        jdbcTemplate.update("UPDATE products SET stock = ?, bucket_count = ? WHERE id = ?",
+                bucketCount > 0 ? 0 : total, bucketCount, productId);
+        return true;
+    }
+
+    public record BucketTake(UUID productId, int bucket, int quantity) {}
+
+    /**
+     * Result of {@link #claim}. {@code takes} is empty when the product is short; {@code available}
+     * is then its total bucket stock. {@code fallback} tells whether every bucket had to be locked.
+     */
+    public record BucketClaim(List<BucketTake> takes, int available, boolean fallback) {
+
+        public boolean isShort() {
+            return takes.isEmpty();
+        }
+    }
+}
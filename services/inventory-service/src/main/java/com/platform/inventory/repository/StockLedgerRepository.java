@@ -0,0 +1,145 @@
+package com.platform.inventory.repository;
+
+import com.platform.inventory.repository.StockReservationRepository.LockedProduct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Append-only stock ledger: stock changes are inserted into {@code stock_movements} instead of
+ * updating {@code products.stock}, and the current stock of a product is its row stock plus the
+ * movements after its {@code ledger_position}. {@link #rollUp} periodically folds those
+ * movements into the row.
+ *
+ * <p>Every writer holds a transaction-scoped advisory lock on each product it moves: exclusive
+ * for reservations, which must decide against the current stock, and shared for releases,
+ * which only add to it. A rollup holds the exclusive lock too, so it never sees a movement
+ * that is inserted but not yet committed, and so never skips one when it advances the position.
+ */
+@Repository
+public class StockLedgerRepository {
+
+    // Keys must be passed sorted so that overlapping lock sets cannot deadlock.
+    private static final String LOCK_SQL = """
+            SELECT %s(hashtextextended(k::text, 0))
+            FROM unnest(?::uuid[]) WITH ORDINALITY AS t(k, n)
+            ORDER BY n
+            """;
+
+    private static final String CURRENT_STOCK_SQL = """
+            SELECT p.id, p.name, p.bucket_count,
+                   p.stock + coalesce((SELECT sum(m.quantity) FROM stock_movements m
+                                       WHERE m.product_id = p.id AND m.id > p.ledger_position), 0) AS stock
+            FROM products p
+            WHERE p.id = ANY(?)
+            """;
+
+    private static final String ROLL_UP_SQL = """
+            WITH pending AS (
+                SELECT m.product_id, sum(m.quantity)::int AS delta, max(m.id) AS last_id
+                FROM stock_movements m JOIN products p ON p.id = m.product_id
+                WHERE m.product_id = ANY(?) AND m.id > p.ledger_position
+                GROUP BY m.product_id
+            )
+            UPDATE products p SET stock = p.stock + d.delta, ledger_position = d.last_id
+            FROM pending d
+            WHERE p.id = d.product_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockLedgerRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes the exclusive ledger lock on the products, then reads their current stock in a new
+     * statement, so that it includes every movement committed before the lock was granted.
+     * Products that do not exist are absent from the result.
+     */
+    public Map<UUID, LockedProduct> lockProducts(Collection<UUID> productIds) {
+        lock(productIds, false);
+        Map<UUID, LockedProduct> products = new HashMap<>();
+        jdbcTemplate.query(CURRENT_STOCK_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", productIds.toArray())),
+                rs -> {
+                    UUID id = rs.getObject("id", UUID.class);
+                    products.put(id, new LockedProduct(id, rs.getString("name"), rs.getInt("stock"),
+                            rs.getInt("bucket_count") > 0));
+                });
+        return products;
+    }
+
+    /** Appends movements taking stock; the caller holds the exclusive lock from {@link #lockProducts}. */
+    public void append(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO stock_movements (product_id, kind, quantity, order_id) VALUES (?, ?, ?, ?)",
+                movements, movements.size(), (ps, movement) -> {
+                    ps.setObject(1, movement.productId());
+                    ps.setString(2, movement.kind().name());
+                    ps.setInt(3, movement.quantity());
+                    ps.setObject(4, movement.orderId());
+                });
+    }
+
+    /** Appends movements giving stock back, under the shared lock so that they never wait for each other. */
+    public void appendReturned(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        lock(movements.stream().map(StockMovement::productId).toList(), true);
+        append(movements);
+    }
+
+    /**
+     * Products with movements in {@code (afterId, upToId]}. Only a hint for the rollup: a
+     * movement that commits after a higher id was read is missed here, and is rolled up with
+     * the next movement of its product instead.
+     */
+    public List<UUID> findMovedProducts(long afterId, long upToId) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT product_id FROM stock_movements WHERE id > ? AND id <= ? ORDER BY product_id",
+                UUID.class, afterId, upToId);
+    }
+
+    /** Highest movement id any product has been rolled up to; a starting point for the rollup hints. */
+    public long findRolledUpPosition() {
+        return jdbcTemplate.queryForObject("SELECT coalesce(max(ledger_position), 0) FROM products", Long.class);
+    }
+
+    public long findLastMovementId() {
+        Long id = jdbcTemplate.queryForObject("SELECT max(id) FROM stock_movements", Long.class);
+        return id != null ? id : 0;
+    }
+
+    /** Folds the pending movements of the products into their rows; returns the products rolled up. */
+    @Transactional
+    public int rollUp(Collection<UUID> productIds) {
+        lock(productIds, false);
+        return jdbcTemplate.update(ROLL_UP_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", productIds.toArray())));
+    }
+
+    private void lock(Collection<UUID> productIds, boolean shared) {
+        List<UUID> sorted = new ArrayList<>(new TreeSet<>(productIds));
+        jdbcTemplate.query(LOCK_SQL.formatted(shared ? "pg_advisory_xact_lock_shared" : "pg_advisory_xact_lock"),
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", sorted.toArray())),
+                rs -> {});
+    }
+
+    public enum Kind { RESERVE, RELEASE, RESTOCK }
+
+    /** One ledger entry; {@code quantity} is negative when stock is taken. */
+    public record StockMovement(UUID productId, Kind kind, int quantity, UUID orderId) {}
+}
@@ -0,0 +1,239 @@
+package com.platform.inventory.repository;
+
+import com.platform.events.inventory.StockShortage;
+import com.platform.inventory.entity.Reservation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based stock reservation: every product of an order is checked and decremented by one
+ * statement, so the row locks are held for a single round trip instead of one per line.
+ * Releases work the same way, for any number of orders at once.
+ */
+@Repository
+public class StockReservationRepository {
+
+    // Requested quantities are summed per product, then the products are locked in id order
+    // (deadlock-free against other orders) and only decremented if every line can be served.
+    // With apply = false nothing is decremented, which reports the lines of an order that is
+    // already known to be rejected. The final SELECT reports each requested product with the
+    // stock it had before this update.
+    private static final String RESERVE_SQL = """
+            WITH requested AS (
+                SELECT product_id, sum(quantity)::int AS quantity
+                FROM unnest(?::uuid[], ?::int[]) AS t(product_id, quantity)
+                GROUP BY product_id
+            ),
+            locked AS (
+                SELECT p.id, p.name, p.stock, p.bucket_count, r.quantity
+                FROM products p JOIN requested r ON r.product_id = p.id
+                ORDER BY p.id
+                FOR UPDATE OF p
+            ),
+            decision AS (
+                SELECT (SELECT count(*) FROM locked) = (SELECT count(*) FROM requested)
+                       AND coalesce(bool_and(stock >= quantity), true) AS reserved
+                FROM locked
+            ),
+            updated AS (
+                UPDATE products p SET stock = p.stock - l.quantity
+                FROM locked l, decision d
+                WHERE p.id = l.id AND d.reserved AND ?::boolean AND p.stock >= l.quantity
+                RETURNING p.id
+            )
+            SELECT r.product_id, l.name, r.quantity AS requested, l.stock AS available,
+                   l.bucket_count > 0 AS sharded, d.reserved
+            FROM requested r LEFT JOIN locked l ON l.id = r.product_id CROSS JOIN decision d
+            ORDER BY r.product_id
+            """;
+
+    // Shared by both release statements, after the "released" CTE has flipped the holds: the
+    // released quantities are summed per product, the products are locked in id order and their
+    // row stock is restored by one UPDATE ... FROM. Bucketed products are locked but left alone;
+    // the caller returns their stock to a bucket.
+    private static final String RELEASE_TAIL = """
+            totals AS (
+                SELECT product_id, sum(quantity)::int AS quantity FROM released GROUP BY product_id
+            ),
+            locked AS (
+                SELECT p.id, p.bucket_count, t.quantity
+                FROM products p JOIN totals t ON t.product_id = p.id
+                ORDER BY p.id
+                FOR UPDATE OF p
+            ),
+            restocked AS (
+                UPDATE products p SET stock = p.stock + l.quantity
+                FROM locked l
+                WHERE p.id = l.id AND l.bucket_count = 0
+                RETURNING p.id
+            )
+            SELECT r.order_id, r.product_id, r.quantity, l.bucket_count
+            FROM released r JOIN locked l ON l.id = r.product_id
+            """;
+
+    private static final String MARK_RELEASED = """
+            UPDATE reservations SET status = 'RELEASED'
+            WHERE order_id = ANY(?) AND status = 'RESERVED'
+            RETURNING order_id, product_id, quantity
+            """;
+
+    // Oldest first; holds that a concurrent release has locked are skipped.
+    private static final String MARK_EXPIRED = """
+            UPDATE reservations SET status = 'EXPIRED'
+            WHERE id IN (
+                SELECT id FROM reservations
+                WHERE status = 'RESERVED' AND expires_at <= ?
+                ORDER BY expires_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING order_id, product_id, quantity
+            """;
+
+    private static final String RELEASE_ORDERS_SQL = "WITH released AS (" + MARK_RELEASED + "), " + RELEASE_TAIL;
+    private static final String RELEASE_EXPIRED_SQL = "WITH released AS (" + MARK_EXPIRED + "), " + RELEASE_TAIL;
+
+    // For the stock ledger, which records the stock coming back itself; it never has buckets.
+    private static final String MARK_TAIL = "SELECT order_id, product_id, quantity, 0 AS bucket_count FROM released";
+    private static final String MARK_RELEASED_SQL = "WITH released AS (" + MARK_RELEASED + ") " + MARK_TAIL;
+    private static final String MARK_EXPIRED_SQL = "WITH released AS (" + MARK_EXPIRED + ") " + MARK_TAIL;
+
+    private static final RowMapper<ReleasedStock> RELEASED_STOCK = (rs, rowNum) -> new ReleasedStock(
+            rs.getObject("order_id", UUID.class),
+            rs.getObject("product_id", UUID.class),
+            rs.getInt("quantity"),
+            rs.getInt("bucket_count"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockReservationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Atomically reserves all {@code quantities} for {@code productIds} (parallel lists) or
+     * nothing at all, or only checks them when {@code apply} is false. Returns one line per
+     * distinct product either way.
+     */
+    public List<StockLine> reserveAll(List<UUID> productIds, List<Integer> quantities, boolean apply) {
+        return jdbcTemplate.query(RESERVE_SQL,
+                ps -> {
+                    Array ids = ps.getConnection().createArrayOf("uuid", productIds.toArray());
+                    Array qty = ps.getConnection().createArrayOf("int4", quantities.toArray());
+                    ps.setArray(1, ids);
+                    ps.setArray(2, qty);
+                    ps.setBoolean(3, apply);
+                },
+                (rs, rowNum) -> new StockLine(
+                        rs.getObject("product_id", UUID.class),
+                        rs.getString("name"),
+                        rs.getInt("requested"),
+                        rs.getObject("available", Integer.class),
+                        rs.getBoolean("sharded"),
+                        rs.getBoolean("reserved")));
+    }
+
+    /**
+     * Locks the given products in id order and returns them by id. Products that do not exist
+     * are absent from the result.
+     */
+    public Map<UUID, LockedProduct> lockProducts(Collection<UUID> productIds) {
+        Map<UUID, LockedProduct> products = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, name, stock, bucket_count FROM products WHERE id = ANY(?) ORDER BY id FOR UPDATE",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", productIds.toArray())),
+                rs -> {
+                    UUID id = rs.getObject("id", UUID.class);
+                    products.put(id, new LockedProduct(id, rs.getString("name"), rs.getInt("stock"),
+                            rs.getInt("bucket_count") > 0));
+                });
+        return products;
+    }
+
+    public void insertReservations(List<Reservation> reservations) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO reservations (id, order_id, product_id, quantity, status, created_at, expires_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                reservations, reservations.size(), (ps, reservation) -> {
+                    ps.setObject(1, reservation.getId());
+                    ps.setObject(2, reservation.getOrderId());
+                    ps.setObject(3, reservation.getProductId());
+                    ps.setInt(4, reservation.getQuantity());
+                    ps.setString(5, reservation.getStatus());
+                    ps.setTimestamp(6, Timestamp.from(reservation.getCreatedAt()));
+                    ps.setTimestamp(7, Timestamp.from(reservation.getExpiresAt()));
+                });
+    }
+
+    /**
+     * Releases every {@code RESERVED} hold of the given orders and, unless {@code restock} is
+     * false, restores their row stock.
+     */
+    public List<ReleasedStock> releaseOrders(Collection<UUID> orderIds, boolean restock) {
+        return jdbcTemplate.query(restock ? RELEASE_ORDERS_SQL : MARK_RELEASED_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray())),
+                RELEASED_STOCK);
+    }
+
+    /**
+     * Expires up to {@code limit} holds that are past {@code expires_at} and, unless
+     * {@code restock} is false, restores their row stock.
+     */
+    public List<ReleasedStock> releaseExpired(Instant now, int limit, boolean restock) {
+        return jdbcTemplate.query(restock ? RELEASE_EXPIRED_SQL : MARK_EXPIRED_SQL,
+                ps -> {
+                    ps.setTimestamp(1, Timestamp.from(now));
+                    ps.setInt(2, limit);
+                },
+                RELEASED_STOCK);
+    }
+
+    public record LockedProduct(UUID id, String name, int stock, boolean sharded) {}
+
+    /**
+     * One hold given back by {@link #releaseOrders} or {@link #releaseExpired}. While
+     * {@code bucketCount} is above 0 the product's stock lives in buckets, and the quantity
+     * still has to be returned to one of them.
+     */
+    public record ReleasedStock(UUID orderId, UUID productId, int quantity, int bucketCount) {
+
+        public boolean isSharded() {
+            return bucketCount > 0;
+        }
+    }
+
+    /**
+     * Outcome for one product. {@code available} is the stock before the statement ran, or
+     * null (as is {@code name}) if the product does not exist; {@code reserved} is the same for every line.
+     * {@code sharded} means the product's stock is held in buckets, so this statement saw none of it.
+     */
+    public record StockLine(UUID productId, String name, int requested, Integer available,
+                            boolean sharded, boolean reserved) {
+
+        public boolean isShort() {
+            return available == null || available < requested;
+        }
+
+        public StockShortage toShortage() {
+            return new StockShortage(productId, requested, available != null ? available : 0);
+        }
+
+        /** Human-readable reason for a short line, as used in {@code StockRejected}. */
+        public String describeShortage() {
+            return available == null
+                    ? "Product not found: " + productId
+                    : "Insufficient stock for product " + (name != null ? name : productId)
+                            + " (requested " + requested + ", available " + available + ")";
+        }
+    }
+}
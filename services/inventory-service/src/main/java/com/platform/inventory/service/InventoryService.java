@@ -8,135 +8,441 @@ import com.platform.events.inventory.StockRejectedEvent;
 import com.platform.events.inventory.StockReleasedEvent;
 import com.platform.events.inventory.StockReservedEvent;
 import com.platform.events.serde.EventObjectMapper;
+import com.platform.inventory.contention.LockContentionMonitor;
 import com.platform.inventory.entity.ProcessedEvent;
-import com.platform.inventory.entity.Product;
 import com.platform.inventory.entity.Reservation;
 import com.platform.inventory.outbox.OutboxEvent;
 import com.platform.inventory.outbox.OutboxRepository;
+import com.platform.inventory.repository.InventoryBatchRepository;
 import com.platform.inventory.repository.ProcessedEventRepository;
-import com.platform.inventory.repository.ProductRepository;
 import com.platform.inventory.repository.ReservationRepository;
+import com.platform.inventory.repository.StockBucketRepository;
+import com.platform.inventory.repository.StockBucketRepository.BucketClaim;
+import com.platform.inventory.repository.StockBucketRepository.BucketTake;
+import com.platform.inventory.repository.StockLedgerRepository;
+import com.platform.inventory.repository.StockLedgerRepository.Kind;
+import com.platform.inventory.repository.StockLedgerRepository.StockMovement;
+import com.platform.inventory.repository.StockReservationRepository;
+import com.platform.inventory.repository.StockReservationRepository.LockedProduct;
+import com.platform.inventory.repository.StockReservationRepository.ReleasedStock;
+import com.platform.inventory.repository.StockReservationRepository.StockLine;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Service
 public class InventoryService {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
 
-    private final ProductRepository productRepository;
     private final ReservationRepository reservationRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final StockBucketRepository stockBucketRepository;
+    private final StockShardingService stockShardingService;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
     private final ProcessedEventRepository processedEventRepository;
     private final OutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LockContentionMonitor lockContention;
     private final MeterRegistry meterRegistry;
+    private final Duration holdTtl;
+    private final boolean ledgerEnabled;
 
-    public InventoryService(ProductRepository productRepository,
-                            ReservationRepository reservationRepository,
+    public InventoryService(ReservationRepository reservationRepository,
+                            StockReservationRepository stockReservationRepository,
+                            StockBucketRepository stockBucketRepository,
+                            StockShardingService stockShardingService,
+                            StockLedgerRepository stockLedgerRepository,
+                            InventoryBatchRepository inventoryBatchRepository,
                             ProcessedEventRepository processedEventRepository,
                             OutboxRepository outboxRepository,
-                            MeterRegistry meterRegistry) {
-        this.productRepository = productRepository;
+                            ApplicationEventPublisher eventPublisher,
+                            LockContentionMonitor lockContention,
+                            MeterRegistry meterRegistry,
+                            @Value("${inventory.reservations.hold-ttl:30m}") Duration holdTtl,
+                            @Value("${inventory.ledger.enabled:false}") boolean ledgerEnabled) {
         this.reservationRepository = reservationRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.stockBucketRepository = stockBucketRepository;
+        this.stockShardingService = stockShardingService;
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.inventoryBatchRepository = inventoryBatchRepository;
         this.processedEventRepository = processedEventRepository;
         this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.lockContention = lockContention;
         this.meterRegistry = meterRegistry;
+        this.holdTtl = holdTtl;
+        this.ledgerEnabled = ledgerEnabled;
     }
 
+    /**
+     * Reserves every line of the order all-or-nothing. On rejection nothing has been written,
+     * so there is nothing to compensate; the event lists each short product.
+     */
     @Transactional
-    public void handleOrderCreated(UUID eventId, UUID orderId, List<OrderLineItem> items,
+    public void handleOrderCreated(UUID eventId, UUID orderId, UUID customerId, List<OrderLineItem> items,
                                    java.math.BigDecimal totalAmount, String currency) {
         if (processedEventRepository.existsById(eventId)) {
             log.info("Event {} already processed, skipping", eventId);
             return;
         }
 
-        List<Reservation> reservations = new ArrayList<>();
-        boolean allReserved = true;
-        String failureReason = null;
-
-        List<OrderLineItem> sortedItems = items.stream()
-                .sorted(java.util.Comparator.comparing(OrderLineItem::productId))
-                .toList();
-
-        for (OrderLineItem item : sortedItems) {
-            Product product = productRepository.findByIdForUpdate(item.productId()).orElse(null);
-            if (product == null) {
-                allReserved = false;
-                failureReason = "Product not found: " + item.productId();
-                break;
-            }
-            if (!product.reserveStock(item.quantity())) {
-                allReserved = false;
-                failureReason = "Insufficient stock for product: " + product.getName();
-                break;
-            }
-            productRepository.save(product);
-            reservations.add(new Reservation(orderId, item.productId(), item.quantity()));
+        Allocation allocation = allocate(orderId, items);
+        if (allocation.staleSharding()) {
+            // A product was split into buckets or merged back since our last refresh.
+            stockShardingService.refresh();
+            allocation = allocate(orderId, items);
         }
+        List<StockLine> lines = allocation.lines();
 
-        if (allReserved) {
-            reservationRepository.saveAll(reservations);
+        if (allocation.reserved()) {
+            stockReservationRepository.insertReservations(items.stream()
+                    .map(item -> new Reservation(orderId, item.productId(), item.quantity(), holdTtl))
+                    .toList());
+            eventPublisher.publishEvent(new StockChanged(
+                    items.stream().map(OrderLineItem::productId).collect(Collectors.toSet())));
 
-            StockReservedEvent event = new StockReservedEvent(orderId, items, totalAmount, currency);
+            StockReservedEvent event = new StockReservedEvent(orderId, items, totalAmount, currency, customerId);
             EventEnvelope<StockReservedEvent> envelope = EventEnvelope.wrap(
                     EventTypes.STOCK_RESERVED, event, orderId);
             saveOutboxEvent("Inventory", orderId, EventTypes.STOCK_RESERVED, envelope);
             meterRegistry.counter("stock_reserved_total").increment();
             log.info("Stock reserved for order {}", orderId);
         } else {
-            // Rollback any reservations made so far
-            for (Reservation res : reservations) {
-                Product product = productRepository.findByIdForUpdate(res.getProductId()).orElseThrow();
-                product.releaseStock(res.getQuantity());
-                productRepository.save(product);
-            }
-
-            StockRejectedEvent event = new StockRejectedEvent(orderId, failureReason);
+            StockRejectedEvent event = rejection(orderId, lines);
             EventEnvelope<StockRejectedEvent> envelope = EventEnvelope.wrap(
                     EventTypes.STOCK_REJECTED, event, orderId);
             saveOutboxEvent("Inventory", orderId, EventTypes.STOCK_REJECTED, envelope);
-            log.warn("Stock rejected for order {}: {}", orderId, failureReason);
+            log.warn("Stock rejected for order {}: {}", orderId, event.reason());
         }
 
         processedEventRepository.save(new ProcessedEvent(eventId));
     }
 
+    /**
+     * Handles the {@code OrderCreated} events of one poll in a single transaction. The union of
+     * their products is locked once, in id order, and the orders are then decided one after
+     * another against the remaining stock in memory; all writes go out as bulk statements.
+     * Orders touching bucketed products are left out and returned, for the caller to pass to
+     * {@link #handleOrderCreated} one by one.
+     */
     @Transactional
-    public void handleStockReleaseRequested(UUID eventId, UUID orderId) {
-        if (processedEventRepository.existsById(eventId)) {
-            log.info("Event {} already processed, skipping", eventId);
+    public List<OrderReservationRequest> handleOrderCreatedBatch(List<OrderReservationRequest> requests) {
+        Set<UUID> seen = inventoryBatchRepository.findProcessedEvents(
+                requests.stream().map(OrderReservationRequest::eventId).toList());
+        List<OrderReservationRequest> fresh = new ArrayList<>();
+        for (OrderReservationRequest request : requests) {
+            if (seen.add(request.eventId())) {
+                fresh.add(request);
+            } else {
+                log.info("Event {} already processed, skipping", request.eventId());
+            }
+        }
+        if (fresh.isEmpty()) {
+            return List.of();
+        }
+
+        Set<UUID> productIds = new TreeSet<>(fresh.stream()
+                .flatMap(request -> request.items().stream().map(OrderLineItem::productId))
+                .toList());
+        Map<UUID, LockedProduct> products = lockContention.timeLocks(productIds, () -> ledgerEnabled
+                ? stockLedgerRepository.lockProducts(productIds)
+                : stockReservationRepository.lockProducts(productIds));
+        Map<UUID, Integer> remaining = new HashMap<>();
+        products.values().forEach(product -> remaining.put(product.id(), product.stock()));
+
+        Map<UUID, Integer> deltas = new TreeMap<>();
+        List<Reservation> reservations = new ArrayList<>();
+        List<OutboxEvent> events = new ArrayList<>();
+        List<UUID> handled = new ArrayList<>();
+        List<OrderReservationRequest> deferred = new ArrayList<>();
+        for (OrderReservationRequest request : fresh) {
+            Map<UUID, Integer> requested = new TreeMap<>();
+            request.items().forEach(item -> requested.merge(item.productId(), item.quantity(), Integer::sum));
+            if (requested.keySet().stream().map(products::get).anyMatch(p -> p != null && p.sharded())) {
+                deferred.add(request);
+                continue;
+            }
+
+            List<StockLine> lines = requested.entrySet().stream()
+                    .map(entry -> {
+                        LockedProduct product = products.get(entry.getKey());
+                        return new StockLine(entry.getKey(), product != null ? product.name() : null,
+                                entry.getValue(), remaining.get(entry.getKey()), false, false);
+                    })
+                    .toList();
+            UUID orderId = request.orderId();
+            if (lines.stream().noneMatch(StockLine::isShort)) {
+                requested.forEach((productId, quantity) -> {
+                    remaining.merge(productId, -quantity, Integer::sum);
+                    deltas.merge(productId, -quantity, Integer::sum);
+                });
+                request.items().forEach(item ->
+                        reservations.add(new Reservation(orderId, item.productId(), item.quantity(), holdTtl)));
+                events.add(toOutboxEvent("Inventory", orderId, EventTypes.STOCK_RESERVED, EventEnvelope.wrap(
+                        EventTypes.STOCK_RESERVED,
+                        new StockReservedEvent(orderId, request.items(), request.totalAmount(), request.currency(),
+                                request.customerId()),
+                        orderId)));
+                meterRegistry.counter("stock_reserved_total").increment();
+                log.info("Stock reserved for order {}", orderId);
+            } else {
+                StockRejectedEvent event = rejection(orderId, lines);
+                events.add(toOutboxEvent("Inventory", orderId, EventTypes.STOCK_REJECTED,
+                        EventEnvelope.wrap(EventTypes.STOCK_REJECTED, event, orderId)));
+                log.warn("Stock rejected for order {}: {}", orderId, event.reason());
+            }
+            handled.add(request.eventId());
+        }
+
+        if (ledgerEnabled) {
+            stockLedgerRepository.append(reservations.stream()
+                    .map(r -> new StockMovement(r.getProductId(), Kind.RESERVE, -r.getQuantity(), r.getOrderId()))
+                    .toList());
+        } else {
+            inventoryBatchRepository.applyStockDeltas(deltas);
+        }
+        if (!reservations.isEmpty()) {
+            stockReservationRepository.insertReservations(reservations);
+            eventPublisher.publishEvent(new StockChanged(deltas.keySet()));
+        }
+        if (!events.isEmpty()) {
+            inventoryBatchRepository.insertOutboxEvents(events);
+            inventoryBatchRepository.insertProcessedEvents(handled);
+        }
+        meterRegistry.summary("inventory_reservation_batch_size").record(handled.size());
+        return deferred;
+    }
+
+    /** Returns the holds released, which is none if the event was a duplicate. */
+    @Transactional
+    public List<ReleasedStock> handleStockReleaseRequested(UUID eventId, UUID orderId) {
+        return handleStockReleaseRequestedBatch(List.of(new StockReleaseRequest(eventId, orderId)));
+    }
+
+    /**
+     * Handles the {@code StockReleaseRequested} events of one poll in a single transaction: all
+     * of their holds are released, and their stock restored, by one set-based statement, so a
+     * burst of compensations costs one lock pass over the affected products instead of one per
+     * order. Returns the holds released.
+     */
+    @Transactional
+    public List<ReleasedStock> handleStockReleaseRequestedBatch(List<StockReleaseRequest> requests) {
+        Set<UUID> seen = inventoryBatchRepository.findProcessedEvents(
+                requests.stream().map(StockReleaseRequest::eventId).toList());
+        List<StockReleaseRequest> fresh = new ArrayList<>();
+        for (StockReleaseRequest request : requests) {
+            if (seen.add(request.eventId())) {
+                fresh.add(request);
+            } else {
+                log.info("Event {} already processed, skipping", request.eventId());
+            }
+        }
+        if (fresh.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> orderIds = fresh.stream().map(StockReleaseRequest::orderId).distinct().toList();
+        List<ReleasedStock> released = lockContention.timeLocks(
+                () -> stockReservationRepository.releaseOrders(orderIds, !ledgerEnabled), this::restockedProducts);
+        giveBack(released);
+        eventPublisher.publishEvent(new StockChanged(
+                released.stream().map(ReleasedStock::productId).collect(Collectors.toSet())));
+
+        List<OutboxEvent> events = new ArrayList<>();
+        for (StockReleaseRequest request : fresh) {
+            UUID orderId = request.orderId();
+            events.add(toOutboxEvent("Inventory", orderId, EventTypes.STOCK_RELEASED, EventEnvelope.wrap(
+                    EventTypes.STOCK_RELEASED, new StockReleasedEvent(orderId), orderId)));
+            log.info("Stock released for order {}", orderId);
+        }
+        inventoryBatchRepository.insertOutboxEvents(events);
+        inventoryBatchRepository.insertProcessedEvents(fresh.stream().map(StockReleaseRequest::eventId).toList());
+        meterRegistry.summary("inventory_release_batch_size").record(fresh.size());
+        return released;
+    }
+
+    /**
+     * Marks the order's holds as final so that they never expire. If they expired before the
+     * confirmation arrived, the stock has already been given back; that is logged and counted.
+     */
+    @Transactional
+    public void handleOrderConfirmed(UUID orderId) {
+        int confirmed = reservationRepository.updateStatus(orderId, "RESERVED", "CONFIRMED");
+        if (confirmed == 0 && reservationRepository.existsByOrderIdAndStatus(orderId, "EXPIRED")) {
+            meterRegistry.counter("reservations_confirmed_after_expiry_total").increment();
+            log.warn("Order {} was confirmed after its stock reservation expired", orderId);
+        }
+    }
+
+    /**
+     * Releases up to {@code limit} expired holds, oldest first, and emits one {@code StockReleased}
+     * per affected order. Returns the holds released.
+     */
+    @Transactional
+    public List<ReleasedStock> releaseExpiredReservations(Instant now, int limit) {
+        List<ReleasedStock> expired = lockContention.timeLocks(
+                () -> stockReservationRepository.releaseExpired(now, limit, !ledgerEnabled), this::restockedProducts);
+        if (expired.isEmpty()) {
+            return expired;
+        }
+        giveBack(expired);
+        eventPublisher.publishEvent(new StockChanged(
+                expired.stream().map(ReleasedStock::productId).collect(Collectors.toSet())));
+
+        inventoryBatchRepository.insertOutboxEvents(expired.stream()
+                .map(ReleasedStock::orderId)
+                .distinct()
+                .map(orderId -> toOutboxEvent("Inventory", orderId, EventTypes.STOCK_RELEASED, EventEnvelope.wrap(
+                        EventTypes.STOCK_RELEASED, new StockReleasedEvent(orderId, "Stock reservation expired"), orderId)))
+                .toList());
+        meterRegistry.counter("reservations_expired_total").increment(expired.size());
+        log.info("Released {} expired stock reservations", expired.size());
+        return expired;
+    }
+
+    // With the ledger, the stock coming back is appended as movements. Otherwise row stock has
+    // already been restored by the release statement, which also holds the lock on every
+    // released product; only bucketed products are left, one random bucket each.
+    private void giveBack(List<ReleasedStock> released) {
+        if (ledgerEnabled) {
+            List<StockMovement> movements = released.stream()
+                    .map(r -> new StockMovement(r.productId(), Kind.RELEASE, r.quantity(), r.orderId()))
+                    .toList();
+            lockContention.timeLocks(movements.stream().map(StockMovement::productId).collect(Collectors.toSet()),
+                    () -> stockLedgerRepository.appendReturned(movements));
             return;
         }
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        Map<UUID, Integer> bucketCounts = new HashMap<>();
+        released.stream().filter(ReleasedStock::isSharded).forEach(r -> {
+            quantities.merge(r.productId(), r.quantity(), Integer::sum);
+            bucketCounts.put(r.productId(), r.bucketCount());
+        });
+        quantities.forEach((productId, quantity) -> stockBucketRepository.release(productId,
+                ThreadLocalRandom.current().nextInt(bucketCounts.get(productId)), quantity));
+    }
 
-        List<Reservation> reservations = reservationRepository.findByOrderIdAndStatus(orderId, "RESERVED");
-        for (Reservation reservation : reservations) {
-            Product product = productRepository.findByIdForUpdate(reservation.getProductId()).orElseThrow();
-            product.releaseStock(reservation.getQuantity());
-            productRepository.save(product);
-            reservation.release();
-            reservationRepository.save(reservation);
+    /**
+     * Locks stock for every requested product, then decrements it only if all of it fits.
+     * Bucketed products go first, in product id order: each tries the bucket chosen by the order
+     * id, skipping buckets other orders hold, and falls back to locking all of the product's
+     * buckets. The remaining products are then handled by the single set-based statement.
+     */
+    private Allocation allocate(UUID orderId, List<OrderLineItem> items) {
+        Map<UUID, Integer> requested = new TreeMap<>();
+        items.forEach(item -> requested.merge(item.productId(), item.quantity(), Integer::sum));
+        if (ledgerEnabled) {
+            return allocateFromLedger(orderId, requested);
         }
+        Map<UUID, Integer> sharded = stockShardingService.shardedProducts();
 
-        StockReleasedEvent event = new StockReleasedEvent(orderId);
-        EventEnvelope<StockReleasedEvent> envelope = EventEnvelope.wrap(
-                EventTypes.STOCK_RELEASED, event, orderId);
-        saveOutboxEvent("Inventory", orderId, EventTypes.STOCK_RELEASED, envelope);
+        List<StockLine> lines = new ArrayList<>();
+        List<BucketTake> takes = new ArrayList<>();
+        List<UUID> productIds = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        boolean stale = false;
+        for (Map.Entry<UUID, Integer> entry : requested.entrySet()) {
+            UUID productId = entry.getKey();
+            int quantity = entry.getValue();
+            Integer bucketCount = sharded.get(productId);
+            if (bucketCount == null) {
+                productIds.add(productId);
+                quantities.add(quantity);
+                continue;
+            }
+            BucketClaim claim = lockContention.timeLocks(List.of(productId), () -> stockBucketRepository.claim(
+                    productId, quantity, Math.floorMod(orderId.hashCode(), bucketCount)));
+            if (claim == null) {
+                stale = true;
+                lines.add(new StockLine(productId, null, quantity, 0, true, false));
+                continue;
+            }
+            meterRegistry.counter("stock_bucket_claims_total",
+                    "path", claim.fallback() ? "fallback" : "direct").increment();
+            takes.addAll(claim.takes());
+            lines.add(new StockLine(productId, null, quantity, claim.available(), true, !claim.isShort()));
+        }
 
-        processedEventRepository.save(new ProcessedEvent(eventId));
-        log.info("Stock released for order {}", orderId);
+        boolean bucketsFit = lines.stream().noneMatch(StockLine::isShort);
+        boolean reserved = bucketsFit;
+        if (!productIds.isEmpty()) {
+            List<StockLine> rowLines = lockContention.timeLocks(productIds,
+                    () -> stockReservationRepository.reserveAll(productIds, quantities, bucketsFit));
+            stale |= rowLines.stream().anyMatch(StockLine::sharded);
+            reserved &= rowLines.get(0).reserved();
+            lines.addAll(rowLines);
+        }
+        if (reserved) {
+            stockBucketRepository.take(takes);
+        }
+        return new Allocation(reserved, stale && !reserved, lines);
+    }
+
+    // The products are locked and read once, and the reservation is appended to the ledger
+    // instead of decrementing their rows. The ledger never has bucketed products.
+    private Allocation allocateFromLedger(UUID orderId, Map<UUID, Integer> requested) {
+        Map<UUID, LockedProduct> products = lockContention.timeLocks(requested.keySet(),
+                () -> stockLedgerRepository.lockProducts(requested.keySet()));
+        List<StockLine> lines = requested.entrySet().stream()
+                .map(entry -> {
+                    LockedProduct product = products.get(entry.getKey());
+                    return new StockLine(entry.getKey(), product != null ? product.name() : null,
+                            entry.getValue(), product != null ? product.stock() : null, false, false);
+                })
+                .toList();
+        boolean reserved = lines.stream().noneMatch(StockLine::isShort);
+        if (reserved) {
+            stockLedgerRepository.append(requested.entrySet().stream()
+                    .map(entry -> new StockMovement(entry.getKey(), Kind.RESERVE, -entry.getValue(), orderId))
+                    .toList());
+        }
+        return new Allocation(reserved, false, lines);
+    }
+
+    // The release statement locks the released products only when it restores their row stock.
+    private Collection<UUID> restockedProducts(List<ReleasedStock> released) {
+        return ledgerEnabled ? List.of()
+                : released.stream().map(ReleasedStock::productId).collect(Collectors.toSet());
+    }
+
+    private record Allocation(boolean reserved, boolean staleSharding, List<StockLine> lines) {}
+
+    private static StockRejectedEvent rejection(UUID orderId, List<StockLine> lines) {
+        List<StockLine> shortLines = lines.stream().filter(StockLine::isShort).toList();
+        return new StockRejectedEvent(orderId,
+                shortLines.stream().map(StockLine::describeShortage).collect(Collectors.joining("; ")),
+                shortLines.stream().map(StockLine::toShortage).toList());
     }
 
     private void saveOutboxEvent(String aggregateType, UUID aggregateId, String eventType, Object envelope) {
+        outboxRepository.save(toOutboxEvent(aggregateType, aggregateId, eventType, envelope));
+    }
+
+    private static OutboxEvent toOutboxEvent(String aggregateType, UUID aggregateId, String eventType, Object envelope) {
         try {
             String payload = EventObjectMapper.instance().writeValueAsString(envelope);
-            outboxRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, payload));
+            return new OutboxEvent(aggregateType, aggregateId, eventType, payload);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize event for outbox", e);
         }
@@ -0,0 +1,11 @@
+package com.platform.inventory.service;
+
+import com.platform.events.OrderLineItem;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/** One {@code OrderCreated} event, as handed to {@link InventoryService#handleOrderCreatedBatch}. */
+public record OrderReservationRequest(UUID eventId, UUID orderId, UUID customerId, List<OrderLineItem> items,
+                                      BigDecimal totalAmount, String currency) {}
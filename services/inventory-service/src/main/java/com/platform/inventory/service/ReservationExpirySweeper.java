@@ -0,0 +1,45 @@
+package com.platform.inventory.service;
+
+import com.platform.inventory.engine.ReservationEngine;
+import com.platform.inventory.repository.StockReservationRepository.ReleasedStock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Gives back stock held by reservations whose saga stalled (payment-service down, an event
+ * dead-lettered). Works in batches off the {@code (status, expires_at)} index, one transaction
+ * per batch, until no expired hold is left.
+ */
+@Component
+public class ReservationExpirySweeper {
+
+    private final InventoryService inventoryService;
+    private final ObjectProvider<ReservationEngine> reservationEngine;
+    private final int batchSize;
+
+    public ReservationExpirySweeper(InventoryService inventoryService,
+                                    ObjectProvider<ReservationEngine> reservationEngine,
+                                    @Value("${inventory.reservations.sweep-batch-size:500}") int batchSize) {
+        this.inventoryService = inventoryService;
+        this.reservationEngine = reservationEngine;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.sweep-interval-ms:10000}")
+    public void releaseExpired() {
+        Instant now = Instant.now();
+        int released;
+        do {
+            List<ReleasedStock> batch = inventoryService.releaseExpiredReservations(now, batchSize);
+            // With the in-memory engine, committed releases are credited back to its counters.
+            reservationEngine.ifAvailable(engine ->
+                    batch.forEach(r -> engine.credit(r.productId(), r.quantity())));
+            released = batch.size();
+        } while (released == batchSize);
+    }
+}
@@ -0,0 +1,96 @@
+package com.platform.inventory.service;
+
+import com.platform.inventory.dto.ProductAvailability;
+import com.platform.inventory.repository.StockAvailabilityRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves stock availability from an in-memory snapshot, so read traffic never reaches the
+ * rows that reservations lock. Products whose stock this instance changed are re-read shortly
+ * after each commit ({@code inventory.availability.refresh-interval-ms}). The whole snapshot
+ * is reloaded every {@code inventory.availability.full-refresh-interval-ms}, which picks up
+ * writes made by other instances and new products; that interval bounds the staleness.
+ */
+@Service
+public class StockAvailabilityService {
+
+    private final StockAvailabilityRepository availabilityRepository;
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, ProductAvailability> snapshot = new ConcurrentHashMap<>();
+    private volatile Instant loadedAt;
+
+    public StockAvailabilityService(StockAvailabilityRepository availabilityRepository, MeterRegistry meterRegistry) {
+        this.availabilityRepository = availabilityRepository;
+        Gauge.builder("stock_availability_snapshot_age_seconds", this,
+                        service -> service.loadedAt == null ? 0
+                                : Duration.between(service.loadedAt, Instant.now()).toMillis() / 1000.0)
+                .register(meterRegistry);
+    }
+
+    public ProductAvailability getAvailability(UUID productId) {
+        ProductAvailability availability = loaded().get(productId);
+        if (availability == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        return availability;
+    }
+
+    /** Unknown products are left out of the result. */
+    public List<ProductAvailability> getAvailability(Collection<UUID> productIds) {
+        Map<UUID, ProductAvailability> current = loaded();
+        return productIds.stream().distinct().map(current::get).filter(Objects::nonNull).toList();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(StockChanged event) {
+        // Marked only after commit, otherwise the refresh could read the stock before this change.
+        changed.addAll(event.productIds());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.availability.refresh-interval-ms:100}")
+    public synchronized void refreshChanged() {
+        if (changed.isEmpty() || loadedAt == null) {
+            return;
+        }
+        List<UUID> productIds = new ArrayList<>(changed);
+        changed.removeAll(productIds);
+        availabilityRepository.findByIds(productIds).forEach(a -> snapshot.put(a.productId(), a));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.availability.full-refresh-interval-ms:5000}")
+    public synchronized void refreshAll() {
+        Set<UUID> present = new HashSet<>();
+        for (ProductAvailability availability : availabilityRepository.findAll()) {
+            snapshot.put(availability.productId(), availability);
+            present.add(availability.productId());
+        }
+        snapshot.keySet().retainAll(present);
+        loadedAt = Instant.now();
+    }
+
+    private Map<UUID, ProductAvailability> loaded() {
+        if (loadedAt == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Stock availability is not loaded yet");
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,10 @@
+package com.platform.inventory.service;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Published inside a transaction that changed the stock of these products; listeners that
+ * must only see committed state should use {@code @TransactionalEventListener}.
+ */
+public record StockChanged(Collection<UUID> productIds) {}
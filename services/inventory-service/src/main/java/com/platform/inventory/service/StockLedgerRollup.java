@@ -0,0 +1,52 @@
+package com.platform.inventory.service;
+
+import com.platform.inventory.repository.StockLedgerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Folds stock ledger movements into {@code products.stock} in the background, so that reading
+ * a product's stock only has to sum the movements since its last rollup. Each run picks up the
+ * products moved since the previous one and rolls them up in batches, each in its own
+ * transaction.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "true")
+public class StockLedgerRollup {
+
+    private final StockLedgerRepository ledgerRepository;
+    private final int batchSize;
+    private final Counter rollups;
+    private long scannedUpTo = -1;
+
+    public StockLedgerRollup(StockLedgerRepository ledgerRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${inventory.ledger.rollup-batch-size:500}") int batchSize) {
+        this.ledgerRepository = ledgerRepository;
+        this.batchSize = batchSize;
+        this.rollups = meterRegistry.counter("stock_ledger_rollups_total");
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.rollup-interval-ms:1000}")
+    public void rollUp() {
+        if (scannedUpTo < 0) {
+            scannedUpTo = ledgerRepository.findRolledUpPosition();
+        }
+        long upTo = ledgerRepository.findLastMovementId();
+        if (upTo <= scannedUpTo) {
+            return;
+        }
+        List<UUID> moved = ledgerRepository.findMovedProducts(scannedUpTo, upTo);
+        for (int from = 0; from < moved.size(); from += batchSize) {
+            rollups.increment(ledgerRepository.rollUp(moved.subList(from, Math.min(from + batchSize, moved.size()))));
+        }
+        scannedUpTo = upTo;
+    }
+}
@@ -0,0 +1,6 @@
+package com.platform.inventory.service;
+
+import java.util.UUID;
+
+/** One {@code StockReleaseRequested} event, as handed to {@link InventoryService#handleStockReleaseRequestedBatch}. */
+public record StockReleaseRequest(UUID eventId, UUID orderId) {}
@@ -0,0 +1,93 @@
+package com.platform.inventory.service;
+
+import com.platform.inventory.config.StockShardingProperties;
+import com.platform.inventory.repository.StockBucketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Owns the set of bucketed (hot) products: applies {@code inventory.sharding.products} once at
+ * startup, keeps an in-memory copy of which products are bucketed for the reservation path,
+ * and periodically evens out buckets that reservations have drained unevenly.
+ *
+ * <p>Bucketing is refused at startup together with {@code inventory.ledger.enabled}: ledger
+ * reservations read the product row only, which holds no stock once it has been split.
+ */
+@Service
+@EnableConfigurationProperties(StockShardingProperties.class)
+public class StockShardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockShardingService.class);
+
+    private final StockBucketRepository bucketRepository;
+    private final StockShardingProperties properties;
+    private final Counter rebalances;
+
+    private volatile Map<UUID, Integer> shardedProducts = Map.of();
+    private volatile boolean configurationApplied = false;
+
+    public StockShardingService(StockBucketRepository bucketRepository,
+                                StockShardingProperties properties,
+                                MeterRegistry meterRegistry,
+                                @Value("${inventory.ledger.enabled:false}") boolean ledgerEnabled) {
+        if (ledgerEnabled && !properties.products().isEmpty()) {
+            throw new IllegalStateException("The stock ledger cannot be combined with inventory.sharding.products");
+        }
+        this.bucketRepository = bucketRepository;
+        this.properties = properties;
+        this.rebalances = meterRegistry.counter("stock_bucket_rebalances_total");
+        Gauge.builder("stock_sharded_products", this, s -> s.shardedProducts.size())
+                .register(meterRegistry);
+    }
+
+    /** Bucket count per bucketed product, as of the last refresh. May briefly lag a reshard. */
+    public Map<UUID, Integer> shardedProducts() {
+        return shardedProducts;
+    }
+
+    public void refresh() {
+        shardedProducts = Map.copyOf(bucketRepository.findShardedProducts());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sharding.rebalance-interval-ms:1000}")
+    public void maintainBuckets() {
+        if (!configurationApplied) {
+            applyConfiguration();
+            configurationApplied = true;
+        }
+        refresh();
+        for (UUID productId : shardedProducts.keySet()) {
+            if (bucketRepository.rebalance(productId)) {
+                rebalances.increment();
+            }
+        }
+    }
+
+    // Only on startup, so that instances running different configurations during a rolling
+    // deploy do not keep resharding the same product back and forth.
+    private void applyConfiguration() {
+        Map<UUID, Integer> current = bucketRepository.findShardedProducts();
+        properties.products().forEach((productId, bucketCount) -> {
+            if (bucketRepository.reshard(productId, Math.max(bucketCount, 0))) {
+                log.info("Split stock of product {} into {} buckets", productId, bucketCount);
+            }
+        });
+        current.keySet().stream()
+                .filter(productId -> !properties.products().containsKey(productId))
+                .forEach(productId -> {
+                    if (bucketRepository.reshard(productId, 0)) {
+                        log.info("Merged stock buckets of product {} back into one row", productId);
+                    }
+                });
+    }
+}
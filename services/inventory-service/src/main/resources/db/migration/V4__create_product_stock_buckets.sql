@@ -0,0 +1,10 @@
+-- Hot products can have their stock split across bucket rows so that concurrent reservations
+-- lock different rows. While bucket_count > 0, products.stock is 0 and the buckets hold it all.
+ALTER TABLE products ADD COLUMN bucket_count INT NOT NULL DEFAULT 0;
+
+CREATE TABLE product_stock_buckets (
+    product_id UUID NOT NULL REFERENCES products(id),
+    bucket     INT  NOT NULL,
+    stock      INT  NOT NULL CHECK (stock >= 0),
+    PRIMARY KEY (product_id, bucket)
+);
@@ -0,0 +1,8 @@
+-- Holds expire if the saga never confirms or releases them. The expiry sweeper reads
+-- status = 'RESERVED' AND expires_at <= now() in expires_at order, a range scan of this index.
+ALTER TABLE reservations ADD COLUMN expires_at TIMESTAMPTZ;
+
+-- Existing holds keep a NULL expires_at, which the sweeper never selects. OrderConfirmed was
+-- not consumed before this version, so holds of orders that were confirmed and sold long ago
+-- are still RESERVED too, and inventory cannot tell them apart from stalled ones.
+CREATE INDEX idx_reservations_status_expires_at ON reservations(status, expires_at);
@@ -0,0 +1,17 @@
+-- Append-only stock ledger, used instead of in-place stock updates when inventory.ledger.enabled
+-- is set. A product's stock is products.stock plus every movement after ledger_position; the
+-- rollup job folds movements into products.stock and advances ledger_position.
+ALTER TABLE products ADD COLUMN ledger_position BIGINT NOT NULL DEFAULT 0;
+
+-- No foreign key to products: checking it would take a key-share lock on the product row for
+-- every insert, which is the contention the ledger exists to avoid.
+CREATE TABLE stock_movements (
+    id         BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    product_id UUID NOT NULL,
+    kind       VARCHAR(16) NOT NULL,
+    quantity   INT NOT NULL,
+    order_id   UUID,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_stock_movements_product_id_id ON stock_movements(product_id, id);
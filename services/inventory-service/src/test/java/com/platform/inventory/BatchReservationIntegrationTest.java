@@ -0,0 +1,166 @@
+package com.platform.inventory;
+
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.order.OrderCreatedEvent;
+import com.platform.events.order.StockReleaseRequestedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.inventory.outbox.OutboxEvent;
+import com.platform.inventory.outbox.OutboxRepository;
+import com.platform.inventory.repository.ProductRepository;
+import com.platform.inventory.repository.ReservationRepository;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = "inventory.batch-reservations.enabled=true")
+@Testcontainers
+@ActiveProfiles("test")
+class BatchReservationIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ConsumerFactory<String, String> consumerFactory;
+
+    @Test
+    void shouldDecideOrdersOfOnePollInSequenceAgainstRemainingStock() throws Exception {
+        UUID monitor = UUID.fromString("44444444-4444-4444-4444-444444444444"); // 30 stock
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        // Same key, so the three land on one partition in this order.
+        String key = UUID.randomUUID().toString();
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(first, monitor, 20)));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(second, monitor, 20)));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(third, monitor, 5)));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RESERVED)
+                    && e.getAggregateId().equals(first));
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_REJECTED)
+                    && e.getAggregateId().equals(second));
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RESERVED)
+                    && e.getAggregateId().equals(third));
+        });
+        assertThat(productRepository.findById(monitor).orElseThrow().getStock()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldReleaseConsecutiveReleaseRequestsOfOnePollTogether() throws Exception {
+        UUID hub = UUID.fromString("33333333-3333-3333-3333-333333333333");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        int stockBefore = productRepository.findById(hub).orElseThrow().getStock();
+
+        String key = UUID.randomUUID().toString();
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(first, hub, 2)));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(second, hub, 3)));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, releaseRequested(first, hub, 2)));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, releaseRequested(second, hub, 3)));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RELEASED)
+                    && e.getAggregateId().equals(first));
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RELEASED)
+                    && e.getAggregateId().equals(second));
+        });
+        assertThat(productRepository.findById(hub).orElseThrow().getStock()).isEqualTo(stockBefore);
+        assertThat(reservationRepository.findByOrderIdAndStatus(first, "RELEASED")).hasSize(1);
+        assertThat(reservationRepository.findByOrderIdAndStatus(second, "RELEASED")).hasSize(1);
+    }
+
+    @Test
+    void shouldDeadLetterOnlyTheMalformedRecordOfARun() throws Exception {
+        UUID hub = UUID.fromString("33333333-3333-3333-3333-333333333333");
+        UUID before = UUID.randomUUID();
+        UUID after = UUID.randomUUID();
+        String malformed = "{\"eventType\":\"OrderCreated\",\"eventId\":\"not-a-uuid\"}";
+
+        String key = UUID.randomUUID().toString();
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(before, hub, 1)));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, malformed));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(after, hub, 1)));
+
+        await().atMost(30, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RESERVED)
+                    && e.getAggregateId().equals(before));
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RESERVED)
+                    && e.getAggregateId().equals(after));
+        });
+
+        List<String> deadLettered = new ArrayList<>();
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer("dlt-" + key, null)) {
+            consumer.subscribe(List.of("order-events.DLT"));
+            await().atMost(15, TimeUnit.SECONDS).untilAsserted(() -> {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    if (key.equals(record.key())) {
+                        deadLettered.add(record.value());
+                    }
+                }
+                assertThat(deadLettered).containsExactly(malformed);
+            });
+        }
+    }
+
+    private static String orderCreated(UUID orderId, UUID productId, int quantity) throws Exception {
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                orderId, UUID.randomUUID(),
+                List.of(new OrderLineItem(productId, quantity, new BigDecimal("100.00"))),
+                new BigDecimal("100.00").multiply(BigDecimal.valueOf(quantity)), "EUR");
+        return EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.ORDER_CREATED, event, orderId));
+    }
+
+    private static String releaseRequested(UUID orderId, UUID productId, int quantity) throws Exception {
+        StockReleaseRequestedEvent event = new StockReleaseRequestedEvent(
+                orderId, List.of(new OrderLineItem(productId, quantity, new BigDecimal("100.00"))));
+        return EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.STOCK_RELEASE_REQUESTED, event, orderId));
+    }
+}
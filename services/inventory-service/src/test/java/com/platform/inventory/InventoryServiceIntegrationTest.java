@@ -5,16 +5,21 @@ import com.platform.events.EventTypes;
 import com.platform.events.OrderLineItem;
 import com.platform.events.order.OrderCreatedEvent;
 import com.platform.events.serde.EventObjectMapper;
+import com.platform.inventory.contention.LockContentionMonitor;
 import com.platform.inventory.outbox.OutboxEvent;
 import com.platform.inventory.outbox.OutboxRepository;
 import com.platform.inventory.repository.ProductRepository;
+import com.platform.inventory.service.ReservationExpirySweeper;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
 import org.testcontainers.containers.KafkaContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -28,8 +33,13 @@ import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "inventory.sharding.products.55555555-5555-5555-5555-555555555555=4")
+@AutoConfigureMockMvc
 @Testcontainers
 @ActiveProfiles("test")
 class InventoryServiceIntegrationTest {
@@ -51,6 +61,18 @@ class InventoryServiceIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReservationExpirySweeper reservationExpirySweeper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LockContentionMonitor lockContentionMonitor;
+
     @Test
     void shouldReserveStockOnOrderCreated() throws Exception {
         UUID orderId = UUID.randomUUID();
@@ -101,4 +123,198 @@ class InventoryServiceIntegrationTest {
                     && e.getAggregateId().equals(orderId));
         });
     }
+
+    @Test
+    void shouldRejectWholeOrderWithoutTouchingStockWhenOneLineIsShort() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        UUID available = UUID.fromString("33333333-3333-3333-3333-333333333333");
+        UUID scarce = UUID.fromString("44444444-4444-4444-4444-444444444444");
+        UUID unknown = UUID.randomUUID();
+
+        int availableBefore = productRepository.findById(available).orElseThrow().getStock();
+        int scarceBefore = productRepository.findById(scarce).orElseThrow().getStock();
+
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                orderId, UUID.randomUUID(),
+                List.of(new OrderLineItem(available, 1, new BigDecimal("10.00")),
+                        new OrderLineItem(scarce, 999, new BigDecimal("100.00")),
+                        new OrderLineItem(unknown, 1, new BigDecimal("1.00"))),
+                new BigDecimal("99911.00"), "EUR"
+        );
+        EventEnvelope<OrderCreatedEvent> envelope = EventEnvelope.wrap(
+                EventTypes.ORDER_CREATED, event, orderId);
+
+        String payload = EventObjectMapper.instance().writeValueAsString(envelope);
+        kafkaTemplate.send(new ProducerRecord<>("order-events", orderId.toString(), payload));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_REJECTED)
+                    && e.getAggregateId().equals(orderId)
+                    && e.getPayload().contains(scarce.toString())
+                    && e.getPayload().contains(unknown.toString())
+                    && !e.getPayload().contains(available.toString()));
+        });
+
+        assertThat(productRepository.findById(available).orElseThrow().getStock()).isEqualTo(availableBefore);
+        assertThat(productRepository.findById(scarce).orElseThrow().getStock()).isEqualTo(scarceBefore);
+    }
+
+    @Test
+    void shouldReserveHotProductFromBucketsAndKeepTotalStock() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        UUID hot = UUID.fromString("55555555-5555-5555-5555-555555555555"); // 200 stock, 4 buckets
+        UUID regular = UUID.fromString("33333333-3333-3333-3333-333333333333");
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM product_stock_buckets WHERE product_id = ?", Integer.class, hot) == 4);
+        int hotBefore = productRepository.findById(hot).orElseThrow().getStock();
+        int regularBefore = productRepository.findById(regular).orElseThrow().getStock();
+        assertThat(hotBefore).isEqualTo(200);
+
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                orderId, UUID.randomUUID(),
+                List.of(new OrderLineItem(hot, 3, new BigDecimal("40.00")),
+                        new OrderLineItem(regular, 1, new BigDecimal("10.00"))),
+                new BigDecimal("130.00"), "EUR"
+        );
+        EventEnvelope<OrderCreatedEvent> envelope = EventEnvelope.wrap(
+                EventTypes.ORDER_CREATED, event, orderId);
+
+        String payload = EventObjectMapper.instance().writeValueAsString(envelope);
+        kafkaTemplate.send(new ProducerRecord<>("order-events", orderId.toString(), payload));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RESERVED)
+                    && e.getAggregateId().equals(orderId));
+        });
+
+        assertThat(productRepository.findById(hot).orElseThrow().getStock()).isEqualTo(hotBefore - 3);
+        assertThat(productRepository.findById(regular).orElseThrow().getStock()).isEqualTo(regularBefore - 1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT stock FROM products WHERE id = ?", Integer.class, hot)).isZero();
+    }
+
+    @Test
+    void shouldReleaseExpiredHoldsAndKeepConfirmedOnes() {
+        UUID productId = UUID.fromString("22222222-2222-2222-2222-222222222222");
+        UUID expiredOrder = UUID.randomUUID();
+        UUID confirmedOrder = UUID.randomUUID();
+        int stockBefore = productRepository.findById(productId).orElseThrow().getStock();
+
+        jdbcTemplate.update("INSERT INTO reservations (id, order_id, product_id, quantity, status, created_at, expires_at) "
+                + "VALUES (?, ?, ?, 4, 'RESERVED', now() - interval '1 hour', now() - interval '1 minute')",
+                UUID.randomUUID(), expiredOrder, productId);
+        jdbcTemplate.update("INSERT INTO reservations (id, order_id, product_id, quantity, status, created_at, expires_at) "
+                + "VALUES (?, ?, ?, 3, 'CONFIRMED', now() - interval '1 hour', now() - interval '1 minute')",
+                UUID.randomUUID(), confirmedOrder, productId);
+
+        reservationExpirySweeper.releaseExpired();
+
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isEqualTo(stockBefore + 4);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT status FROM reservations WHERE order_id = ?", String.class, expiredOrder)).isEqualTo("EXPIRED");
+        assertThat(outboxRepository.findAll()).anyMatch(e ->
+                e.getEventType().equals(EventTypes.STOCK_RELEASED)
+                        && e.getAggregateId().equals(expiredOrder)
+                        && e.getPayload().contains("expired"));
+        assertThat(outboxRepository.findAll()).noneMatch(e ->
+                e.getAggregateId().equals(confirmedOrder));
+    }
+
+    @Test
+    void shouldServeAvailabilityFromSnapshotAndFollowReservations() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        UUID monitor = UUID.fromString("44444444-4444-4444-4444-444444444444");
+        UUID hub = UUID.fromString("33333333-3333-3333-3333-333333333333");
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                mockMvc.perform(get("/api/products/{id}/availability", monitor)).andExpect(status().isOk()));
+        int stockBefore = productRepository.findById(monitor).orElseThrow().getStock();
+
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                orderId, UUID.randomUUID(),
+                List.of(new OrderLineItem(monitor, 2, new BigDecimal("300.00"))),
+                new BigDecimal("600.00"), "EUR"
+        );
+        String payload = EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.ORDER_CREATED, event, orderId));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", orderId.toString(), payload));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                mockMvc.perform(get("/api/products/{id}/availability", monitor))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.available").value(stockBefore - 2)));
+
+        mockMvc.perform(get("/api/products/availability")
+                        .param("ids", monitor.toString(), hub.toString(), UUID.randomUUID().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/products/{id}/availability", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldListProductsWithLockWaitAsHotProducts() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        UUID mouse = UUID.fromString("11111111-1111-1111-1111-111111111111");
+
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                orderId, UUID.randomUUID(),
+                List.of(new OrderLineItem(mouse, 1, new BigDecimal("29.99"))),
+                new BigDecimal("29.99"), "EUR"
+        );
+        String payload = EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.ORDER_CREATED, event, orderId));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", orderId.toString(), payload));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            lockContentionMonitor.refreshHotProducts();
+            assertThat(lockContentionMonitor.hotProducts()).anyMatch(p -> p.productId().equals(mouse));
+        });
+        mockMvc.perform(get("/actuator/hotproducts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.productId == '" + mouse + "')]").exists());
+    }
+
+    @Test
+    void shouldImportCatalogAndPublishRestocks() throws Exception {
+        UUID created = UUID.randomUUID();
+        UUID restocked = UUID.randomUUID();
+        UUID stand = UUID.fromString("55555555-5555-5555-5555-555555555555"); // bucketed
+        String csv = "id,name,stock\n"
+                + created + ",\"Desk Lamp, LED\",12\n"
+                + restocked + ",Webcam,5\n"
+                + stand + ",Laptop Stand,999\n"
+                + UUID.randomUUID() + ",Broken,-1\n";
+        mockMvc.perform(post("/api/products/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.skippedBucketed").value(1));
+
+        String ndjson = "{\"id\":\"" + restocked + "\",\"name\":\"Webcam\",\"stock\":1}\n"
+                + "{\"id\":\"" + restocked + "\",\"name\":\"Webcam HD\",\"stock\":8}\n"
+                + "{\"id\":\"" + stand + "\",\"name\":\"Laptop Stand\",\"stock\":999}\n";
+        mockMvc.perform(post("/api/products/import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.restocked").value(1))
+                .andExpect(jsonPath("$.skippedBucketed").value(1));
+
+        assertThat(productRepository.findById(created).orElseThrow().getName()).isEqualTo("Desk Lamp, LED");
+        assertThat(productRepository.findById(restocked).orElseThrow().getStock()).isEqualTo(8);
+        assertThat(productRepository.findById(restocked).orElseThrow().getName()).isEqualTo("Webcam HD");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events WHERE event_type = ? "
+                + "AND aggregate_type = 'Product' AND aggregate_id = ?", Integer.class,
+                EventTypes.STOCK_RESTOCKED, restocked)).isEqualTo(2);
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                mockMvc.perform(get("/api/products/{id}/availability", restocked))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.available").value(8)));
+
+        mockMvc.perform(post("/api/products/import").contentType("text/csv").content("sku,title\nx,y\n"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,112 @@
+package com.platform.inventory;
+
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.order.OrderCreatedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.inventory.outbox.OutboxEvent;
+import com.platform.inventory.outbox.OutboxRepository;
+import com.platform.inventory.repository.ProductRepository;
+import com.platform.inventory.repository.ReservationRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles({"test", "reservation-engine"})
+class ReservationEngineIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void shouldReserveInMemoryAndPersistOnceWhenEventIsRedelivered() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        UUID keyboard = UUID.fromString("22222222-2222-2222-2222-222222222222");
+        UUID hub = UUID.fromString("33333333-3333-3333-3333-333333333333");
+
+        int keyboardBefore = productRepository.findById(keyboard).orElseThrow().getStock();
+        int hubBefore = productRepository.findById(hub).orElseThrow().getStock();
+
+        String payload = orderCreated(orderId, List.of(
+                new OrderLineItem(keyboard, 2, new BigDecimal("80.00")),
+                new OrderLineItem(hub, 1, new BigDecimal("25.00"))));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", orderId.toString(), payload));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", orderId.toString(), payload));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RESERVED)
+                    && e.getAggregateId().equals(orderId));
+        });
+
+        await().during(1, TimeUnit.SECONDS).atMost(3, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(reservationRepository.findByOrderIdAndStatus(orderId, "RESERVED")).hasSize(2);
+            assertThat(productRepository.findById(keyboard).orElseThrow().getStock()).isEqualTo(keyboardBefore - 2);
+            assertThat(productRepository.findById(hub).orElseThrow().getStock()).isEqualTo(hubBefore - 1);
+        });
+    }
+
+    @Test
+    void shouldRejectInMemoryWithoutTouchingStock() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        UUID monitor = UUID.fromString("44444444-4444-4444-4444-444444444444");
+        int monitorBefore = productRepository.findById(monitor).orElseThrow().getStock();
+
+        String payload = orderCreated(orderId, List.of(new OrderLineItem(monitor, 999, new BigDecimal("100.00"))));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", orderId.toString(), payload));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_REJECTED)
+                    && e.getAggregateId().equals(orderId)
+                    && e.getPayload().contains(monitor.toString()));
+        });
+        assertThat(productRepository.findById(monitor).orElseThrow().getStock()).isEqualTo(monitorBefore);
+    }
+
+    private static String orderCreated(UUID orderId, List<OrderLineItem> items) throws Exception {
+        BigDecimal total = items.stream()
+                .map(i -> i.unitPrice().multiply(BigDecimal.valueOf(i.quantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        OrderCreatedEvent event = new OrderCreatedEvent(orderId, UUID.randomUUID(), items, total, "EUR");
+        return EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.ORDER_CREATED, event, orderId));
+    }
+}
@@ -0,0 +1,129 @@
+package com.platform.inventory;
+
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.order.OrderCreatedEvent;
+import com.platform.events.order.StockReleaseRequestedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.inventory.config.StockShardingProperties;
+import com.platform.inventory.outbox.OutboxEvent;
+import com.platform.inventory.outbox.OutboxRepository;
+import com.platform.inventory.repository.ProductRepository;
+import com.platform.inventory.service.StockShardingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {"inventory.ledger.enabled=true", "inventory.ledger.rollup-interval-ms=200"})
+@Testcontainers
+@ActiveProfiles("test")
+class StockLedgerIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldAppendMovementsAndRollThemUpWithoutOverselling() throws Exception {
+        UUID monitor = UUID.fromString("44444444-4444-4444-4444-444444444444"); // 30 stock
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        String key = UUID.randomUUID().toString();
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(first, monitor, 20)));
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, orderCreated(second, monitor, 20)));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_RESERVED)
+                    && e.getAggregateId().equals(first));
+            assertThat(events).anyMatch(e -> e.getEventType().equals(EventTypes.STOCK_REJECTED)
+                    && e.getAggregateId().equals(second));
+        });
+        assertThat(productRepository.findById(monitor).orElseThrow().getStock()).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT sum(quantity) FROM stock_movements WHERE order_id = ? AND kind = 'RESERVE'",
+                Integer.class, first)).isEqualTo(-20);
+
+        kafkaTemplate.send(new ProducerRecord<>("order-events", key, releaseRequested(first, monitor, 20)));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM stock_movements WHERE order_id = ? AND kind = 'RELEASE'",
+                    Integer.class, first)).isEqualTo(1);
+            // Rolled up: the row holds the stock again and no movement is pending.
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT stock FROM products WHERE id = ?", Integer.class, monitor)).isEqualTo(30);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM stock_movements m JOIN products p ON p.id = m.product_id "
+                            + "WHERE p.id = ? AND m.id > p.ledger_position", Integer.class, monitor)).isZero();
+        });
+        assertThat(productRepository.findById(monitor).orElseThrow().getStock()).isEqualTo(30);
+    }
+
+    @Test
+    void shouldRefuseToBucketStockWhileTheLedgerIsEnabled() {
+        UUID monitor = UUID.fromString("44444444-4444-4444-4444-444444444444");
+        StockShardingProperties sharding = new StockShardingProperties(Map.of(monitor, 4));
+
+        assertThatThrownBy(() -> new StockShardingService(null, sharding, new SimpleMeterRegistry(), true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("inventory.sharding.products");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM product_stock_buckets WHERE product_id = ?", Integer.class, monitor)).isZero();
+    }
+
+    private static String orderCreated(UUID orderId, UUID productId, int quantity) throws Exception {
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                orderId, UUID.randomUUID(),
+                List.of(new OrderLineItem(productId, quantity, new BigDecimal("100.00"))),
+                new BigDecimal("100.00").multiply(BigDecimal.valueOf(quantity)), "EUR");
+        return EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.ORDER_CREATED, event, orderId));
+    }
+
+    private static String releaseRequested(UUID orderId, UUID productId, int quantity) throws Exception {
+        StockReleaseRequestedEvent event = new StockReleaseRequestedEvent(
+                orderId, List.of(new OrderLineItem(productId, quantity, new BigDecimal("100.00"))));
+        return EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.STOCK_RELEASE_REQUESTED, event, orderId));
+    }
+}
@@ -0,0 +1,14 @@
+package com.platform.order.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class OrderServiceReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(OrderServiceReactiveApplication.class, args);
+    }
+}
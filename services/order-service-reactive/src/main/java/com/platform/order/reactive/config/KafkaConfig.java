@@ -0,0 +1,35 @@
+package com.platform.order.reactive.config;
+
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.List;
+
+/**
+ * reactor-kafka clients configured from the regular {@code spring.kafka.*} properties, so both
+ * builds of order-service share one configuration surface.
+ */
+@Configuration
+public class KafkaConfig {
+
+    public static final List<String> SAGA_TOPICS = List.of("inventory-events", "payment-events");
+
+    @Bean
+    public KafkaSender<String, String> kafkaSender(KafkaProperties properties, SslBundles sslBundles) {
+        return KafkaSender.create(SenderOptions.create(properties.buildProducerProperties(sslBundles)));
+    }
+
+    @Bean
+    public KafkaReceiver<String, String> sagaEventReceiver(KafkaProperties properties, SslBundles sslBundles) {
+        ReceiverOptions<String, String> options = ReceiverOptions
+                .<String, String>create(properties.buildConsumerProperties(sslBundles))
+                .subscription(SAGA_TOPICS);
+        return KafkaReceiver.create(options);
+    }
+}
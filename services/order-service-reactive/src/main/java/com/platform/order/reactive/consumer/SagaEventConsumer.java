@@ -0,0 +1,170 @@
+package com.platform.order.reactive.consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.platform.events.EventTypes;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.order.reactive.domain.OrderStatus;
+import com.platform.order.reactive.repository.ProcessedEventRepository;
+import com.platform.order.reactive.service.OrderService;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Consumes inventory and payment events and drives order status transitions. Records are
+ * handled one at a time per partition, so per-order ordering matches the listener-based build,
+ * while partitions proceed independently on a small fixed set of threads. A record that still
+ * fails after 3 retries one second apart goes to {@code <topic>.DLT}, as in order-service.
+ *
+ * <p>If the pipeline itself fails, e.g. the broker is unreachable or a record cannot be
+ * dead-lettered, it is resubscribed with a new consumer after a backoff of up to 30 seconds;
+ * uncommitted records are then redelivered. {@link SagaEventConsumerHealthIndicator} reports
+ * DOWN while it is backing off and after it has terminated.
+ */
+@Component
+public class SagaEventConsumer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaEventConsumer.class);
+    private static final int MAX_PARTITIONS_IN_FLIGHT = 256;
+    private static final Duration MIN_RESTART_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_RESTART_BACKOFF = Duration.ofSeconds(30);
+
+    private final KafkaReceiver<String, String> receiver;
+    private final KafkaSender<String, String> sender;
+    private final OrderService orderService;
+    private final ProcessedEventRepository processedEventRepository;
+    private final TransactionalOperator transactionalOperator;
+
+    private volatile Disposable subscription;
+    private volatile Throwable restartCause;
+    private volatile Throwable terminationCause;
+
+    public SagaEventConsumer(KafkaReceiver<String, String> sagaEventReceiver,
+                             KafkaSender<String, String> kafkaSender,
+                             OrderService orderService,
+                             ProcessedEventRepository processedEventRepository,
+                             TransactionalOperator transactionalOperator) {
+        this.receiver = sagaEventReceiver;
+        this.sender = kafkaSender;
+        this.orderService = orderService;
+        this.processedEventRepository = processedEventRepository;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public void start() {
+        restartCause = null;
+        terminationCause = null;
+        subscription = Flux.defer(receiver::receive)
+                .doOnSubscribe(s -> restartCause = null)
+                .groupBy(record -> record.receiverOffset().topicPartition())
+                .flatMap(partition -> partition.concatMap(this::handle), MAX_PARTITIONS_IN_FLIGHT)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_RESTART_BACKOFF)
+                        .maxBackoff(MAX_RESTART_BACKOFF)
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> {
+                            restartCause = signal.failure();
+                            log.warn("Saga event consumer failed, resubscribing (attempt {}): {}",
+                                    signal.totalRetriesInARow() + 1, signal.failure().getMessage());
+                        }))
+                .subscribe(null,
+                        e -> {
+                            terminationCause = e;
+                            log.error("Saga event consumer stopped: {}", e.getMessage(), e);
+                        },
+                        () -> {
+                            terminationCause = new IllegalStateException("Saga event stream completed");
+                            log.error("Saga event consumer stopped: event stream completed");
+                        });
+    }
+
+    @Override
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    /** Why the consumer is currently waiting to resubscribe, or null while it is consuming. */
+    Throwable restartCause() {
+        return restartCause;
+    }
+
+    /** Why the consumer stopped for good, or null while it is running. */
+    Throwable terminationCause() {
+        return terminationCause;
+    }
+
+    private Mono<Void> handle(ReceiverRecord<String, String> record) {
+        return transactionalOperator.transactional(Mono.defer(() -> processEvent(record.value())))
+                .retryWhen(Retry.fixedDelay(3, Duration.ofSeconds(1)))
+                .onErrorResume(e -> deadLetter(record, e))
+                .doFinally(signal -> record.receiverOffset().acknowledge());
+    }
+
+    private Mono<Void> processEvent(String message) {
+        JsonNode root;
+        try {
+            root = EventObjectMapper.instance().readTree(message);
+        } catch (Exception e) {
+            return Mono.error(new RuntimeException("Failed to process saga event", e));
+        }
+        String eventType = root.get("eventType").asText();
+        UUID eventId = UUID.fromString(root.get("eventId").asText());
+
+        return processedEventRepository.existsById(eventId).flatMap(processed -> {
+            if (processed) {
+                log.info("Event {} already processed, skipping", eventId);
+                return Mono.empty();
+            }
+
+            JsonNode payload = root.get("payload");
+            UUID orderId = UUID.fromString(payload.get("orderId").asText());
+
+            Mono<Void> action = switch (eventType) {
+                case EventTypes.STOCK_RESERVED -> orderService.updateOrderStatus(orderId, OrderStatus.STOCK_RESERVED);
+                case EventTypes.STOCK_REJECTED -> orderService.cancelOrder(orderId,
+                        payload.has("reason") ? payload.get("reason").asText() : "Stock unavailable", false);
+                case EventTypes.STOCK_RELEASED -> payload.hasNonNull("reason")
+                        ? orderService.cancelOrder(orderId, payload.get("reason").asText(), false)
+                        : Mono.empty();
+                case EventTypes.PAYMENT_SUCCEEDED -> orderService.confirmOrder(orderId);
+                case EventTypes.PAYMENT_FAILED -> orderService.cancelOrder(orderId,
+                        payload.has("reason") ? payload.get("reason").asText() : "Payment failed", true);
+                case EventTypes.PAYMENT_REFUNDED -> orderService.cancelRefundedOrder(orderId,
+                        payload.has("reason") ? payload.get("reason").asText() : "Payment refunded");
+                default -> {
+                    log.debug("Ignoring event type: {}", eventType);
+                    yield Mono.empty();
+                }
+            };
+            return action.then(processedEventRepository.insert(eventId));
+        });
+    }
+
+    private Mono<Void> deadLetter(ReceiverRecord<String, String> record, Throwable e) {
+        log.error("Sending record to DLT from topic {}: {}", record.topic(), e.getMessage());
+        ProducerRecord<String, String> dlt = new ProducerRecord<>(
+                record.topic() + ".DLT", record.partition(), record.key(), record.value());
+        return sender.send(Mono.just(SenderRecord.create(dlt, null))).then();
+    }
+}
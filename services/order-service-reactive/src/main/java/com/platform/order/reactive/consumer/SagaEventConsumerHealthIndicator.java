@@ -0,0 +1,32 @@
+package com.platform.order.reactive.consumer;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/** DOWN while the saga event consumer is resubscribing after a failure, or once it has stopped. */
+@Component
+public class SagaEventConsumerHealthIndicator implements HealthIndicator {
+
+    private final SagaEventConsumer consumer;
+
+    public SagaEventConsumerHealthIndicator(SagaEventConsumer consumer) {
+        this.consumer = consumer;
+    }
+
+    @Override
+    public Health health() {
+        Throwable terminated = consumer.terminationCause();
+        if (terminated != null) {
+            return Health.down(terminated).withDetail("state", "terminated").build();
+        }
+        Throwable restarting = consumer.restartCause();
+        if (restarting != null) {
+            return Health.down(restarting).withDetail("state", "resubscribing").build();
+        }
+        if (!consumer.isRunning()) {
+            return Health.outOfService().withDetail("state", "stopped").build();
+        }
+        return Health.up().build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.platform.order.reactive.controller;
+
+import com.platform.order.reactive.dto.CreateOrderRequest;
+import com.platform.order.reactive.service.OrderQueryService;
+import com.platform.order.reactive.service.OrderService;
+import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+
+    private final OrderService orderService;
+    private final OrderQueryService orderQueryService;
+
+    public OrderController(OrderService orderService, OrderQueryService orderQueryService) {
+        this.orderService = orderService;
+        this.orderQueryService = orderQueryService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key header is required"));
+        }
+        return orderService.createOrder(request, idempotencyKey)
+                .map(result -> ResponseEntity.status(result.fromCache() ? HttpStatus.OK : HttpStatus.CREATED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(result.response()));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> getOrder(@PathVariable UUID id) {
+        // The ETag is the order version; WebFlux answers a matching If-None-Match with 304.
+        return orderQueryService.getOrder(id)
+                .map(order -> ResponseEntity.ok()
+                        .eTag(Long.toString(order.version()))
+                        .cacheControl(CacheControl.noCache())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(order.response()));
+    }
+}
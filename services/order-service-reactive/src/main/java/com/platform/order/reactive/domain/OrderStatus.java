@@ -0,0 +1,34 @@
+package com.platform.order.reactive.domain;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum OrderStatus {
+    PENDING,
+    STOCK_RESERVED,
+    CONFIRMED,
+    CANCELLED;
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return allowedTransitions().contains(target);
+    }
+
+    public boolean isTerminal() {
+        return allowedTransitions().isEmpty();
+    }
+
+    public static Set<OrderStatus> allowedPredecessors(OrderStatus target) {
+        return Arrays.stream(values())
+                .filter(status -> status.canTransitionTo(target))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private Set<OrderStatus> allowedTransitions() {
+        return switch (this) {
+            case PENDING -> Set.of(STOCK_RESERVED, CANCELLED);
+            case STOCK_RESERVED -> Set.of(CONFIRMED, CANCELLED);
+            case CONFIRMED, CANCELLED -> Set.of();
+        };
+    }
+}
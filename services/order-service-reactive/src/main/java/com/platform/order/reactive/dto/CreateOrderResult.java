@@ -0,0 +1,6 @@
+package com.platform.order.reactive.dto;
+
+/**
+ * Serialized order response and whether it was replayed from a stored idempotency key.
+ */
+public record CreateOrderResult(byte[] response, boolean fromCache) {}
@@ -0,0 +1,23 @@
+package com.platform.order.reactive.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Same shape as order-service's response, so both builds return byte-identical documents
+ * and can replay each other's stored idempotent responses.
+ */
+public record OrderResponse(
+        UUID id,
+        UUID customerId,
+        String status,
+        BigDecimal totalAmount,
+        String currency,
+        List<ItemResponse> items,
+        Instant createdAt,
+        Instant updatedAt
+) {
+    public record ItemResponse(UUID productId, int quantity, BigDecimal unitPrice) {}
+}
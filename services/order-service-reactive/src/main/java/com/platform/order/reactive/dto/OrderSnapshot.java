@@ -0,0 +1,6 @@
+package com.platform.order.reactive.dto;
+
+/**
+ * A serialized {@link OrderResponse} together with the order version it was built from.
+ */
+public record OrderSnapshot(byte[] response, long version) {}
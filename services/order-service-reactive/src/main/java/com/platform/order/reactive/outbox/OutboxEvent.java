@@ -0,0 +1,12 @@
+package com.platform.order.reactive.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record OutboxEvent(UUID id, String aggregateType, UUID aggregateId, String eventType,
+                          String payload, Instant createdAt) {
+
+    public static OutboxEvent create(String aggregateType, UUID aggregateId, String eventType, String payload) {
+        return new OutboxEvent(UUID.randomUUID(), aggregateType, aggregateId, eventType, payload, Instant.now());
+    }
+}
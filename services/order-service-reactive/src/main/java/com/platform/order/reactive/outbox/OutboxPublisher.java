@@ -0,0 +1,83 @@
+package com.platform.order.reactive.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Relays unpublished outbox events to Kafka. Unlike the blocking relay, a batch is sent as one
+ * pipelined stream; each event is marked published as soon as its send is acknowledged, and
+ * the first failure stops the batch and triggers the same exponential backoff.
+ */
+@Component
+public class OutboxPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxPublisher.class);
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private static final Map<String, String> AGGREGATE_TO_TOPIC = Map.of(
+            "Order", "order-events"
+    );
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaSender<String, String> kafkaSender;
+    private final MeterRegistry meterRegistry;
+
+    private volatile int consecutiveFailures = 0;
+    private volatile long nextAllowedRunMs = 0;
+
+    public OutboxPublisher(OutboxRepository outboxRepository,
+                           KafkaSender<String, String> kafkaSender,
+                           MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaSender = kafkaSender;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelay = 500)
+    public Mono<Void> publishPendingEvents() {
+        if (System.currentTimeMillis() < nextAllowedRunMs) {
+            return Mono.empty();
+        }
+
+        Flux<SenderRecord<String, String, UUID>> records = outboxRepository.findUnpublished(100)
+                .map(event -> SenderRecord.create(new ProducerRecord<>(
+                        AGGREGATE_TO_TOPIC.getOrDefault(event.aggregateType(), "order-events"),
+                        event.aggregateId().toString(),
+                        event.payload()), event.id()));
+
+        return kafkaSender.send(records)
+                .concatMap(result -> {
+                    if (result.exception() != null) {
+                        return Mono.error(result.exception());
+                    }
+                    return outboxRepository.markPublished(result.correlationMetadata())
+                            .doOnSuccess(v -> {
+                                consecutiveFailures = 0;
+                                meterRegistry.counter("outbox_published_total").increment();
+                                log.info("Published outbox event {} to topic {}",
+                                        result.correlationMetadata(), result.recordMetadata().topic());
+                            });
+                })
+                .then()
+                .onErrorResume(e -> {
+                    consecutiveFailures++;
+                    long backoffMs = Math.min(500L * (1L << Math.min(consecutiveFailures, 6)), MAX_BACKOFF_MS);
+                    nextAllowedRunMs = System.currentTimeMillis() + backoffMs;
+                    meterRegistry.counter("outbox_publish_failures_total").increment();
+                    log.warn("Kafka send failed, backing off for {}ms (consecutive failures: {})",
+                            backoffMs, consecutiveFailures);
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,59 @@
+package com.platform.order.reactive.outbox;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public class OutboxRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public OutboxRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> insert(OutboxEvent event) {
+        return databaseClient.sql("INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, "
+                        + "created_at, published) VALUES (:id, :aggregateType, :aggregateId, :eventType, "
+                        + "CAST(:payload AS jsonb), :createdAt, false)")
+                .bind("id", event.id())
+                .bind("aggregateType", event.aggregateType())
+                .bind("aggregateId", event.aggregateId())
+                .bind("eventType", event.eventType())
+                .bind("payload", event.payload())
+                .bind("createdAt", event.createdAt())
+                .then();
+    }
+
+    public Flux<OutboxEvent> findUnpublished(int limit) {
+        return databaseClient.sql("SELECT id, aggregate_type, aggregate_id, event_type, payload::text AS payload, "
+                        + "created_at FROM outbox_events WHERE published = false ORDER BY created_at LIMIT :limit")
+                .bind("limit", limit)
+                .map((row, metadata) -> new OutboxEvent(
+                        row.get("id", UUID.class),
+                        row.get("aggregate_type", String.class),
+                        row.get("aggregate_id", UUID.class),
+                        row.get("event_type", String.class),
+                        row.get("payload", String.class),
+                        row.get("created_at", Instant.class)))
+                .all();
+    }
+
+    public Mono<Void> markPublished(UUID id) {
+        return databaseClient.sql("UPDATE outbox_events SET published = true WHERE id = :id")
+                .bind("id", id)
+                .then();
+    }
+
+    public Mono<Long> deletePublishedBefore(Instant cutoff) {
+        return databaseClient.sql("DELETE FROM outbox_events WHERE published = true AND created_at < :cutoff")
+                .bind("cutoff", cutoff)
+                .fetch()
+                .rowsUpdated();
+    }
+}
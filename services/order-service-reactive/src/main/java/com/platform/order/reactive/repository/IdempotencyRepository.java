@@ -0,0 +1,51 @@
+package com.platform.order.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public class IdempotencyRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public IdempotencyRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Serializes concurrent requests with the same key until the current transaction ends.
+     */
+    public Mono<Void> lockKey(String key) {
+        return databaseClient.sql("SELECT 1 FROM pg_advisory_xact_lock(hashtextextended(:key, 0))")
+                .bind("key", key)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    public Mono<StoredResponse> findActive(String key, Instant cutoff) {
+        return databaseClient.sql("SELECT request_hash, response_body FROM idempotency_keys "
+                        + "WHERE key = :key AND created_at > :cutoff")
+                .bind("key", key)
+                .bind("cutoff", cutoff)
+                .map((row, metadata) -> new StoredResponse(
+                        row.get("request_hash", String.class),
+                        row.get("response_body", byte[].class)))
+                .first();
+    }
+
+    public Mono<Void> insert(String key, UUID orderId, String requestHash, byte[] responseBody, Instant createdAt) {
+        return databaseClient.sql("INSERT INTO idempotency_keys (key, order_id, request_hash, response_body, created_at) "
+                        + "VALUES (:key, :orderId, :requestHash, :responseBody, :createdAt)")
+                .bind("key", key)
+                .bind("orderId", orderId)
+                .bind("requestHash", requestHash)
+                .bind("responseBody", responseBody)
+                .bind("createdAt", createdAt)
+                .then();
+    }
+}
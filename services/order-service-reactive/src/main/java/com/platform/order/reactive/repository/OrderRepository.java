@@ -0,0 +1,143 @@
+package com.platform.order.reactive.repository;
+
+import com.platform.order.reactive.domain.OrderStatus;
+import com.platform.order.reactive.dto.OrderResponse;
+import com.platform.order.reactive.dto.OrderResponse.ItemResponse;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Writes and reads {@code orders}, {@code order_items} and the {@code order_view} projection
+ * with the same statements order-service issues through JPA.
+ */
+@Repository
+public class OrderRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public OrderRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Inserts a new order, its items (as one multi-row statement) and its read-model row.
+     */
+    public Mono<Void> insert(OrderResponse order, String idempotencyKey, String itemsJson) {
+        Mono<Void> insertOrder = databaseClient.sql("INSERT INTO orders (id, customer_id, status, total_amount, "
+                        + "currency, idempotency_key, created_at, updated_at, version) "
+                        + "VALUES (:id, :customerId, :status, :totalAmount, :currency, :idempotencyKey, "
+                        + ":createdAt, :updatedAt, 0)")
+                .bind("id", order.id())
+                .bind("customerId", order.customerId())
+                .bind("status", order.status())
+                .bind("totalAmount", order.totalAmount())
+                .bind("currency", order.currency())
+                .bind("idempotencyKey", idempotencyKey)
+                .bind("createdAt", order.createdAt())
+                .bind("updatedAt", order.updatedAt())
+                .then();
+
+        List<ItemResponse> items = order.items();
+        String values = IntStream.range(0, items.size())
+                .mapToObj(i -> "(:id" + i + ", :orderId, :productId" + i + ", :quantity" + i + ", :unitPrice" + i + ")")
+                .collect(Collectors.joining(", "));
+        DatabaseClient.GenericExecuteSpec itemsSpec = databaseClient.sql(
+                        "INSERT INTO order_items (id, order_id, product_id, quantity, unit_price) VALUES " + values)
+                .bind("orderId", order.id());
+        for (int i = 0; i < items.size(); i++) {
+            itemsSpec = itemsSpec.bind("id" + i, UUID.randomUUID())
+                    .bind("productId" + i, items.get(i).productId())
+                    .bind("quantity" + i, items.get(i).quantity())
+                    .bind("unitPrice" + i, items.get(i).unitPrice());
+        }
+
+        Mono<Void> insertView = databaseClient.sql("INSERT INTO order_view (id, customer_id, status, total_amount, "
+                        + "currency, items, created_at, updated_at, version) "
+                        + "VALUES (:id, :customerId, :status, :totalAmount, :currency, CAST(:items AS jsonb), "
+                        + ":createdAt, :updatedAt, 0)")
+                .bind("id", order.id())
+                .bind("customerId", order.customerId())
+                .bind("status", order.status())
+                .bind("totalAmount", order.totalAmount())
+                .bind("currency", order.currency())
+                .bind("items", itemsJson)
+                .bind("createdAt", order.createdAt())
+                .bind("updatedAt", order.updatedAt())
+                .then();
+
+        return insertOrder.then(itemsSpec.then()).then(insertView);
+    }
+
+    /**
+     * Moves an order to {@code target} only if it is currently in one of {@code from} and
+     * mirrors the change to the read model. Emits whether the transition was applied.
+     */
+    public Mono<Boolean> transitionStatus(UUID id, Collection<OrderStatus> from, OrderStatus target, Instant now) {
+        String[] fromNames = from.stream().map(Enum::name).toArray(String[]::new);
+        return databaseClient.sql("UPDATE orders SET status = :target, updated_at = :now, version = version + 1 "
+                        + "WHERE id = :id AND status = ANY(:from)")
+                .bind("target", target.name())
+                .bind("now", now)
+                .bind("id", id)
+                .bind("from", fromNames)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0
+                        ? Mono.just(false)
+                        : databaseClient.sql("UPDATE order_view SET status = :target, updated_at = :now, "
+                                        + "version = version + 1 WHERE id = :id")
+                                .bind("target", target.name())
+                                .bind("now", now)
+                                .bind("id", id)
+                                .then()
+                                .thenReturn(true));
+    }
+
+    public Mono<Boolean> existsById(UUID id) {
+        return databaseClient.sql("SELECT 1 FROM orders WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    public Flux<ItemResponse> findItems(UUID orderId) {
+        return databaseClient.sql("SELECT product_id, quantity, unit_price FROM order_items WHERE order_id = :orderId")
+                .bind("orderId", orderId)
+                .map((row, metadata) -> new ItemResponse(
+                        row.get("product_id", UUID.class),
+                        row.get("quantity", Integer.class),
+                        row.get("unit_price", BigDecimal.class)))
+                .all();
+    }
+
+    public Mono<OrderViewRow> findView(UUID id) {
+        return databaseClient.sql("SELECT id, customer_id, status, total_amount, currency, items::text AS items, "
+                        + "created_at, updated_at, version FROM order_view WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> new OrderViewRow(
+                        row.get("id", UUID.class),
+                        row.get("customer_id", UUID.class),
+                        row.get("status", String.class),
+                        row.get("total_amount", BigDecimal.class),
+                        row.get("currency", String.class),
+                        row.get("items", String.class),
+                        row.get("created_at", Instant.class),
+                        row.get("updated_at", Instant.class),
+                        row.get("version", Long.class)))
+                .first();
+    }
+
+    public record OrderViewRow(UUID id, UUID customerId, String status, BigDecimal totalAmount, String currency,
+                               String items, Instant createdAt, Instant updatedAt, long version) {}
+}
@@ -0,0 +1,31 @@
+package com.platform.order.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Repository
+public class ProcessedEventRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ProcessedEventRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Boolean> existsById(UUID eventId) {
+        return databaseClient.sql("SELECT 1 FROM processed_events WHERE event_id = :eventId")
+                .bind("eventId", eventId)
+                .map((row, metadata) -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<Void> insert(UUID eventId) {
+        return databaseClient.sql("INSERT INTO processed_events (event_id) VALUES (:eventId)")
+                .bind("eventId", eventId)
+                .then();
+    }
+}
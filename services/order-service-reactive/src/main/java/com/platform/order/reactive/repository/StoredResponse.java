@@ -0,0 +1,6 @@
+package com.platform.order.reactive.repository;
+
+/**
+ * The request hash and response recorded for an idempotency key.
+ */
+public record StoredResponse(String requestHash, byte[] responseBody) {}
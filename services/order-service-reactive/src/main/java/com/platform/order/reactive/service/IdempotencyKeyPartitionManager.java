@@ -0,0 +1,89 @@
+package com.platform.order.reactive.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Keeps the daily partitions of {@code idempotency_keys} in step with the configured TTL, with
+ * the same naming and schedule as order-service so either build can run against the schema.
+ */
+@Component
+public class IdempotencyKeyPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyPartitionManager.class);
+    private static final String TABLE = "idempotency_keys";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final DatabaseClient databaseClient;
+    private final Duration ttl;
+    private final int premakeDays;
+
+    public IdempotencyKeyPartitionManager(DatabaseClient databaseClient,
+                                          @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                                          @Value("${idempotency.partitions.premake-days:2}") int premakeDays) {
+        this.databaseClient = databaseClient;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.premakeDays = premakeDays;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.partitions.interval-ms:3600000}")
+    public Mono<Void> maintainPartitions() {
+        Instant now = Instant.now();
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        LocalDate cutoffDay = LocalDate.ofInstant(now.minus(ttl), ZoneOffset.UTC);
+
+        Flux<String> create = Flux.range(0, (int) (today.plusDays(premakeDays).toEpochDay() - cutoffDay.toEpochDay()) + 1)
+                .map(cutoffDay::plusDays)
+                .map(day -> String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                        PARTITION_PREFIX + day.format(PARTITION_SUFFIX), TABLE, day, day.plusDays(1)));
+
+        Flux<String> drop = databaseClient.sql("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = '" + TABLE + "'::regclass")
+                .map((row, metadata) -> row.get("relname", String.class))
+                .all()
+                .filter(partition -> isBefore(partition, cutoffDay))
+                .map(partition -> "DROP TABLE IF EXISTS " + partition);
+
+        return isPartitioned().flatMap(partitioned -> {
+            if (!partitioned) {
+                log.warn("Table {} is not partitioned, expired idempotency keys will not be dropped", TABLE);
+                return Mono.empty();
+            }
+            return create.concatWith(drop)
+                    .concatMap(sql -> databaseClient.sql(sql).then())
+                    .then();
+        });
+    }
+
+    private Mono<Boolean> isPartitioned() {
+        return databaseClient.sql("SELECT relkind::text AS kind FROM pg_class WHERE oid = '" + TABLE + "'::regclass")
+                .map((row, metadata) -> "p".equals(row.get("kind", String.class)))
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    private static boolean isBefore(String partition, LocalDate cutoffDay) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return false;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX).isBefore(cutoffDay);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
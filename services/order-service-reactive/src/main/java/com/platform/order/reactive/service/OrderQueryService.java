@@ -0,0 +1,53 @@
+package com.platform.order.reactive.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.order.reactive.dto.OrderResponse;
+import com.platform.order.reactive.dto.OrderResponse.ItemResponse;
+import com.platform.order.reactive.dto.OrderSnapshot;
+import com.platform.order.reactive.repository.OrderRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves single-order reads from the {@code order_view} projection.
+ */
+@Service
+public class OrderQueryService {
+
+    private static final TypeReference<List<ItemResponse>> ITEMS = new TypeReference<>() {};
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderQueryService(OrderRepository orderRepository, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<OrderSnapshot> getOrder(UUID orderId) {
+        return orderRepository.findView(orderId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found")))
+                .map(view -> {
+                    try {
+                        OrderResponse response = new OrderResponse(
+                                view.id(),
+                                view.customerId(),
+                                view.status(),
+                                view.totalAmount(),
+                                view.currency(),
+                                objectMapper.readValue(view.items(), ITEMS),
+                                view.createdAt(),
+                                view.updatedAt());
+                        return new OrderSnapshot(objectMapper.writeValueAsBytes(response), view.version());
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to build response for order " + orderId, e);
+                    }
+                });
+    }
+}
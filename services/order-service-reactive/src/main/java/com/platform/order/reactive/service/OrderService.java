@@ -0,0 +1,246 @@
+package com.platform.order.reactive.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.order.OrderCancelledEvent;
+import com.platform.events.order.OrderConfirmedEvent;
+import com.platform.events.order.OrderCreatedEvent;
+import com.platform.events.order.StockReleaseRequestedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.order.reactive.domain.OrderStatus;
+import com.platform.order.reactive.dto.CreateOrderRequest;
+import com.platform.order.reactive.dto.CreateOrderResult;
+import com.platform.order.reactive.dto.OrderResponse;
+import com.platform.order.reactive.dto.OrderResponse.ItemResponse;
+import com.platform.order.reactive.outbox.OutboxEvent;
+import com.platform.order.reactive.outbox.OutboxRepository;
+import com.platform.order.reactive.repository.IdempotencyRepository;
+import com.platform.order.reactive.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of order-service's {@code OrderService}: the same statements,
+ * outbox events, idempotency rules and state machine, expressed as reactive pipelines over R2DBC.
+ */
+@Service
+public class OrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    /** Statuses a refund cancels from: a confirmed order is still undone when its payment is given back. */
+    private static final Set<OrderStatus> REFUNDABLE =
+            Set.of(OrderStatus.PENDING, OrderStatus.STOCK_RESERVED, OrderStatus.CONFIRMED);
+
+    private final OrderRepository orderRepository;
+    private final OutboxRepository outboxRepository;
+    private final IdempotencyRepository idempotencyRepository;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final Duration idempotencyTtl;
+
+    public OrderService(OrderRepository orderRepository,
+                        OutboxRepository outboxRepository,
+                        IdempotencyRepository idempotencyRepository,
+                        MeterRegistry meterRegistry,
+                        ObjectMapper objectMapper,
+                        @Value("${idempotency.ttl-hours:24}") long idempotencyTtlHours) {
+        this.orderRepository = orderRepository;
+        this.outboxRepository = outboxRepository;
+        this.idempotencyRepository = idempotencyRepository;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.idempotencyTtl = Duration.ofHours(idempotencyTtlHours);
+    }
+
+    @Transactional
+    public Mono<CreateOrderResult> createOrder(CreateOrderRequest request, String idempotencyKey) {
+        String requestHash = hashRequest(request);
+
+        return idempotencyRepository.lockKey(idempotencyKey)
+                .then(idempotencyRepository.findActive(idempotencyKey, Instant.now().minus(idempotencyTtl)))
+                .map(existing -> {
+                    if (!existing.requestHash().equals(requestHash)) {
+                        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                                "Idempotency key already used with different request payload");
+                    }
+                    return new CreateOrderResult(existing.responseBody(), true);
+                })
+                .switchIfEmpty(Mono.defer(() -> insertOrder(request, idempotencyKey, requestHash)));
+    }
+
+    @Transactional
+    public Mono<Void> updateOrderStatus(UUID orderId, OrderStatus newStatus) {
+        return transition(orderId, newStatus)
+                .doOnNext(applied -> {
+                    if (applied) {
+                        log.info("Order {} status changed to {}", orderId, newStatus);
+                    } else {
+                        log.warn("Order {} ignoring invalid transition to {}", orderId, newStatus);
+                    }
+                })
+                .then();
+    }
+
+    @Transactional
+    public Mono<Void> confirmOrder(UUID orderId) {
+        return transition(orderId, OrderStatus.CONFIRMED).flatMap(applied -> {
+            if (!applied) {
+                log.warn("Order {} cannot be confirmed from its current status", orderId);
+                return Mono.empty();
+            }
+            EventEnvelope<OrderConfirmedEvent> envelope = EventEnvelope.wrap(
+                    EventTypes.ORDER_CONFIRMED, new OrderConfirmedEvent(orderId), orderId);
+            return outboxRepository.insert(toOutboxEvent(orderId, EventTypes.ORDER_CONFIRMED, envelope))
+                    .doOnSuccess(v -> {
+                        meterRegistry.counter("orders_confirmed_total").increment();
+                        log.info("Order {} confirmed", orderId);
+                    });
+        });
+    }
+
+    @Transactional
+    public Mono<Void> cancelOrder(UUID orderId, String reason, boolean releaseStock) {
+        return cancel(orderId, OrderStatus.allowedPredecessors(OrderStatus.CANCELLED), reason, releaseStock);
+    }
+
+    /**
+     * Cancels an order whose payment was refunded because its stock hold expired, even when it
+     * had been confirmed already. The expiry returned the stock, so none is released here.
+     */
+    @Transactional
+    public Mono<Void> cancelRefundedOrder(UUID orderId, String reason) {
+        return cancel(orderId, REFUNDABLE, reason, false);
+    }
+
+    private Mono<Void> cancel(UUID orderId, Set<OrderStatus> from, String reason, boolean releaseStock) {
+        return transition(orderId, from, OrderStatus.CANCELLED).flatMap(applied -> {
+            if (!applied) {
+                log.warn("Order {} cannot be cancelled from its current status", orderId);
+                return Mono.empty();
+            }
+            EventEnvelope<OrderCancelledEvent> envelope = EventEnvelope.wrap(
+                    EventTypes.ORDER_CANCELLED, new OrderCancelledEvent(orderId, reason), orderId);
+            Mono<Void> cancelled = outboxRepository.insert(toOutboxEvent(orderId, EventTypes.ORDER_CANCELLED, envelope));
+
+            Mono<Void> release = !releaseStock ? Mono.empty() : orderRepository.findItems(orderId)
+                    .map(item -> new OrderLineItem(item.productId(), item.quantity(), item.unitPrice()))
+                    .collectList()
+                    .flatMap(lineItems -> {
+                        EventEnvelope<StockReleaseRequestedEvent> releaseEnvelope = EventEnvelope.wrap(
+                                EventTypes.STOCK_RELEASE_REQUESTED,
+                                new StockReleaseRequestedEvent(orderId, lineItems), orderId);
+                        return outboxRepository.insert(
+                                toOutboxEvent(orderId, EventTypes.STOCK_RELEASE_REQUESTED, releaseEnvelope));
+                    });
+
+            return cancelled.then(release).doOnSuccess(v -> {
+                meterRegistry.counter("orders_cancelled_total").increment();
+                log.info("Order {} cancelled: {}", orderId, reason);
+            });
+        });
+    }
+
+    private Mono<CreateOrderResult> insertOrder(CreateOrderRequest request, String idempotencyKey, String requestHash) {
+        OrderResponse order = newOrder(request);
+        byte[] response = serialize(order);
+        String itemsJson = new String(serialize(order.items()), StandardCharsets.UTF_8);
+
+        return orderRepository.insert(order, idempotencyKey, itemsJson)
+                .then(outboxRepository.insert(orderCreatedOutboxEvent(order)))
+                .then(idempotencyRepository.insert(idempotencyKey, order.id(), requestHash, response, Instant.now()))
+                .then(Mono.fromCallable(() -> {
+                    meterRegistry.counter("orders_created_total").increment();
+                    log.info("Order created: id={}, status={}", order.id(), order.status());
+                    return new CreateOrderResult(response, false);
+                }));
+    }
+
+    /**
+     * Applies a status transition with a single conditional UPDATE. Only when nothing was
+     * updated do we look up whether the order exists at all.
+     */
+    private Mono<Boolean> transition(UUID orderId, OrderStatus target) {
+        return transition(orderId, OrderStatus.allowedPredecessors(target), target);
+    }
+
+    private Mono<Boolean> transition(UUID orderId, Set<OrderStatus> from, OrderStatus target) {
+        return orderRepository.transitionStatus(orderId, from, target, Instant.now())
+                .flatMap(applied -> applied ? Mono.just(true) : orderRepository.existsById(orderId)
+                        .flatMap(exists -> exists
+                                ? Mono.just(false)
+                                : Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"))));
+    }
+
+    private static OrderResponse newOrder(CreateOrderRequest request) {
+        BigDecimal totalAmount = request.items().stream()
+                .map(item -> item.unitPrice().multiply(BigDecimal.valueOf(item.quantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<ItemResponse> items = request.items().stream()
+                .map(item -> new ItemResponse(item.productId(), item.quantity(), item.unitPrice()))
+                .toList();
+        Instant now = Instant.now();
+        return new OrderResponse(UUID.randomUUID(), request.customerId(), OrderStatus.PENDING.name(),
+                totalAmount, request.currency(), items, now, now);
+    }
+
+    private static OutboxEvent orderCreatedOutboxEvent(OrderResponse order) {
+        List<OrderLineItem> lineItems = order.items().stream()
+                .map(item -> new OrderLineItem(item.productId(), item.quantity(), item.unitPrice()))
+                .toList();
+
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                order.id(), order.customerId(), lineItems, order.totalAmount(), order.currency());
+        EventEnvelope<OrderCreatedEvent> envelope = EventEnvelope.wrap(
+                EventTypes.ORDER_CREATED, event, order.id());
+        return toOutboxEvent(order.id(), EventTypes.ORDER_CREATED, envelope);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize order response", e);
+        }
+    }
+
+    private static OutboxEvent toOutboxEvent(UUID aggregateId, String eventType, Object envelope) {
+        try {
+            String payload = EventObjectMapper.instance().writeValueAsString(envelope);
+            return OutboxEvent.create("Order", aggregateId, eventType, payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize event for outbox", e);
+        }
+    }
+
+    private static String hashRequest(CreateOrderRequest request) {
+        try {
+            String json = EventObjectMapper.instance().writeValueAsString(request);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(json.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to hash request", e);
+        }
+    }
+}
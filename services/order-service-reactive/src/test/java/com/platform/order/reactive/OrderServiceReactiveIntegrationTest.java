@@ -0,0 +1,146 @@
+package com.platform.order.reactive;
+
+import com.platform.order.reactive.domain.OrderStatus;
+import com.platform.order.reactive.dto.CreateOrderRequest;
+import com.platform.order.reactive.dto.OrderItemRequest;
+import com.platform.order.reactive.dto.OrderResponse;
+import com.platform.order.reactive.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@Testcontainers
+@ActiveProfiles("test")
+class OrderServiceReactiveIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void shouldCreateOrderAndReplayIdempotentRequest() {
+        CreateOrderRequest request = new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("11111111-1111-1111-1111-111111111111"),
+                        2,
+                        new BigDecimal("29.99")
+                )),
+                "EUR"
+        );
+        String idempotencyKey = "reactive-" + UUID.randomUUID();
+
+        byte[] created = webTestClient.post().uri("/api/orders")
+                .header("Idempotency-Key", idempotencyKey)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("PENDING")
+                .jsonPath("$.totalAmount").isEqualTo(59.98)
+                .returnResult()
+                .getResponseBody();
+
+        byte[] replayed = webTestClient.post().uri("/api/orders")
+                .header("Idempotency-Key", idempotencyKey)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .returnResult()
+                .getResponseBody();
+        assertThat(replayed).isEqualTo(created);
+
+        CreateOrderRequest different = new CreateOrderRequest(request.customerId(), request.items(), "USD");
+        webTestClient.post().uri("/api/orders")
+                .header("Idempotency-Key", idempotencyKey)
+                .bodyValue(different)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        Long outboxEvents = databaseClient.sql("SELECT count(*) AS n FROM outbox_events WHERE event_type = 'OrderCreated'")
+                .map((row, metadata) -> row.get("n", Long.class))
+                .one()
+                .block();
+        assertThat(outboxEvents).isPositive();
+    }
+
+    @Test
+    void shouldServeOrderWithEtagAndApplyTransitions() {
+        CreateOrderRequest request = new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("55555555-5555-5555-5555-555555555555"),
+                        1,
+                        new BigDecimal("10.00")
+                )),
+                "EUR"
+        );
+
+        OrderResponse order = webTestClient.post().uri("/api/orders")
+                .header("Idempotency-Key", "reactive-" + UUID.randomUUID())
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(OrderResponse.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(order).isNotNull();
+
+        webTestClient.get().uri("/api/orders/" + order.id())
+                .header("If-None-Match", "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+
+        orderService.confirmOrder(order.id()).block();
+        orderService.updateOrderStatus(order.id(), OrderStatus.STOCK_RESERVED).block();
+        orderService.cancelOrder(order.id(), "Payment declined", true).block();
+
+        webTestClient.get().uri("/api/orders/" + order.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"2\"")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("CANCELLED");
+
+        List<String> events = databaseClient.sql("SELECT event_type FROM outbox_events WHERE aggregate_id = :id")
+                .bind("id", order.id())
+                .map((row, metadata) -> row.get("event_type", String.class))
+                .all()
+                .collectList()
+                .block();
+        assertThat(events).contains("OrderCreated", "OrderCancelled", "StockReleaseRequested")
+                .doesNotContain("OrderConfirmed");
+    }
+}
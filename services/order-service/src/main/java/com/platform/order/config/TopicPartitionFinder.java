@@ -0,0 +1,28 @@
+package com.platform.order.config;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Looks up a topic's partitions, for listeners that assign all of them to themselves instead
+ * of joining a consumer group. Used from {@code @KafkaListener} expressions as
+ * {@code #{@topicPartitionFinder.partitions('topic')}}.
+ */
+@Component
+public class TopicPartitionFinder {
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+
+    public TopicPartitionFinder(ConsumerFactory<?, ?> consumerFactory) {
+        this.consumerFactory = consumerFactory;
+    }
+
+    public String[] partitions(String topic) {
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer()) {
+            return consumer.partitionsFor(topic).stream()
+                    .map(partition -> String.valueOf(partition.partition()))
+                    .toArray(String[]::new);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.platform.order.consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.platform.events.EventTypes;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.order.entity.OrderStatus;
+import com.platform.order.stream.OrderStatusHub;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Relays terminal order statuses published on {@code order-events} to the streams open on
+ * this instance, so a client sees CONFIRMED/CANCELLED even when another instance applied it.
+ * Every instance assigns itself all partitions of the topic, so no consumer group is joined or
+ * rebalanced, and seeks to their end on startup: streams only need statuses from now on. The
+ * record key is the order id, so records for orders nobody is watching are skipped unparsed.
+ * The fixed group id only holds the offsets the instances auto-commit, which are never read.
+ */
+@Component
+public class OrderStatusFanOutConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusFanOutConsumer.class);
+
+    private final OrderStatusHub orderStatusHub;
+
+    public OrderStatusFanOutConsumer(OrderStatusHub orderStatusHub) {
+        this.orderStatusHub = orderStatusHub;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments,
+                                     ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    @KafkaListener(groupId = "order-service-status",
+            topicPartitions = @TopicPartition(topic = "order-events",
+                    partitions = "#{@topicPartitionFinder.partitions('order-events')}"),
+            properties = "enable.auto.commit=true")
+    public void consume(ConsumerRecord<String, String> record) {
+        if (record.key() == null) {
+            return;
+        }
+        try {
+            UUID orderId = UUID.fromString(record.key());
+            if (!orderStatusHub.hasSubscribers(orderId)) {
+                return;
+            }
+            JsonNode root = EventObjectMapper.instance().readTree(record.value());
+            switch (root.get("eventType").asText()) {
+                case EventTypes.ORDER_CONFIRMED -> orderStatusHub.publish(orderId, OrderStatus.CONFIRMED);
+                case EventTypes.ORDER_CANCELLED -> orderStatusHub.publish(orderId, OrderStatus.CANCELLED);
+                default -> { }
+            }
+        } catch (Exception e) {
+            // Best effort: subscribers still get the final status on reconnect.
+            log.warn("Failed to relay order event at offset {}: {}", record.offset(), e.getMessage());
+        }
+    }
+}
@@ -65,6 +65,14 @@ public class SagaEventConsumer {
                     orderService.cancelOrder(orderId, reason, false);
                     log.info("Order {} cancelled due to stock rejection: {}", orderId, reason);
                 }
+                case EventTypes.STOCK_RELEASED -> {
+                    // Releases the saga asked for carry no reason; one with a reason (an expired hold)
+                    // cancels the order unless it has already been confirmed, in which case
+                    // payment-service refunds it and PaymentRefunded cancels it.
+                    if (payload.hasNonNull("reason")) {
+                        orderService.cancelOrder(orderId, payload.get("reason").asText(), false);
+                    }
+                }
                 case EventTypes.PAYMENT_SUCCEEDED -> {
                     orderService.confirmOrder(orderId);
                     log.info("Order {} confirmed after payment success", orderId);
@@ -74,6 +82,11 @@ public class SagaEventConsumer {
                     orderService.cancelOrder(orderId, reason, true);
                     log.info("Order {} cancelled due to payment failure, stock release requested", orderId);
                 }
+                case EventTypes.PAYMENT_REFUNDED -> {
+                    // The hold expired after the payment was captured: undo the order, even a confirmed one.
+                    String reason = payload.has("reason") ? payload.get("reason").asText() : "Payment refunded";
+                    orderService.cancelRefundedOrder(orderId, reason);
+                }
                 default -> log.debug("Ignoring event type: {}", eventType);
             }
 
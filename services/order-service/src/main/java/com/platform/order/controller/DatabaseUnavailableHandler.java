@@ -0,0 +1,31 @@
+package com.platform.order.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns connection pool exhaustion into {@code 503 Service Unavailable} with a
+ * {@code Retry-After} hint, so clients back off instead of seeing a generic 500.
+ */
+@RestControllerAdvice
+public class DatabaseUnavailableHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseUnavailableHandler.class);
+
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<ProblemDetail> handleNoConnection(Exception e) {
+        log.warn("No database connection available: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                        "No database connection available, retry later"));
+    }
+}
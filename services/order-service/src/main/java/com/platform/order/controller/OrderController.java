@@ -1,14 +1,27 @@
 package com.platform.order.controller;
 
+import com.platform.order.dto.CreateOrderBatchRequest;
+import com.platform.order.dto.CreateOrderBatchResponse;
 import com.platform.order.dto.CreateOrderRequest;
 import com.platform.order.dto.CreateOrderResult;
-import com.platform.order.dto.OrderResponse;
+import com.platform.order.dto.OrderPageResponse;
+import com.platform.order.dto.OrderSnapshot;
+import com.platform.order.entity.OrderStatus;
+import com.platform.order.service.OrderGroupCommitter;
+import com.platform.order.service.OrderQueryService;
 import com.platform.order.service.OrderService;
+import com.platform.order.stream.OrderStatusHub;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.UUID;
 
@@ -17,25 +30,64 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderQueryService orderQueryService;
+    private final OrderStatusHub orderStatusHub;
+    private final OrderGroupCommitter groupCommitter;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderQueryService orderQueryService,
+                           OrderStatusHub orderStatusHub,
+                           ObjectProvider<OrderGroupCommitter> groupCommitter) {
         this.orderService = orderService;
+        this.orderQueryService = orderQueryService;
+        this.orderStatusHub = orderStatusHub;
+        this.groupCommitter = groupCommitter.getIfAvailable();
     }
 
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(
+    public ResponseEntity<byte[]> createOrder(
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CreateOrderRequest request) {
         if (idempotencyKey == null || idempotencyKey.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key header is required");
         }
-        CreateOrderResult result = orderService.createOrder(request, idempotencyKey);
+        CreateOrderResult result = groupCommitter != null
+                ? groupCommitter.createOrder(request, idempotencyKey)
+                : orderService.createOrder(request, idempotencyKey);
         HttpStatus status = result.fromCache() ? HttpStatus.OK : HttpStatus.CREATED;
-        return ResponseEntity.status(status).body(result.response());
+        // The body was serialized once when the order was created; write the stored bytes as-is.
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(result.response().bytes());
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<CreateOrderBatchResponse> createOrders(@Valid @RequestBody CreateOrderBatchRequest request) {
+        return ResponseEntity.ok(orderService.createOrders(request.orders()));
+    }
+
+    @GetMapping
+    public ResponseEntity<OrderPageResponse> searchOrders(
+            @RequestParam(required = false) UUID customerId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        return ResponseEntity.ok(orderQueryService.searchOrders(customerId, status, after, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getOrder(@PathVariable UUID id) {
-        return ResponseEntity.ok(orderService.getOrder(id));
+    public ResponseEntity<byte[]> getOrder(@PathVariable UUID id) {
+        OrderSnapshot order = orderQueryService.getOrder(id);
+        // The ETag is the order version; Spring answers a matching If-None-Match with 304.
+        return ResponseEntity.ok()
+                .eTag(Long.toString(order.version()))
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(order.response().bytes());
+    }
+
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(@PathVariable UUID id) {
+        return orderStatusHub.subscribe(id, () -> orderQueryService.getCurrentStatus(id));
     }
 }
@@ -0,0 +1,18 @@
+package com.platform.order.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CreateOrderBatchRequest(
+        @NotEmpty @Size(max = 1000) @Valid List<Entry> orders
+) {
+    public record Entry(
+            @NotBlank @Size(max = 64) String idempotencyKey,
+            @NotNull @Valid CreateOrderRequest order
+    ) {}
+}
@@ -0,0 +1,28 @@
+package com.platform.order.dto;
+
+import java.util.List;
+
+public record CreateOrderBatchResponse(
+        List<ItemResult> results
+) {
+    public enum Outcome {
+        CREATED,
+        REPLAYED,
+        CONFLICT
+    }
+
+    public record ItemResult(String idempotencyKey, Outcome outcome, RawJson order, String error) {
+        public static ItemResult created(String idempotencyKey, RawJson order) {
+            return new ItemResult(idempotencyKey, Outcome.CREATED, order, null);
+        }
+
+        public static ItemResult replayed(String idempotencyKey, RawJson order) {
+            return new ItemResult(idempotencyKey, Outcome.REPLAYED, order, null);
+        }
+
+        public static ItemResult conflict(String idempotencyKey) {
+            return new ItemResult(idempotencyKey, Outcome.CONFLICT, null,
+                    "Idempotency key already used with different request payload");
+        }
+    }
+}
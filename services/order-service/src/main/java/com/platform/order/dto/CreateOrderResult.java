@@ -1,6 +1,6 @@
 package com.platform.order.dto;
 
 public record CreateOrderResult(
-        OrderResponse response,
+        RawJson response,
         boolean fromCache
 ) {}
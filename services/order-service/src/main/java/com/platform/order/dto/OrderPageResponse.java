@@ -0,0 +1,9 @@
+package com.platform.order.dto;
+
+import java.util.List;
+
+/**
+ * One page of orders, newest first. {@code next} is passed back as {@code after} to fetch
+ * the following page and is null on the last one.
+ */
+public record OrderPageResponse(List<OrderResponse> orders, String next) {}
@@ -0,0 +1,6 @@
+package com.platform.order.dto;
+
+/**
+ * A serialized {@link OrderResponse} together with the order version it was built from.
+ */
+public record OrderSnapshot(RawJson response, long version) {}
@@ -0,0 +1,5 @@
+package com.platform.order.dto;
+
+import java.util.UUID;
+
+public record OrderStatusEvent(UUID orderId, String status) {}
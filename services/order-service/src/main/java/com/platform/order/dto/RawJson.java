@@ -0,0 +1,128 @@
+package com.platform.order.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A JSON document that has already been serialized. Written to HTTP responses as-is instead of
+ * being parsed and serialized again.
+ */
+@JsonSerialize(using = RawJson.Serializer.class)
+public record RawJson(byte[] bytes) {
+
+    static class Serializer extends StdSerializer<RawJson> {
+
+        Serializer() {
+            super(RawJson.class);
+        }
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(new Utf8Value(value.bytes()));
+        }
+    }
+
+    /**
+     * The stored bytes as a raw value. UTF-8 generators, which HTTP responses are written with,
+     * copy them straight into their output; only a character-based generator decodes them.
+     */
+    private static final class Utf8Value implements SerializableString {
+
+        private final byte[] bytes;
+        private SerializedString decoded;
+
+        Utf8Value(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return bytes;
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + bytes.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+            return bytes.length;
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(bytes);
+            return bytes.length;
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (bytes.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(bytes);
+            return bytes.length;
+        }
+
+        @Override
+        public String getValue() {
+            return decoded().getValue();
+        }
+
+        @Override
+        public int charLength() {
+            return decoded().charLength();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return decoded().asQuotedChars();
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return decoded().asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return decoded().appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return decoded().appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return decoded().appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return decoded().writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+            return decoded().putQuotedUTF8(buffer);
+        }
+
+        private SerializedString decoded() {
+            if (decoded == null) {
+                decoded = new SerializedString(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return decoded;
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package com.platform.order.entity;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "idempotency_keys")
-public class IdempotencyKeyEntity {
+public class IdempotencyKeyEntity implements Persistable<String> {
 
     @Id
     @Column(name = "key")
@@ -20,16 +20,20 @@ public class IdempotencyKeyEntity {
     @Column(name = "request_hash", nullable = false)
     private String requestHash;
 
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "response_body", columnDefinition = "jsonb", nullable = false)
-    private String responseBody;
+    @Column(name = "response_body", nullable = false)
+    private byte[] responseBody;
 
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    // Keys are always inserted, never merged: an expired row with the same key may still
+    // exist in a partition that has not been dropped yet.
+    @Transient
+    private boolean isNew = true;
+
     protected IdempotencyKeyEntity() {}
 
-    public IdempotencyKeyEntity(String key, UUID orderId, String requestHash, String responseBody) {
+    public IdempotencyKeyEntity(String key, UUID orderId, String requestHash, byte[] responseBody) {
         this.key = key;
         this.orderId = orderId;
         this.requestHash = requestHash;
@@ -37,9 +41,21 @@ public class IdempotencyKeyEntity {
         this.createdAt = Instant.now();
     }
 
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String getId() { return key; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
     public String getKey() { return key; }
     public UUID getOrderId() { return orderId; }
     public String getRequestHash() { return requestHash; }
-    public String getResponseBody() { return responseBody; }
+    public byte[] getResponseBody() { return responseBody; }
     public Instant getCreatedAt() { return createdAt; }
 }
@@ -27,7 +27,7 @@ public class Order {
     @Column(nullable = false)
     private String currency;
 
-    @Column(name = "idempotency_key", unique = true)
+    @Column(name = "idempotency_key")
     private String idempotencyKey;
 
     @Column(name = "created_at", nullable = false)
@@ -60,15 +60,6 @@ public class Order {
         items.add(item);
     }
 
-    public boolean updateStatus(OrderStatus newStatus) {
-        if (!this.status.canTransitionTo(newStatus)) {
-            return false;
-        }
-        this.status = newStatus;
-        this.updatedAt = Instant.now();
-        return true;
-    }
-
     public UUID getId() { return id; }
     public UUID getCustomerId() { return customerId; }
     public OrderStatus getStatus() { return status; }
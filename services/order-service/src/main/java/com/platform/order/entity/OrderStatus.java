@@ -1,6 +1,8 @@
 package com.platform.order.entity;
 
+import java.util.Arrays;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public enum OrderStatus {
     PENDING,
@@ -12,6 +14,16 @@ public enum OrderStatus {
         return allowedTransitions().contains(target);
     }
 
+    public boolean isTerminal() {
+        return allowedTransitions().isEmpty();
+    }
+
+    public static Set<OrderStatus> allowedPredecessors(OrderStatus target) {
+        return Arrays.stream(values())
+                .filter(status -> status.canTransitionTo(target))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
     private Set<OrderStatus> allowedTransitions() {
         return switch (this) {
             case PENDING -> Set.of(STOCK_RESERVED, CANCELLED);
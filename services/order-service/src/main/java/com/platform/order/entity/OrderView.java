@@ -0,0 +1,87 @@
+package com.platform.order.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-side projection of an order with its items inlined as JSON, so that serving
+ * GET /api/orders/{id} is a single primary-key lookup with no join or lazy loading.
+ */
+@Entity
+@Table(name = "order_view")
+public class OrderView implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(name = "total_amount", nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "items", columnDefinition = "jsonb", nullable = false)
+    private String items;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private long version;
+
+    // Views are inserted alongside their order and only ever changed by bulk updates.
+    @Transient
+    private boolean isNew = true;
+
+    protected OrderView() {}
+
+    /** Projects a newly created order, whose version always starts at 0. */
+    public OrderView(Order order, String items) {
+        this.id = order.getId();
+        this.customerId = order.getCustomerId();
+        this.status = order.getStatus();
+        this.totalAmount = order.getTotalAmount();
+        this.currency = order.getCurrency();
+        this.items = items;
+        this.createdAt = order.getCreatedAt();
+        this.updatedAt = order.getUpdatedAt();
+        this.version = 0L;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @Override
+    public UUID getId() { return id; }
+    public UUID getCustomerId() { return customerId; }
+    public OrderStatus getStatus() { return status; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public String getCurrency() { return currency; }
+    public String getItems() { return items; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public long getVersion() { return version; }
+}
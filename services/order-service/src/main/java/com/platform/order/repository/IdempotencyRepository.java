@@ -2,6 +2,21 @@ package com.platform.order.repository;
 
 import com.platform.order.entity.IdempotencyKeyEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface IdempotencyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+    @Query("SELECT k FROM IdempotencyKeyEntity k WHERE k.key = :key AND k.createdAt > :cutoff")
+    Optional<IdempotencyKeyEntity> findActive(String key, Instant cutoff);
+
+    @Query("SELECT k FROM IdempotencyKeyEntity k WHERE k.key IN :keys AND k.createdAt > :cutoff")
+    List<IdempotencyKeyEntity> findAllActive(Collection<String> keys, Instant cutoff);
+
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtextextended(:key, 0))", nativeQuery = true)
+    Integer lockKey(String key);
 }
@@ -0,0 +1,110 @@
+package com.platform.order.repository;
+
+import com.platform.order.entity.IdempotencyKeyEntity;
+import com.platform.order.entity.Order;
+import com.platform.order.entity.OrderItem;
+import com.platform.order.entity.OrderView;
+import com.platform.order.outbox.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Multi-row writes for order creation, issued as JDBC batches so that a whole batch of orders
+ * costs a handful of round trips instead of several per order.
+ */
+@Repository
+public class OrderBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Serializes concurrent requests for the same keys until the current transaction ends.
+     * Keys must be passed in a stable order so that overlapping batches cannot deadlock.
+     */
+    public void lockIdempotencyKeys(List<String> sortedKeys) {
+        jdbcTemplate.query(
+                "SELECT pg_advisory_xact_lock(hashtextextended(k, 0)) "
+                        + "FROM unnest(?::text[]) WITH ORDINALITY AS t(k, n) ORDER BY n",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", sortedKeys.toArray())),
+                rs -> {});
+    }
+
+    public void insertOrders(List<Order> orders) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO orders (id, customer_id, status, total_amount, currency, idempotency_key, "
+                        + "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                orders, orders.size(), (ps, order) -> {
+                    ps.setObject(1, order.getId());
+                    ps.setObject(2, order.getCustomerId());
+                    ps.setString(3, order.getStatus().name());
+                    ps.setBigDecimal(4, order.getTotalAmount());
+                    ps.setString(5, order.getCurrency());
+                    ps.setString(6, order.getIdempotencyKey());
+                    ps.setTimestamp(7, Timestamp.from(order.getCreatedAt()));
+                    ps.setTimestamp(8, Timestamp.from(order.getUpdatedAt()));
+                });
+
+        List<OrderItem> items = orders.stream().flatMap(order -> order.getItems().stream()).toList();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO order_items (id, order_id, product_id, quantity, unit_price) VALUES (?, ?, ?, ?, ?)",
+                items, items.size(), (ps, item) -> {
+                    ps.setObject(1, item.getId());
+                    ps.setObject(2, item.getOrder().getId());
+                    ps.setObject(3, item.getProductId());
+                    ps.setInt(4, item.getQuantity());
+                    ps.setBigDecimal(5, item.getUnitPrice());
+                });
+    }
+
+    public void insertOrderViews(List<OrderView> views) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO order_view (id, customer_id, status, total_amount, currency, items, "
+                        + "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?)",
+                views, views.size(), (ps, view) -> {
+                    ps.setObject(1, view.getId());
+                    ps.setObject(2, view.getCustomerId());
+                    ps.setString(3, view.getStatus().name());
+                    ps.setBigDecimal(4, view.getTotalAmount());
+                    ps.setString(5, view.getCurrency());
+                    ps.setString(6, view.getItems());
+                    ps.setTimestamp(7, Timestamp.from(view.getCreatedAt()));
+                    ps.setTimestamp(8, Timestamp.from(view.getUpdatedAt()));
+                    ps.setLong(9, view.getVersion());
+                });
+    }
+
+    public void insertOutboxEvents(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, created_at, published) "
+                        + "VALUES (?, ?, ?, ?, ?::jsonb, ?, ?)",
+                events, events.size(), (ps, event) -> {
+                    ps.setObject(1, event.getId());
+                    ps.setString(2, event.getAggregateType());
+                    ps.setObject(3, event.getAggregateId());
+                    ps.setString(4, event.getEventType());
+                    ps.setString(5, event.getPayload());
+                    ps.setTimestamp(6, Timestamp.from(event.getCreatedAt()));
+                    ps.setBoolean(7, event.isPublished());
+                });
+    }
+
+    public void insertIdempotencyKeys(List<IdempotencyKeyEntity> keys) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO idempotency_keys (key, order_id, request_hash, response_body, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?)",
+                keys, keys.size(), (ps, key) -> {
+                    ps.setString(1, key.getKey());
+                    ps.setObject(2, key.getOrderId());
+                    ps.setString(3, key.getRequestHash());
+                    ps.setBytes(4, key.getResponseBody());
+                    ps.setTimestamp(5, Timestamp.from(key.getCreatedAt()));
+                });
+    }
+}
@@ -0,0 +1,12 @@
+package com.platform.order.repository;
+
+import com.platform.order.entity.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
+
+    List<OrderItem> findByOrderId(UUID orderId);
+}
@@ -1,9 +1,24 @@
 package com.platform.order.repository;
 
 import com.platform.order.entity.Order;
+import com.platform.order.entity.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
+
+    /**
+     * Moves an order to {@code target} only if it is currently in one of {@code from}.
+     * Returns the number of rows updated, so 0 means the transition was not allowed
+     * (or the order does not exist).
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :target, o.updatedAt = :now, o.version = o.version + 1 "
+            + "WHERE o.id = :id AND o.status IN :from")
+    int transitionStatus(UUID id, Collection<OrderStatus> from, OrderStatus target, Instant now);
 }
@@ -0,0 +1,94 @@
+package com.platform.order.repository;
+
+import com.platform.order.dto.OrderCursor;
+import com.platform.order.dto.OrderResponse;
+import com.platform.order.dto.OrderResponse.ItemResponse;
+import com.platform.order.entity.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated order listing. Pages are sought with a row comparison on
+ * {@code (created_at, id)} against the indexes from V10, led by customer_id or status, so the
+ * cost of a page does not depend on how many pages came before it; the items of a whole page
+ * are then loaded with a single query. The indexes leave out updated_at, which every status
+ * transition changes, so the other columns of a returned row are read from the heap.
+ */
+@Repository
+public class OrderSearchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns up to {@code limit} orders older than {@code after} (or the newest ones when it
+     * is null), newest first. At least one of {@code customerId} and {@code status} must be set
+     * so that the scan can use an index.
+     */
+    public List<OrderResponse> findPage(UUID customerId, OrderStatus status, OrderCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, customer_id, status, total_amount, currency, created_at, updated_at FROM orders WHERE ");
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (customerId != null) {
+            conditions.add("customer_id = ?");
+            args.add(customerId);
+        }
+        if (status != null) {
+            conditions.add("status = ?");
+            args.add(status.name());
+        }
+        if (after != null) {
+            conditions.add("(created_at, id) < (?, ?)");
+            args.add(Timestamp.from(after.createdAt()));
+            args.add(after.id());
+        }
+        sql.append(String.join(" AND ", conditions))
+                .append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+
+        List<OrderResponse> orders = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new OrderResponse(
+                rs.getObject("id", UUID.class),
+                rs.getObject("customer_id", UUID.class),
+                rs.getString("status"),
+                rs.getBigDecimal("total_amount"),
+                rs.getString("currency"),
+                List.of(),
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getTimestamp("updated_at").toInstant()), args.toArray());
+        if (orders.isEmpty()) {
+            return orders;
+        }
+
+        Map<UUID, List<ItemResponse>> items = findItems(orders.stream().map(OrderResponse::id).toList());
+        return orders.stream()
+                .map(o -> new OrderResponse(o.id(), o.customerId(), o.status(), o.totalAmount(), o.currency(),
+                        items.getOrDefault(o.id(), List.of()), o.createdAt(), o.updatedAt()))
+                .toList();
+    }
+
+    private Map<UUID, List<ItemResponse>> findItems(List<UUID> orderIds) {
+        Map<UUID, List<ItemResponse>> items = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT order_id, product_id, quantity, unit_price FROM order_items WHERE order_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray())),
+                rs -> {
+                    items.computeIfAbsent(rs.getObject("order_id", UUID.class), id -> new ArrayList<>())
+                            .add(new ItemResponse(
+                                    rs.getObject("product_id", UUID.class),
+                                    rs.getInt("quantity"),
+                                    rs.getBigDecimal("unit_price")));
+                });
+        return items;
+    }
+}
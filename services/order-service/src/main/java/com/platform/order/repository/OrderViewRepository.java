@@ -0,0 +1,22 @@
+package com.platform.order.repository;
+
+import com.platform.order.entity.OrderStatus;
+import com.platform.order.entity.OrderView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface OrderViewRepository extends JpaRepository<OrderView, UUID> {
+
+    /**
+     * Mirrors a status transition already applied to {@code orders}; the version is bumped
+     * the same way so both tables agree on it.
+     */
+    @Modifying
+    @Query("UPDATE OrderView v SET v.status = :status, v.updatedAt = :now, v.version = v.version + 1 "
+            + "WHERE v.id = :id")
+    int updateStatus(UUID id, OrderStatus status, Instant now);
+}
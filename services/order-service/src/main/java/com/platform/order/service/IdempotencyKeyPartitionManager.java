@@ -0,0 +1,140 @@
+package com.platform.order.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the daily partitions of {@code idempotency_keys} in step with the configured TTL:
+ * partitions are created ahead of time and dropped once every key in them has expired.
+ */
+@Component
+public class IdempotencyKeyPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyPartitionManager.class);
+    private static final String TABLE = "idempotency_keys";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final int premakeDays;
+
+    private final AtomicLong tableSizeBytes = new AtomicLong();
+    private final AtomicLong partitionCount = new AtomicLong();
+    private final AtomicLong maxKeyAgeSeconds = new AtomicLong();
+
+    private volatile boolean partitioningWarned = false;
+
+    public IdempotencyKeyPartitionManager(JdbcTemplate jdbcTemplate,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                                          @Value("${idempotency.partitions.premake-days:2}") int premakeDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.premakeDays = premakeDays;
+
+        Gauge.builder("idempotency_keys_table_size_bytes", tableSizeBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("idempotency_keys_partitions", partitionCount, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("idempotency_keys_max_age_seconds", maxKeyAgeSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.partitions.interval-ms:3600000}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            if (!partitioningWarned) {
+                log.warn("Table {} is not partitioned, expired idempotency keys will not be dropped", TABLE);
+                partitioningWarned = true;
+            }
+            return;
+        }
+
+        Instant now = Instant.now();
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        LocalDate cutoffDay = LocalDate.ofInstant(now.minus(ttl), ZoneOffset.UTC);
+
+        for (LocalDate day = cutoffDay; !day.isAfter(today.plusDays(premakeDays)); day = day.plusDays(1)) {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                    partitionName(day), TABLE, day, day.plusDays(1)));
+        }
+
+        int dropped = 0;
+        for (String partition : listPartitions()) {
+            LocalDate day = partitionDay(partition);
+            if (day != null && day.isBefore(cutoffDay)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.info("Dropped {} expired idempotency key partitions older than {}", dropped, cutoffDay);
+        }
+
+        refreshMetrics(now);
+    }
+
+    private void refreshMetrics(Instant now) {
+        List<String> partitions = listPartitions();
+        partitionCount.set(partitions.size());
+
+        Long size = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(sum(pg_total_relation_size(inhrelid)), 0) FROM pg_inherits "
+                        + "WHERE inhparent = '" + TABLE + "'::regclass", Long.class);
+        tableSizeBytes.set(size != null ? size : 0L);
+
+        // Key age is tracked at partition granularity: the oldest retained partition bounds the
+        // oldest live key without scanning created_at.
+        partitions.stream()
+                .map(IdempotencyKeyPartitionManager::partitionDay)
+                .filter(day -> day != null)
+                .min(LocalDate::compareTo)
+                .ifPresent(oldest -> maxKeyAgeSeconds.set(Math.max(0,
+                        Duration.between(oldest.atStartOfDay().toInstant(ZoneOffset.UTC), now).toSeconds())));
+    }
+
+    private boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = '" + TABLE + "'::regclass", String.class);
+        return "p".equals(kind);
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = '" + TABLE + "'::regclass", String.class);
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+
+    private static LocalDate partitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
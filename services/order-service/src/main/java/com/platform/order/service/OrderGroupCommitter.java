@@ -0,0 +1,209 @@
+package com.platform.order.service;
+
+import com.platform.order.dto.CreateOrderBatchRequest;
+import com.platform.order.dto.CreateOrderBatchResponse;
+import com.platform.order.dto.CreateOrderBatchResponse.ItemResult;
+import com.platform.order.dto.CreateOrderRequest;
+import com.platform.order.dto.CreateOrderResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional write path for order creation that queues concurrent requests and commits them
+ * together, so that many callers share one transaction and one fsync. A batch is flushed when
+ * it reaches {@code max-batch-size} or when its first request has waited {@code max-wait}.
+ * Each caller is released only after the shared commit, with the same result the single-order
+ * path would have produced, or with 503 once it has waited {@code timeout}; a retry with the
+ * same idempotency key then replays the order if it was committed after all.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.group-commit.enabled", havingValue = "true")
+public class OrderGroupCommitter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderGroupCommitter.class);
+
+    private final OrderService orderService;
+    private final BlockingQueue<PendingOrder> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long timeoutNanos;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running = false;
+    private Thread writer;
+
+    public OrderGroupCommitter(OrderService orderService,
+                               MeterRegistry meterRegistry,
+                               @Value("${orders.group-commit.max-batch-size:128}") int maxBatchSize,
+                               @Value("${orders.group-commit.max-wait:2ms}") Duration maxWait,
+                               @Value("${orders.group-commit.queue-capacity:10000}") int queueCapacity,
+                               @Value("${orders.group-commit.timeout:10s}") Duration timeout) {
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.batchSizes = DistributionSummary.builder("orders_group_commit_batch_size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public CreateOrderResult createOrder(CreateOrderRequest request, String idempotencyKey) {
+        PendingOrder pending = new PendingOrder(
+                new CreateOrderBatchRequest.Entry(idempotencyKey, request), new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order write queue is full");
+        }
+        // stop() may have drained the queue just before the offer, leaving nobody to take it.
+        if (!running && queue.remove(pending)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order service is shutting down");
+        }
+        try {
+            return pending.result().orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order write timed out");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "order-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order service is shutting down"));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the web server, whose graceful shutdown (DEFAULT_PHASE - 1024)
+        // and stop (DEFAULT_PHASE - 2048) both wait on requests queued here.
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void runWriter() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                fail(batch, new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order service is shutting down"));
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit of {} orders failed: {}", batch.size(), e.getMessage(), e);
+                fail(batch, e);
+            } catch (Error e) {
+                // The writer cannot go on; refuse new requests and release every waiting caller.
+                running = false;
+                log.error("Order group-commit writer stopped: {}", e.getMessage(), e);
+                ResponseStatusException unavailable = new ResponseStatusException(
+                        HttpStatus.SERVICE_UNAVAILABLE, "Order write path failed");
+                fail(batch, unavailable);
+                failQueued(unavailable);
+                throw e;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void failQueued(Throwable cause) {
+        List<PendingOrder> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        fail(remaining, cause);
+    }
+
+    /** Completes the callers not answered yet; those already answered keep their result. */
+    private static void fail(List<PendingOrder> pending, Throwable cause) {
+        pending.forEach(p -> p.result().completeExceptionally(cause));
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        CreateOrderBatchResponse response;
+        try {
+            response = orderService.createOrders(batch.stream().map(PendingOrder::entry).toList());
+        } catch (Exception e) {
+            // One bad request must not fail the others: retry each on the single-order path.
+            log.warn("Group commit of {} orders failed, retrying individually: {}", batch.size(), e.getMessage());
+            batch.forEach(this::commitIndividually);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            ItemResult item = response.results().get(i);
+            CompletableFuture<CreateOrderResult> result = batch.get(i).result();
+            switch (item.outcome()) {
+                case CREATED -> result.complete(new CreateOrderResult(item.order(), false));
+                case REPLAYED -> result.complete(new CreateOrderResult(item.order(), true));
+                case CONFLICT -> result.completeExceptionally(
+                        new ResponseStatusException(HttpStatus.CONFLICT, item.error()));
+            }
+        }
+    }
+
+    private void commitIndividually(PendingOrder pending) {
+        try {
+            pending.result().complete(orderService.createOrder(
+                    pending.entry().order(), pending.entry().idempotencyKey()));
+        } catch (Exception e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private record PendingOrder(CreateOrderBatchRequest.Entry entry, CompletableFuture<CreateOrderResult> result) {}
+}
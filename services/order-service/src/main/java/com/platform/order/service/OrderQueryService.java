@@ -0,0 +1,117 @@
+package com.platform.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.platform.order.dto.OrderCursor;
+import com.platform.order.dto.OrderPageResponse;
+import com.platform.order.dto.OrderResponse;
+import com.platform.order.dto.OrderResponse.ItemResponse;
+import com.platform.order.dto.OrderSnapshot;
+import com.platform.order.dto.RawJson;
+import com.platform.order.entity.OrderStatus;
+import com.platform.order.entity.OrderView;
+import com.platform.order.repository.OrderSearchRepository;
+import com.platform.order.repository.OrderViewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves single-order reads from the {@code order_view} projection through a bounded
+ * in-memory cache of serialized responses. Entries are evicted once a status change commits
+ * in this instance; the TTL bounds staleness for changes applied by other instances.
+ */
+@Service
+public class OrderQueryService {
+
+    private static final TypeReference<List<ItemResponse>> ITEMS = new TypeReference<>() {};
+
+    private final OrderViewRepository orderViewRepository;
+    private final OrderSearchRepository orderSearchRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, OrderSnapshot> cache;
+
+    public OrderQueryService(OrderViewRepository orderViewRepository,
+                             OrderSearchRepository orderSearchRepository,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${orders.read-cache.max-size:100000}") long maxSize,
+                             @Value("${orders.read-cache.ttl:5s}") Duration ttl) {
+        this.orderViewRepository = orderViewRepository;
+        this.orderSearchRepository = orderSearchRepository;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "order_view");
+    }
+
+    public OrderSnapshot getOrder(UUID orderId) {
+        return cache.get(orderId, this::load);
+    }
+
+    /**
+     * Reads the status straight from the read model, bypassing the cache, for callers that
+     * must not act on a stale value.
+     */
+    public OrderStatus getCurrentStatus(UUID orderId) {
+        return orderViewRepository.findById(orderId)
+                .map(OrderView::getStatus)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+    }
+
+    public OrderPageResponse searchOrders(UUID customerId, OrderStatus status, String after, int limit) {
+        if (customerId == null && status == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "customerId or status is required");
+        }
+        OrderCursor cursor = after != null ? OrderCursor.decode(after) : null;
+
+        // Fetch one extra row to learn whether there is a next page without a count query.
+        List<OrderResponse> orders = orderSearchRepository.findPage(customerId, status, cursor, limit + 1);
+        if (orders.size() <= limit) {
+            return new OrderPageResponse(orders, null);
+        }
+        List<OrderResponse> page = orders.subList(0, limit);
+        OrderResponse last = page.get(limit - 1);
+        return new OrderPageResponse(page, new OrderCursor(last.createdAt(), last.id()).encode());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusChanged event) {
+        // Evict only after commit, otherwise a concurrent read could re-cache the old status.
+        cache.invalidate(event.orderId());
+    }
+
+    private OrderSnapshot load(UUID orderId) {
+        OrderView view = orderViewRepository.findById(orderId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+        try {
+            OrderResponse response = new OrderResponse(
+                    view.getId(),
+                    view.getCustomerId(),
+                    view.getStatus().name(),
+                    view.getTotalAmount(),
+                    view.getCurrency(),
+                    objectMapper.readValue(view.getItems(), ITEMS),
+                    view.getCreatedAt(),
+                    view.getUpdatedAt());
+            return new OrderSnapshot(new RawJson(objectMapper.writeValueAsBytes(response)), view.getVersion());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to build response for order " + orderId, e);
+        }
+    }
+}
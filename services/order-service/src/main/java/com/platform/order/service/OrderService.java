@@ -1,6 +1,7 @@
 package com.platform.order.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.platform.events.EventEnvelope;
 import com.platform.events.EventTypes;
 import com.platform.events.OrderLineItem;
@@ -9,19 +10,29 @@ import com.platform.events.order.OrderConfirmedEvent;
 import com.platform.events.order.OrderCreatedEvent;
 import com.platform.events.order.StockReleaseRequestedEvent;
 import com.platform.events.serde.EventObjectMapper;
+import com.platform.order.dto.CreateOrderBatchRequest;
+import com.platform.order.dto.CreateOrderBatchResponse;
+import com.platform.order.dto.CreateOrderBatchResponse.ItemResult;
 import com.platform.order.dto.CreateOrderRequest;
 import com.platform.order.dto.CreateOrderResult;
 import com.platform.order.dto.OrderResponse;
+import com.platform.order.dto.RawJson;
 import com.platform.order.entity.IdempotencyKeyEntity;
 import com.platform.order.entity.Order;
 import com.platform.order.entity.OrderStatus;
+import com.platform.order.entity.OrderView;
 import com.platform.order.outbox.OutboxEvent;
 import com.platform.order.outbox.OutboxRepository;
 import com.platform.order.repository.IdempotencyRepository;
+import com.platform.order.repository.OrderBatchRepository;
+import com.platform.order.repository.OrderItemRepository;
 import com.platform.order.repository.OrderRepository;
+import com.platform.order.repository.OrderViewRepository;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,8 +41,14 @@ import org.springframework.web.server.ResponseStatusException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -39,106 +56,150 @@ public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
+    /** Statuses a refund cancels from: a confirmed order is still undone when its payment is given back. */
+    private static final Set<OrderStatus> REFUNDABLE =
+            Set.of(OrderStatus.PENDING, OrderStatus.STOCK_RESERVED, OrderStatus.CONFIRMED);
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderViewRepository orderViewRepository;
     private final OutboxRepository outboxRepository;
     private final IdempotencyRepository idempotencyRepository;
+    private final OrderBatchRepository orderBatchRepository;
     private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Duration idempotencyTtl;
 
     public OrderService(OrderRepository orderRepository,
+                        OrderItemRepository orderItemRepository,
+                        OrderViewRepository orderViewRepository,
                         OutboxRepository outboxRepository,
                         IdempotencyRepository idempotencyRepository,
-                        MeterRegistry meterRegistry) {
+                        OrderBatchRepository orderBatchRepository,
+                        MeterRegistry meterRegistry,
+                        ApplicationEventPublisher eventPublisher,
+                        ObjectMapper objectMapper,
+                        @Value("${idempotency.ttl-hours:24}") long idempotencyTtlHours) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderViewRepository = orderViewRepository;
         this.outboxRepository = outboxRepository;
         this.idempotencyRepository = idempotencyRepository;
+        this.orderBatchRepository = orderBatchRepository;
         this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.idempotencyTtl = Duration.ofHours(idempotencyTtlHours);
     }
 
     @Transactional
     public CreateOrderResult createOrder(CreateOrderRequest request, String idempotencyKey) {
         String requestHash = hashRequest(request);
 
-        var existing = idempotencyRepository.findById(idempotencyKey);
+        idempotencyRepository.lockKey(idempotencyKey);
+        var existing = idempotencyRepository.findActive(idempotencyKey, Instant.now().minus(idempotencyTtl));
         if (existing.isPresent()) {
             IdempotencyKeyEntity entity = existing.get();
             if (entity.getRequestHash().equals(requestHash)) {
-                try {
-                    OrderResponse cached = EventObjectMapper.instance().readValue(
-                            entity.getResponseBody(), OrderResponse.class);
-                    return new CreateOrderResult(cached, true);
-                } catch (JsonProcessingException e) {
-                    throw new RuntimeException("Failed to deserialize cached response", e);
-                }
+                return new CreateOrderResult(new RawJson(entity.getResponseBody()), true);
             }
             throw new ResponseStatusException(HttpStatus.CONFLICT,
                     "Idempotency key already used with different request payload");
         }
 
-        BigDecimal totalAmount = request.items().stream()
-                .map(item -> item.unitPrice().multiply(BigDecimal.valueOf(item.quantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Order order = newOrder(request, idempotencyKey);
+        OrderResponse orderResponse = OrderResponse.from(order);
+        orderRepository.save(order);
+        orderViewRepository.save(new OrderView(order, serializeItems(orderResponse)));
+        outboxRepository.save(orderCreatedOutboxEvent(order));
 
-        Order order = new Order(request.customerId(), totalAmount, request.currency(), idempotencyKey);
-        request.items().forEach(item ->
-                order.addItem(item.productId(), item.quantity(), item.unitPrice()));
+        byte[] response = serializeResponse(orderResponse);
+        idempotencyRepository.save(new IdempotencyKeyEntity(
+                idempotencyKey, order.getId(), requestHash, response));
 
-        orderRepository.save(order);
+        meterRegistry.counter("orders_created_total").increment();
+        log.info("Order created: id={}, status={}", order.getId(), order.getStatus());
+        return new CreateOrderResult(new RawJson(response), false);
+    }
 
-        List<OrderLineItem> lineItems = request.items().stream()
-                .map(item -> new OrderLineItem(item.productId(), item.quantity(), item.unitPrice()))
+    /**
+     * Creates a batch of orders in a single transaction. Each entry carries its own idempotency
+     * key and is reported individually as created, replayed or conflicting; all new rows are
+     * written with JDBC batches.
+     */
+    @Transactional
+    public CreateOrderBatchResponse createOrders(List<CreateOrderBatchRequest.Entry> entries) {
+        List<String> keys = entries.stream()
+                .map(CreateOrderBatchRequest.Entry::idempotencyKey)
+                .distinct()
+                .sorted()
                 .toList();
+        orderBatchRepository.lockIdempotencyKeys(keys);
 
-        OrderCreatedEvent event = new OrderCreatedEvent(
-                order.getId(), order.getCustomerId(), lineItems, totalAmount, order.getCurrency());
-        EventEnvelope<OrderCreatedEvent> envelope = EventEnvelope.wrap(
-                EventTypes.ORDER_CREATED, event, order.getId());
+        Map<String, IdempotencyKeyEntity> existing = new HashMap<>();
+        idempotencyRepository.findAllActive(keys, Instant.now().minus(idempotencyTtl))
+                .forEach(entity -> existing.put(entity.getKey(), entity));
 
-        saveOutboxEvent("Order", order.getId(), EventTypes.ORDER_CREATED, envelope);
+        List<Order> orders = new ArrayList<>();
+        List<OrderView> views = new ArrayList<>();
+        List<OutboxEvent> outboxEvents = new ArrayList<>();
+        List<IdempotencyKeyEntity> idempotencyKeys = new ArrayList<>();
+        List<ItemResult> results = new ArrayList<>(entries.size());
 
-        OrderResponse response = OrderResponse.from(order);
+        for (CreateOrderBatchRequest.Entry entry : entries) {
+            String key = entry.idempotencyKey();
+            String requestHash = hashRequest(entry.order());
 
-        try {
-            String responseJson = EventObjectMapper.instance().writeValueAsString(response);
-            idempotencyRepository.save(new IdempotencyKeyEntity(
-                    idempotencyKey, order.getId(), requestHash, responseJson));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize response for idempotency cache", e);
+            IdempotencyKeyEntity previous = existing.get(key);
+            if (previous != null) {
+                results.add(previous.getRequestHash().equals(requestHash)
+                        ? ItemResult.replayed(key, new RawJson(previous.getResponseBody()))
+                        : ItemResult.conflict(key));
+                continue;
+            }
+
+            Order order = newOrder(entry.order(), key);
+            OrderResponse orderResponse = OrderResponse.from(order);
+            byte[] response = serializeResponse(orderResponse);
+            IdempotencyKeyEntity idempotencyKey = new IdempotencyKeyEntity(
+                    key, order.getId(), requestHash, response);
+
+            orders.add(order);
+            views.add(new OrderView(order, serializeItems(orderResponse)));
+            outboxEvents.add(orderCreatedOutboxEvent(order));
+            idempotencyKeys.add(idempotencyKey);
+            existing.put(key, idempotencyKey);
+            results.add(ItemResult.created(key, new RawJson(response)));
         }
 
-        meterRegistry.counter("orders_created_total").increment();
-        log.info("Order created: id={}, status={}", order.getId(), order.getStatus());
-        return new CreateOrderResult(response, false);
-    }
+        if (!orders.isEmpty()) {
+            orderBatchRepository.insertOrders(orders);
+            orderBatchRepository.insertOrderViews(views);
+            orderBatchRepository.insertOutboxEvents(outboxEvents);
+            orderBatchRepository.insertIdempotencyKeys(idempotencyKeys);
+            meterRegistry.counter("orders_created_total").increment(orders.size());
+        }
 
-    @Transactional(readOnly = true)
-    public OrderResponse getOrder(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
-        return OrderResponse.from(order);
+        log.info("Order batch processed: size={}, created={}", entries.size(), orders.size());
+        return new CreateOrderBatchResponse(results);
     }
 
     @Transactional
     public void updateOrderStatus(UUID orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
-        OrderStatus oldStatus = order.getStatus();
-        if (!order.updateStatus(newStatus)) {
-            log.warn("Order {} ignoring invalid transition: {} -> {}", orderId, oldStatus, newStatus);
+        if (!transition(orderId, newStatus)) {
+            log.warn("Order {} ignoring invalid transition to {}", orderId, newStatus);
             return;
         }
-        orderRepository.save(order);
-        log.info("Order {} status changed: {} -> {}", orderId, oldStatus, newStatus);
+        log.info("Order {} status changed to {}", orderId, newStatus);
     }
 
     @Transactional
     public void confirmOrder(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
-        if (!order.updateStatus(OrderStatus.CONFIRMED)) {
-            log.warn("Order {} cannot be confirmed from status {}", orderId, order.getStatus());
+        if (!transition(orderId, OrderStatus.CONFIRMED)) {
+            log.warn("Order {} cannot be confirmed from its current status", orderId);
             return;
         }
-        orderRepository.save(order);
 
         OrderConfirmedEvent event = new OrderConfirmedEvent(orderId);
         EventEnvelope<OrderConfirmedEvent> envelope = EventEnvelope.wrap(
@@ -151,13 +212,23 @@ public class OrderService {
 
     @Transactional
     public void cancelOrder(UUID orderId, String reason, boolean releaseStock) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
-        if (!order.updateStatus(OrderStatus.CANCELLED)) {
-            log.warn("Order {} cannot be cancelled from status {}", orderId, order.getStatus());
+        cancel(orderId, OrderStatus.allowedPredecessors(OrderStatus.CANCELLED), reason, releaseStock);
+    }
+
+    /**
+     * Cancels an order whose payment was refunded because its stock hold expired, even when it
+     * had been confirmed already. The expiry returned the stock, so none is released here.
+     */
+    @Transactional
+    public void cancelRefundedOrder(UUID orderId, String reason) {
+        cancel(orderId, REFUNDABLE, reason, false);
+    }
+
+    private void cancel(UUID orderId, Set<OrderStatus> from, String reason, boolean releaseStock) {
+        if (!transition(orderId, from, OrderStatus.CANCELLED)) {
+            log.warn("Order {} cannot be cancelled from its current status", orderId);
             return;
         }
-        orderRepository.save(order);
 
         OrderCancelledEvent cancelledEvent = new OrderCancelledEvent(orderId, reason);
         EventEnvelope<OrderCancelledEvent> envelope = EventEnvelope.wrap(
@@ -165,7 +236,7 @@ public class OrderService {
         saveOutboxEvent("Order", orderId, EventTypes.ORDER_CANCELLED, envelope);
 
         if (releaseStock) {
-            List<OrderLineItem> lineItems = order.getItems().stream()
+            List<OrderLineItem> lineItems = orderItemRepository.findByOrderId(orderId).stream()
                     .map(item -> new OrderLineItem(item.getProductId(), item.getQuantity(), item.getUnitPrice()))
                     .toList();
             StockReleaseRequestedEvent releaseEvent = new StockReleaseRequestedEvent(orderId, lineItems);
@@ -178,10 +249,77 @@ public class OrderService {
         log.info("Order {} cancelled: {}", orderId, reason);
     }
 
+    /**
+     * Applies a status transition with a single conditional UPDATE; the state machine check
+     * is the WHERE clause, so no read of the aggregate is needed. Only when nothing was updated
+     * do we look up whether the order exists at all. A successful transition is mirrored to
+     * the read model in the same transaction.
+     */
+    private boolean transition(UUID orderId, OrderStatus target) {
+        return transition(orderId, OrderStatus.allowedPredecessors(target), target);
+    }
+
+    private boolean transition(UUID orderId, Set<OrderStatus> from, OrderStatus target) {
+        Instant now = Instant.now();
+        int updated = orderRepository.transitionStatus(orderId, from, target, now);
+        if (updated == 0) {
+            if (!orderRepository.existsById(orderId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+            }
+            return false;
+        }
+        orderViewRepository.updateStatus(orderId, target, now);
+        eventPublisher.publishEvent(new OrderStatusChanged(orderId, target));
+        return true;
+    }
+
+    private Order newOrder(CreateOrderRequest request, String idempotencyKey) {
+        BigDecimal totalAmount = request.items().stream()
+                .map(item -> item.unitPrice().multiply(BigDecimal.valueOf(item.quantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Order order = new Order(request.customerId(), totalAmount, request.currency(), idempotencyKey);
+        request.items().forEach(item ->
+                order.addItem(item.productId(), item.quantity(), item.unitPrice()));
+        return order;
+    }
+
+    private OutboxEvent orderCreatedOutboxEvent(Order order) {
+        List<OrderLineItem> lineItems = order.getItems().stream()
+                .map(item -> new OrderLineItem(item.getProductId(), item.getQuantity(), item.getUnitPrice()))
+                .toList();
+
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                order.getId(), order.getCustomerId(), lineItems, order.getTotalAmount(), order.getCurrency());
+        EventEnvelope<OrderCreatedEvent> envelope = EventEnvelope.wrap(
+                EventTypes.ORDER_CREATED, event, order.getId());
+        return toOutboxEvent("Order", order.getId(), EventTypes.ORDER_CREATED, envelope);
+    }
+
+    private byte[] serializeResponse(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize response for idempotency cache", e);
+        }
+    }
+
+    private String serializeItems(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response.items());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize order items for read model", e);
+        }
+    }
+
     private void saveOutboxEvent(String aggregateType, UUID aggregateId, String eventType, Object envelope) {
+        outboxRepository.save(toOutboxEvent(aggregateType, aggregateId, eventType, envelope));
+    }
+
+    private OutboxEvent toOutboxEvent(String aggregateType, UUID aggregateId, String eventType, Object envelope) {
         try {
             String payload = EventObjectMapper.instance().writeValueAsString(envelope);
-            outboxRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, payload));
+            return new OutboxEvent(aggregateType, aggregateId, eventType, payload);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize event for outbox", e);
         }
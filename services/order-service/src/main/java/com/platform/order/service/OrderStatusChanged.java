@@ -0,0 +1,11 @@
+package com.platform.order.service;
+
+import com.platform.order.entity.OrderStatus;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that moved an order to a new status; listeners that
+ * must only see committed state should use {@code @TransactionalEventListener}.
+ */
+public record OrderStatusChanged(UUID orderId, OrderStatus status) {}
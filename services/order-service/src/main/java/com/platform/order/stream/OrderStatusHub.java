@@ -0,0 +1,186 @@
+package com.platform.order.stream;
+
+import com.platform.order.dto.OrderStatusEvent;
+import com.platform.order.entity.OrderStatus;
+import com.platform.order.service.OrderStatusChanged;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process registry of clients waiting for status changes of individual orders.
+ * Idle subscribers are parked async requests and hold no thread. Pushes are queued per
+ * subscriber and written by a virtual thread that drains that queue in order, so a slow client
+ * never stalls the Kafka listener that applied the change and still sees every status in the
+ * order it was published.
+ * The stream completes once the order reaches a terminal status or the timeout expires.
+ */
+@Component
+public class OrderStatusHub {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusHub.class);
+
+    private final ConcurrentMap<UUID, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final long timeoutMillis;
+
+    public OrderStatusHub(MeterRegistry meterRegistry,
+                          @Value("${orders.events.timeout:60s}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("order_status_subscribers", subscriberCount, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for {@code orderId}. The subscriber is registered before the current
+     * status is read, so a change committed in between is pushed rather than lost.
+     */
+    public SseEmitter subscribe(UUID orderId, Supplier<OrderStatus> currentStatus) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(orderId, emitter);
+        register(subscription);
+        emitter.onCompletion(() -> unregister(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unregister(subscription));
+
+        try {
+            subscription.deliver(currentStatus.get());
+        } catch (RuntimeException e) {
+            unregister(subscription);
+            throw e;
+        }
+        return emitter;
+    }
+
+    public boolean hasSubscribers(UUID orderId) {
+        return subscriptions.containsKey(orderId);
+    }
+
+    public void publish(UUID orderId, OrderStatus status) {
+        Set<Subscription> subscribers = subscriptions.get(orderId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscription subscription : subscribers) {
+            subscription.enqueue(status, senders);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusChanged event) {
+        publish(event.orderId(), event.status());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscriptions.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter().complete()));
+        senders.close();
+    }
+
+    private void register(Subscription subscription) {
+        subscriptions.computeIfAbsent(subscription.orderId(), id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        subscriberCount.incrementAndGet();
+    }
+
+    private void unregister(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.orderId(), (id, subscribers) -> {
+            if (subscribers.remove(subscription)) {
+                subscriberCount.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static final class Subscription {
+
+        private final UUID orderId;
+        private final SseEmitter emitter;
+        // Not synchronized: senders are virtual threads and must not pin their carrier while writing.
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<OrderStatus> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private OrderStatus lastSent;
+
+        Subscription(UUID orderId, SseEmitter emitter) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+        }
+
+        UUID orderId() { return orderId; }
+        SseEmitter emitter() { return emitter; }
+
+        /**
+         * Queues {@code status} and starts a sender unless one is already draining the queue.
+         * At most one sender runs per subscription, so statuses go out in the order queued.
+         */
+        void enqueue(OrderStatus status, Executor senders) {
+            pending.add(status);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                OrderStatus status;
+                while ((status = pending.poll()) != null) {
+                    deliver(status);
+                }
+                draining.set(false);
+                // A status queued after the last poll but before the flag was cleared started no sender.
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * Sends {@code status} unless the client has already seen it or a later one: the same
+         * change can arrive both locally and through the order-events fan-out, and pushes may
+         * race with the initial read. Statuses are declared in saga order, so the ordinal
+         * tells which one is later.
+         */
+        void deliver(OrderStatus status) {
+            lock.lock();
+            try {
+                if (lastSent != null && (lastSent.isTerminal() || status.ordinal() <= lastSent.ordinal())) {
+                    return;
+                }
+                emitter.send(SseEmitter.event()
+                        .name("status")
+                        .id(status.name())
+                        .data(new OrderStatusEvent(orderId, status.name())));
+                lastSent = status;
+                if (status.isTerminal()) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping status subscriber for order {}: {}", orderId, e.getMessage());
+                emitter.completeWithError(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Keyset pagination for GET /api/orders. Each index matches one seek order, so a page is an
+-- index range scan however deep it is; the remaining columns are read from the heap, one
+-- fetch per returned row. Nothing else is included: updated_at changes on every status
+-- transition, and carrying it would make each transition rewrite both index entries.
+CREATE INDEX idx_orders_customer_created ON orders (customer_id, created_at, id);
+
+CREATE INDEX idx_orders_status_created ON orders (status, created_at, id);
+
+-- Items for a whole page are read with one order_id = ANY(...) lookup.
+CREATE INDEX idx_order_items_order_id_covering ON order_items (order_id)
+    INCLUDE (product_id, quantity, unit_price);
+
+DROP INDEX idx_order_items_order_id;
@@ -0,0 +1,39 @@
+-- Idempotency keys expire after a configurable TTL. The table is range-partitioned by day on
+-- created_at so expiry is a cheap DROP of whole partitions instead of a DELETE of hot rows.
+-- Partitions are named idempotency_keys_pYYYYMMDD (UTC) and maintained by the application.
+ALTER TABLE idempotency_keys RENAME TO idempotency_keys_legacy;
+
+CREATE TABLE idempotency_keys (
+    key           VARCHAR(64) NOT NULL,
+    order_id      UUID NOT NULL,
+    request_hash  VARCHAR(64) NOT NULL,
+    response_body JSONB NOT NULL,
+    created_at    TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (key, created_at)
+) PARTITION BY RANGE (created_at);
+
+DO $$
+DECLARE
+    d DATE;
+BEGIN
+    FOR d IN SELECT generate_series(
+            LEAST((SELECT min(created_at AT TIME ZONE 'UTC')::date FROM idempotency_keys_legacy),
+                  (now() AT TIME ZONE 'UTC')::date - 1),
+            (now() AT TIME ZONE 'UTC')::date + 2,
+            interval '1 day')::date
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF idempotency_keys FOR VALUES FROM (%L) TO (%L)',
+                'idempotency_keys_p' || to_char(d, 'YYYYMMDD'),
+                d || ' 00:00:00+00',
+                (d + 1) || ' 00:00:00+00');
+    END LOOP;
+END $$;
+
+INSERT INTO idempotency_keys (key, order_id, request_hash, response_body, created_at)
+SELECT key, order_id, request_hash, response_body, created_at FROM idempotency_keys_legacy;
+
+DROP TABLE idempotency_keys_legacy;
+
+-- A key may be reused once it has expired, so uniqueness on orders can no longer be global.
+-- Concurrent requests with the same key are serialized with an advisory lock instead.
+ALTER TABLE orders DROP CONSTRAINT orders_idempotency_key_key;
@@ -0,0 +1,16 @@
+-- The cached response is replayed byte-for-byte, so store the serialized JSON as-is instead of
+-- parsing it into JSONB on write and re-serializing it on read.
+-- Existing rows were written with epoch-second timestamps; convert them to the ISO-8601 form
+-- the HTTP API returns.
+CREATE FUNCTION pg_temp.epoch_to_iso(value JSONB) RETURNS JSONB AS $$
+    SELECT CASE WHEN jsonb_typeof(value) = 'number'
+        THEN to_jsonb(to_char(to_timestamp(value::text::numeric) AT TIME ZONE 'UTC',
+                              'YYYY-MM-DD"T"HH24:MI:SS.US"Z"'))
+        ELSE value END
+$$ LANGUAGE SQL IMMUTABLE;
+
+ALTER TABLE idempotency_keys ALTER COLUMN response_body TYPE BYTEA USING convert_to(
+    jsonb_set(jsonb_set(response_body,
+        '{createdAt}', pg_temp.epoch_to_iso(response_body -> 'createdAt')),
+        '{updatedAt}', pg_temp.epoch_to_iso(response_body -> 'updatedAt'))::text,
+    'UTF8');
@@ -0,0 +1,21 @@
+-- Denormalized read model for GET /api/orders/{id}: one row per order with its items inlined,
+-- kept current by OrderService in the same transaction as every write to orders.
+CREATE TABLE order_view (
+    id           UUID PRIMARY KEY,
+    customer_id  UUID NOT NULL,
+    status       VARCHAR(32) NOT NULL,
+    total_amount NUMERIC(12, 2) NOT NULL,
+    currency     VARCHAR(3) NOT NULL,
+    items        JSONB NOT NULL,
+    created_at   TIMESTAMPTZ NOT NULL,
+    updated_at   TIMESTAMPTZ NOT NULL,
+    version      BIGINT NOT NULL
+);
+
+INSERT INTO order_view (id, customer_id, status, total_amount, currency, items, created_at, updated_at, version)
+SELECT o.id, o.customer_id, o.status, o.total_amount, o.currency,
+       COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                        'productId', i.product_id, 'quantity', i.quantity, 'unitPrice', i.unit_price))
+                 FROM order_items i WHERE i.order_id = o.id), '[]'::jsonb),
+       o.created_at, o.updated_at, o.version
+FROM orders o;
@@ -0,0 +1,185 @@
+package com.platform.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.order.dto.CreateOrderRequest;
+import com.platform.order.dto.OrderItemRequest;
+import com.platform.order.dto.OrderResponse;
+import com.platform.order.outbox.OutboxEvent;
+import com.platform.order.outbox.OutboxRepository;
+import com.platform.order.service.OrderGroupCommitter;
+import com.platform.order.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/** Drives concurrent POST /api/orders through the group-commit write path. */
+@SpringBootTest(properties = {
+        "orders.group-commit.enabled=true",
+        // Long enough for the concurrent requests below to share batches.
+        "orders.group-commit.max-wait=200ms"
+})
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+class GroupCommitIntegrationTest {
+
+    private static final int DISTINCT_ORDERS = 20;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void shouldCommitConcurrentOrdersTogetherWithSingleOrderSemantics() throws Exception {
+        String sharedKey = "group-dup-" + UUID.randomUUID();
+        CreateOrderRequest shared = newRequest(new BigDecimal("19.99"));
+        CreateOrderRequest conflicting = newRequest(new BigDecimal("99.99"));
+        List<String> keys = new ArrayList<>();
+        List<CreateOrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < DISTINCT_ORDERS; i++) {
+            keys.add("group-" + UUID.randomUUID());
+            requests.add(newRequest(new BigDecimal("10.00")));
+        }
+        keys.add(sharedKey);
+        requests.add(shared);
+        keys.add(sharedKey);
+        requests.add(shared);
+
+        List<MockHttpServletResponse> responses = postConcurrently(keys, requests);
+
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < DISTINCT_ORDERS; i++) {
+            assertThat(responses.get(i).getStatus()).isEqualTo(201);
+            created.add(objectMapper.readValue(responses.get(i).getContentAsString(), OrderResponse.class).id());
+        }
+        MockHttpServletResponse firstDuplicate = responses.get(DISTINCT_ORDERS);
+        MockHttpServletResponse secondDuplicate = responses.get(DISTINCT_ORDERS + 1);
+        // Whichever of the two was committed first created the order; the other replays it.
+        assertThat(List.of(firstDuplicate.getStatus(), secondDuplicate.getStatus())).containsExactlyInAnyOrder(201, 200);
+        assertThat(firstDuplicate.getContentAsString()).isEqualTo(secondDuplicate.getContentAsString());
+
+        // Same key, different payload: rejected just like on the single-order path.
+        MockHttpServletResponse conflict = postConcurrently(List.of(sharedKey), List.of(conflicting)).get(0);
+        assertThat(conflict.getStatus()).isEqualTo(409);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM orders WHERE id = ANY(?)", Integer.class,
+                (Object) created.toArray(UUID[]::new))).isEqualTo(DISTINCT_ORDERS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM orders WHERE idempotency_key = ?", Integer.class, sharedKey)).isEqualTo(1);
+        List<OutboxEvent> outboxEvents = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+        assertThat(created).allMatch(orderId -> outboxEvents.stream().anyMatch(e ->
+                e.getEventType().equals("OrderCreated") && e.getAggregateId().equals(orderId)));
+
+        // Fewer commits than requests: callers really shared transactions.
+        long batches = meterRegistry.summary("orders_group_commit_batch_size").count();
+        assertThat(batches).isLessThan(DISTINCT_ORDERS + 2);
+    }
+
+    @Test
+    void shouldAnswer503WhenCallerOutwaitsTimeout() {
+        // A batch window far longer than the caller's timeout keeps the request queued.
+        OrderGroupCommitter slowCommitter = new OrderGroupCommitter(
+                orderService, meterRegistry, 128, Duration.ofSeconds(5), 16, Duration.ofMillis(200));
+        slowCommitter.start();
+        try {
+            assertThatThrownBy(() -> slowCommitter.createOrder(
+                    newRequest(new BigDecimal("10.00")), "group-timeout-" + UUID.randomUUID()))
+                    .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                            assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        } finally {
+            slowCommitter.stop();
+        }
+
+        // Stopped: new requests are refused instead of queued with nobody to take them.
+        assertThatThrownBy(() -> slowCommitter.createOrder(
+                newRequest(new BigDecimal("10.00")), "group-stopped-" + UUID.randomUUID()))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    private List<MockHttpServletResponse> postConcurrently(List<String> keys, List<CreateOrderRequest> requests)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(keys.size())) {
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                byte[] body = objectMapper.writeValueAsBytes(requests.get(i));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/orders")
+                                    .header("Idempotency-Key", key)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse();
+                }));
+            }
+            start.countDown();
+            List<MockHttpServletResponse> responses = new ArrayList<>();
+            for (Future<MockHttpServletResponse> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        }
+    }
+
+    private static CreateOrderRequest newRequest(BigDecimal unitPrice) {
+        return new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("11111111-1111-1111-1111-111111111111"), 1, unitPrice)),
+                "EUR");
+    }
+}
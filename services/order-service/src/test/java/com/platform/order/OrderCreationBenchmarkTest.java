@@ -0,0 +1,127 @@
+package com.platform.order;
+
+import com.platform.order.dto.CreateOrderRequest;
+import com.platform.order.dto.CreateOrderResult;
+import com.platform.order.dto.OrderItemRequest;
+import com.platform.order.service.OrderGroupCommitter;
+import com.platform.order.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares orders/sec and p99 latency of the per-request transaction path against the
+ * group-commit path at increasing concurrency. Opt-in because it takes a while:
+ *
+ * <pre>
+ * mvn test -pl services/order-service -am -Dtest=OrderCreationBenchmarkTest -Dbenchmark=true -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderCreationBenchmarkTest {
+
+    private static final int[] CONCURRENCY_LEVELS = {1, 8, 32, 128};
+    private static final int ORDERS_PER_LEVEL = 4_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void compareSingleTransactionAndGroupCommit() throws Exception {
+        OrderGroupCommitter groupCommitter = new OrderGroupCommitter(
+                orderService, meterRegistry, 128, Duration.ofMillis(2), 10_000, Duration.ofSeconds(10));
+        groupCommitter.start();
+        try {
+            // Warm up connection pool, JIT and partitions
+            run("warmup", 8, orderService::createOrder);
+
+            System.out.printf("%n%-14s %12s %14s %10s%n", "mode", "concurrency", "orders/sec", "p99 (ms)");
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                print(run("single-tx", concurrency, orderService::createOrder));
+                print(run("group-commit", concurrency, groupCommitter::createOrder));
+            }
+        } finally {
+            groupCommitter.stop();
+        }
+    }
+
+    private Result run(String mode, int concurrency,
+                       BiFunction<CreateOrderRequest, String, CreateOrderResult> createOrder) throws Exception {
+        long[] latencies = new long[ORDERS_PER_LEVEL];
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                int offset = worker;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < ORDERS_PER_LEVEL; i += concurrency) {
+                        long t0 = System.nanoTime();
+                        CreateOrderResult result = createOrder.apply(newRequest(), "bench-" + UUID.randomUUID());
+                        latencies[i] = System.nanoTime() - t0;
+                        assertThat(result.fromCache()).isFalse();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        double p99Ms = latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1_000_000.0;
+        double ordersPerSecond = ORDERS_PER_LEVEL / (elapsed / 1_000_000_000.0);
+        return new Result(mode, concurrency, ordersPerSecond, p99Ms);
+    }
+
+    private static CreateOrderRequest newRequest() {
+        return new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("11111111-1111-1111-1111-111111111111"), 1, new BigDecimal("29.99"))),
+                "EUR");
+    }
+
+    private static void print(Result result) {
+        System.out.printf("%-14s %12d %14.0f %10.2f%n",
+                result.mode(), result.concurrency(), result.ordersPerSecond(), result.p99Ms());
+    }
+
+    private record Result(String mode, int concurrency, double ordersPerSecond, double p99Ms) {}
+}
@@ -1,20 +1,25 @@
 package com.platform.order;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.order.dto.CreateOrderBatchRequest;
 import com.platform.order.dto.CreateOrderRequest;
 import com.platform.order.dto.OrderItemRequest;
 import com.platform.order.dto.OrderResponse;
+import com.platform.order.entity.OrderStatus;
 import com.platform.order.outbox.OutboxEvent;
 import com.platform.order.outbox.OutboxRepository;
+import com.platform.order.service.OrderService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.testcontainers.containers.KafkaContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -22,13 +27,16 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -54,6 +62,12 @@ class OrderServiceIntegrationTest {
     @Autowired
     private OutboxRepository outboxRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
     @Test
     void shouldCreateOrderAndWriteOutboxEvent() throws Exception {
         CreateOrderRequest request = new CreateOrderRequest(
@@ -126,6 +140,69 @@ class OrderServiceIntegrationTest {
                 .isEqualTo(second.getResponse().getContentAsString());
     }
 
+    @Test
+    void shouldReplayStoredResponseBytesVerbatim() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("22222222-2222-2222-2222-222222222222"),
+                        3,
+                        new BigDecimal("12.30")
+                )),
+                "EUR"
+        );
+        String idempotencyKey = "verbatim-" + UUID.randomUUID();
+
+        byte[] original = postOrder(idempotencyKey, request)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(storedResponse(idempotencyKey)).isEqualTo(original);
+        assertThat(postOrder(idempotencyKey, request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray()).isEqualTo(original);
+
+        // Turn the row into what V8 made of keys stored before it: epoch-second timestamps in
+        // JSONB, converted to ISO-8601 and stored as the bytes of the JSONB text.
+        jdbcTemplate.update("""
+                UPDATE idempotency_keys SET response_body = convert_to(jsonb_set(jsonb_set(legacy,
+                    '{createdAt}', to_jsonb(to_char(to_timestamp((legacy ->> 'createdAt')::numeric) AT TIME ZONE 'UTC',
+                                                    'YYYY-MM-DD"T"HH24:MI:SS.US"Z"'))),
+                    '{updatedAt}', to_jsonb(to_char(to_timestamp((legacy ->> 'updatedAt')::numeric) AT TIME ZONE 'UTC',
+                                                    'YYYY-MM-DD"T"HH24:MI:SS.US"Z"')))::text, 'UTF8')
+                FROM (
+                    SELECT jsonb_set(jsonb_set(body,
+                        '{createdAt}', to_jsonb(extract(epoch FROM (body ->> 'createdAt')::timestamptz))),
+                        '{updatedAt}', to_jsonb(extract(epoch FROM (body ->> 'updatedAt')::timestamptz))) AS legacy
+                    FROM (SELECT convert_from(response_body, 'UTF8')::jsonb AS body
+                          FROM idempotency_keys WHERE key = ?) stored
+                ) converted
+                WHERE key = ?
+                """, idempotencyKey, idempotencyKey);
+        byte[] converted = storedResponse(idempotencyKey);
+        assertThat(converted).isNotEqualTo(original);
+
+        byte[] replayed = postOrder(idempotencyKey, request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(replayed).isEqualTo(converted);
+        OrderResponse before = objectMapper.readValue(original, OrderResponse.class);
+        OrderResponse after = objectMapper.readValue(replayed, OrderResponse.class);
+        assertThat(after.id()).isEqualTo(before.id());
+        assertThat(after.createdAt()).isEqualTo(before.createdAt());
+        assertThat(after.updatedAt()).isEqualTo(before.updatedAt());
+
+        // The batch endpoint embeds the same bytes in its own document.
+        CreateOrderBatchRequest batch = new CreateOrderBatchRequest(List.of(
+                new CreateOrderBatchRequest.Entry(idempotencyKey, request)));
+        String batchResponse = mockMvc.perform(post("/api/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].outcome").value("REPLAYED"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(batchResponse).contains("\"order\":" + new String(converted, StandardCharsets.UTF_8) + ",");
+    }
+
     @Test
     void shouldReturn409ForSameKeyDifferentPayload() throws Exception {
         String idempotencyKey = "conflict-" + UUID.randomUUID();
@@ -164,4 +241,284 @@ class OrderServiceIntegrationTest {
                         .content(objectMapper.writeValueAsString(request2)))
                 .andExpect(status().isConflict());
     }
+
+    @Test
+    void shouldTreatExpiredIdempotencyKeyAsNewRequest() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("33333333-3333-3333-3333-333333333333"),
+                        1,
+                        new BigDecimal("15.00")
+                )),
+                "EUR"
+        );
+
+        String idempotencyKey = "expired-" + UUID.randomUUID();
+
+        MvcResult first = mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        // Age the key past the default 24h TTL. Midnight UTC yesterday is at least 24h ago and
+        // always has a partition (V7 creates yesterday's), whereas now() - 24h01s falls two
+        // days back, into no partition, just after midnight.
+        jdbcTemplate.update("UPDATE idempotency_keys "
+                + "SET created_at = (date_trunc('day', now() AT TIME ZONE 'UTC') - interval '1 day') AT TIME ZONE 'UTC' "
+                + "WHERE key = ?", idempotencyKey);
+
+        // Same key after expiry creates a new order (201) instead of replaying the old one
+        MvcResult second = mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        OrderResponse firstResponse = objectMapper.readValue(
+                first.getResponse().getContentAsString(), OrderResponse.class);
+        OrderResponse secondResponse = objectMapper.readValue(
+                second.getResponse().getContentAsString(), OrderResponse.class);
+        assertThat(secondResponse.id()).isNotEqualTo(firstResponse.id());
+    }
+
+    @Test
+    void shouldReportPerItemOutcomesForBatch() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        CreateOrderRequest mouse = new CreateOrderRequest(customerId,
+                List.of(new OrderItemRequest(UUID.fromString("11111111-1111-1111-1111-111111111111"),
+                        1, new BigDecimal("29.99"))), "EUR");
+        CreateOrderRequest keyboard = new CreateOrderRequest(customerId,
+                List.of(new OrderItemRequest(UUID.fromString("22222222-2222-2222-2222-222222222222"),
+                        2, new BigDecimal("89.99"))), "EUR");
+
+        String replayedKey = "batch-replayed-" + UUID.randomUUID();
+        String newKey = "batch-new-" + UUID.randomUUID();
+
+        // Pre-existing key from the single-order endpoint
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", replayedKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(mouse)))
+                .andExpect(status().isCreated());
+
+        CreateOrderBatchRequest batch = new CreateOrderBatchRequest(List.of(
+                new CreateOrderBatchRequest.Entry(replayedKey, mouse),
+                new CreateOrderBatchRequest.Entry(newKey, keyboard),
+                new CreateOrderBatchRequest.Entry(newKey, mouse)
+        ));
+
+        MvcResult result = mockMvc.perform(post("/api/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].outcome").value("REPLAYED"))
+                .andExpect(jsonPath("$.results[1].outcome").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].order.totalAmount").value(179.98))
+                .andExpect(jsonPath("$.results[2].outcome").value("CONFLICT"))
+                .andReturn();
+
+        String createdId = objectMapper.readTree(result.getResponse().getContentAsString())
+                .at("/results/1/order/id").asText();
+
+        mockMvc.perform(get("/api/orders/" + createdId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(2));
+
+        assertThat(outboxRepository.findByPublishedFalseOrderByCreatedAtAsc()).anyMatch(e ->
+                e.getEventType().equals("OrderCreated") && e.getAggregateId().toString().equals(createdId));
+    }
+
+    @Test
+    void shouldApplyOnlyAllowedStatusTransitions() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("55555555-5555-5555-5555-555555555555"),
+                        3,
+                        new BigDecimal("19.99")
+                )),
+                "EUR"
+        );
+
+        MvcResult result = mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "transition-" + UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        UUID orderId = objectMapper.readValue(
+                result.getResponse().getContentAsString(), OrderResponse.class).id();
+
+        // PENDING -> CONFIRMED is not allowed and must leave the order untouched
+        orderService.confirmOrder(orderId);
+        assertThat(currentStatus(orderId)).isEqualTo("PENDING");
+
+        orderService.updateOrderStatus(orderId, OrderStatus.STOCK_RESERVED);
+        orderService.cancelOrder(orderId, "Payment declined", true);
+        assertThat(currentStatus(orderId)).isEqualTo("CANCELLED");
+
+        // Terminal state: a late confirmation is ignored
+        orderService.confirmOrder(orderId);
+        assertThat(currentStatus(orderId)).isEqualTo("CANCELLED");
+
+        List<OutboxEvent> events = outboxRepository.findAll();
+        assertThat(events).anyMatch(e -> e.getEventType().equals("StockReleaseRequested")
+                && e.getAggregateId().equals(orderId)
+                && e.getPayload().contains("55555555-5555-5555-5555-555555555555"));
+        assertThat(events).noneMatch(e -> e.getEventType().equals("OrderConfirmed")
+                && e.getAggregateId().equals(orderId));
+    }
+
+    @Test
+    void shouldServeOrderFromReadModelWithEtag() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("66666666-6666-6666-6666-666666666666"),
+                        2,
+                        new BigDecimal("5.00")
+                )),
+                "EUR"
+        );
+
+        MvcResult created = mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "etag-" + UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        UUID orderId = objectMapper.readValue(
+                created.getResponse().getContentAsString(), OrderResponse.class).id();
+
+        mockMvc.perform(get("/api/orders/" + orderId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.items[0].productId").value("66666666-6666-6666-6666-666666666666"))
+                .andExpect(jsonPath("$.items[0].quantity").value(2));
+
+        mockMvc.perform(get("/api/orders/" + orderId).header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified());
+
+        // A status change bumps the version, evicts the cached response and invalidates the ETag
+        orderService.updateOrderStatus(orderId, OrderStatus.STOCK_RESERVED);
+
+        mockMvc.perform(get("/api/orders/" + orderId).header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.status").value("STOCK_RESERVED"));
+
+        Long orderVersion = jdbcTemplate.queryForObject(
+                "SELECT version FROM orders WHERE id = ?", Long.class, orderId);
+        assertThat(orderVersion).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldStreamStatusChangesUntilTerminal() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("77777777-7777-7777-7777-777777777777"),
+                        1,
+                        new BigDecimal("12.50")
+                )),
+                "EUR"
+        );
+
+        MvcResult created = mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "stream-" + UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        UUID orderId = objectMapper.readValue(
+                created.getResponse().getContentAsString(), OrderResponse.class).id();
+
+        MvcResult stream = mockMvc.perform(get("/api/orders/" + orderId + "/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        orderService.updateOrderStatus(orderId, OrderStatus.STOCK_RESERVED);
+        orderService.cancelOrder(orderId, "Payment declined", true);
+
+        // The stream completes by itself once the terminal status has been sent
+        stream.getAsyncResult(5_000);
+        String body = stream.getResponse().getContentAsString();
+        assertThat(body).containsSubsequence("\"PENDING\"", "\"STOCK_RESERVED\"", "\"CANCELLED\"");
+
+        // Subscribing to a finished order returns its final status and closes immediately
+        MvcResult finished = mockMvc.perform(get("/api/orders/" + orderId + "/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        finished.getAsyncResult(5_000);
+        assertThat(finished.getResponse().getContentAsString())
+                .contains("\"CANCELLED\"")
+                .doesNotContain("\"PENDING\"");
+    }
+
+    @Test
+    void shouldPageCustomerOrdersWithCursor() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        for (int i = 1; i <= 3; i++) {
+            CreateOrderRequest request = new CreateOrderRequest(
+                    customerId,
+                    List.of(new OrderItemRequest(
+                            UUID.fromString("88888888-8888-8888-8888-888888888888"),
+                            i,
+                            new BigDecimal("1.00")
+                    )),
+                    "EUR"
+            );
+            mockMvc.perform(post("/api/orders")
+                            .header("Idempotency-Key", "history-" + UUID.randomUUID())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult first = mockMvc.perform(get("/api/orders")
+                        .param("customerId", customerId.toString())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(2))
+                .andExpect(jsonPath("$.orders[0].items[0].quantity").value(3))
+                .andExpect(jsonPath("$.orders[1].items[0].quantity").value(2))
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andReturn();
+        String next = objectMapper.readTree(first.getResponse().getContentAsString()).get("next").asText();
+
+        mockMvc.perform(get("/api/orders")
+                        .param("customerId", customerId.toString())
+                        .param("limit", "2")
+                        .param("after", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(1))
+                .andExpect(jsonPath("$.orders[0].items[0].quantity").value(1))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String currentStatus(UUID orderId) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/orders/" + orderId))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), OrderResponse.class).status();
+    }
+
+    private ResultActions postOrder(String idempotencyKey, CreateOrderRequest request) throws Exception {
+        return mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private byte[] storedResponse(String idempotencyKey) {
+        return jdbcTemplate.queryForObject(
+                "SELECT response_body FROM idempotency_keys WHERE key = ?", byte[].class, idempotencyKey);
+    }
 }
@@ -0,0 +1,213 @@
+package com.platform.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.order.dto.CreateOrderRequest;
+import com.platform.order.dto.OrderItemRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures HTTP order creation (orders/sec, p99, peak platform and virtual threads, heap in
+ * use) at increasing concurrency. Run it once per threading model and compare the two tables:
+ *
+ * <pre>
+ * mvn test -pl services/order-service -am -Dtest=ThreadingModelBenchmarkTest -Dbenchmark=true -Dsurefire.failIfNoSpecifiedTests=false
+ * mvn test -pl services/order-service -am -Dtest=ThreadingModelBenchmarkTest -Dbenchmark=true -Dbenchmark.virtual-threads=true -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ *
+ * <p>The load generator runs in the service's JVM. Its virtual threads are named
+ * {@code bench-client-*} and left out of the virtual thread count, which JFR start and end
+ * events provide since {@link ThreadMXBean} sees platform threads only; the platform count
+ * includes the HTTP client's one selector thread. Heap in use does include the client's
+ * allocations, so compare it between runs rather than reading it as the service's footprint.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@ActiveProfiles(resolver = ThreadingModelBenchmarkTest.ProfileResolver.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadingModelBenchmarkTest {
+
+    private static final int[] CONCURRENCY_LEVELS = {50, 200, 800};
+    private static final int REQUESTS_PER_LEVEL = 8_000;
+    private static final String CLIENT_THREAD_PREFIX = "bench-client-";
+    // JFR hands events to the stream about once a second.
+    private static final long JFR_FLUSH_WAIT_MS = 2_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void measureOrderCreationOverHttp() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor())
+                .build();
+        try (VirtualThreadCounter virtualThreads = new VirtualThreadCounter()) {
+            run(client, 50, virtualThreads); // warm up
+
+            String model = Boolean.getBoolean("benchmark.virtual-threads") ? "virtual" : "platform";
+            System.out.printf("%n%-9s %12s %12s %10s %10s %10s %10s %10s%n",
+                    "threads", "concurrency", "orders/sec", "p99 (ms)", "rejected", "peak plat", "peak virt",
+                    "heap (MB)");
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                Result result = run(client, concurrency, virtualThreads);
+                System.out.printf("%-9s %12d %12.0f %10.2f %10d %10d %10d %10d%n",
+                        model, concurrency, result.ordersPerSecond(), result.p99Ms(), result.rejected(),
+                        result.peakPlatformThreads(), result.peakVirtualThreads(), result.heapUsedMb());
+            }
+        }
+    }
+
+    private Result run(HttpClient client, int concurrency, VirtualThreadCounter virtualThreads) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        Thread.sleep(JFR_FLUSH_WAIT_MS);
+        threads.resetPeakThreadCount();
+        virtualThreads.resetPeak();
+
+        long[] latencies = new long[REQUESTS_PER_LEVEL];
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = clientExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                int offset = worker;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < REQUESTS_PER_LEVEL; i += concurrency) {
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> response = client.send(newRequest(), HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = System.nanoTime() - t0;
+                        if (response.statusCode() == 503) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long heapUsedMb = memory.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+        int peakPlatformThreads = threads.getPeakThreadCount();
+        Thread.sleep(JFR_FLUSH_WAIT_MS);
+
+        Arrays.sort(latencies);
+        double p99Ms = latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1_000_000.0;
+        double ordersPerSecond = REQUESTS_PER_LEVEL / (elapsed / 1_000_000_000.0);
+        return new Result(ordersPerSecond, p99Ms, rejected.get(), peakPlatformThreads, virtualThreads.peak(),
+                heapUsedMb);
+    }
+
+    private static ExecutorService clientExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(CLIENT_THREAD_PREFIX, 0).factory());
+    }
+
+    private HttpRequest newRequest() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(
+                        UUID.fromString("11111111-1111-1111-1111-111111111111"), 1, new BigDecimal("29.99"))),
+                "EUR");
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", "bench-" + UUID.randomUUID())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                .build();
+    }
+
+    private record Result(double ordersPerSecond, double p99Ms, int rejected, int peakPlatformThreads,
+                          int peakVirtualThreads, long heapUsedMb) {}
+
+    /** Live and peak count of the service's virtual threads, from JFR's start and end events. */
+    private static final class VirtualThreadCounter implements AutoCloseable {
+
+        private final RecordingStream stream = new RecordingStream();
+        private final Set<Long> live = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        VirtualThreadCounter() {
+            stream.enable("jdk.VirtualThreadStart");
+            stream.enable("jdk.VirtualThreadEnd");
+            stream.onEvent("jdk.VirtualThreadStart", event -> {
+                if (!isClientThread(event)) {
+                    live.add(event.getLong("javaThreadId"));
+                    peak.accumulateAndGet(live.size(), Math::max);
+                }
+            });
+            stream.onEvent("jdk.VirtualThreadEnd", event -> live.remove(event.getLong("javaThreadId")));
+            stream.startAsync();
+        }
+
+        void resetPeak() {
+            peak.set(live.size());
+        }
+
+        int peak() {
+            return peak.get();
+        }
+
+        @Override
+        public void close() {
+            stream.close();
+        }
+
+        private static boolean isClientThread(RecordedEvent event) {
+            String name = event.getThread() != null ? event.getThread().getJavaName() : null;
+            return name != null && name.startsWith(CLIENT_THREAD_PREFIX);
+        }
+    }
+
+    static class ProfileResolver implements ActiveProfilesResolver {
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            return Boolean.getBoolean("benchmark.virtual-threads")
+                    ? new String[] {"test", "virtual-threads"}
+                    : new String[] {"test"};
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.platform.payment.config;
 
+import com.platform.payment.velocity.VelocitySync;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
@@ -25,4 +28,10 @@ public class KafkaConfig {
                 });
         return new DefaultErrorHandler(recoverer, new FixedBackOff(1000L, 3));
     }
+
+    /** Compacted, so it holds only the latest velocity totals per customer and instance. */
+    @Bean
+    public NewTopic velocityTopic() {
+        return TopicBuilder.name(VelocitySync.TOPIC).partitions(3).compact().build();
+    }
 }
@@ -6,6 +6,7 @@ import com.platform.events.serde.EventObjectMapper;
 import com.platform.payment.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
@@ -18,9 +19,12 @@ public class InventoryEventsConsumer {
     private static final Logger log = LoggerFactory.getLogger(InventoryEventsConsumer.class);
 
     private final PaymentService paymentService;
+    private final boolean speculativeAuthorization;
 
-    public InventoryEventsConsumer(PaymentService paymentService) {
+    public InventoryEventsConsumer(PaymentService paymentService,
+                                   @Value("${payment.saga.speculative-authorization:false}") boolean speculativeAuthorization) {
         this.paymentService = paymentService;
+        this.speculativeAuthorization = speculativeAuthorization;
     }
 
     @KafkaListener(topics = "inventory-events", groupId = "payment-service")
@@ -30,11 +34,23 @@ public class InventoryEventsConsumer {
             String eventType = root.get("eventType").asText();
             UUID eventId = UUID.fromString(root.get("eventId").asText());
 
+            JsonNode payload = root.get("payload");
             if (EventTypes.STOCK_RESERVED.equals(eventType)) {
-                JsonNode payload = root.get("payload");
                 UUID orderId = UUID.fromString(payload.get("orderId").asText());
+                // Absent in events from before inventory carried it over; such payments are not limited.
+                UUID customerId = payload.hasNonNull("customerId")
+                        ? UUID.fromString(payload.get("customerId").asText()) : null;
                 BigDecimal totalAmount = new BigDecimal(payload.get("totalAmount").asText());
-                paymentService.processPayment(eventId, orderId, totalAmount);
+                paymentService.processPayment(eventId, orderId, customerId, totalAmount);
+            } else if (speculativeAuthorization && EventTypes.STOCK_REJECTED.equals(eventType)) {
+                UUID orderId = UUID.fromString(payload.get("orderId").asText());
+                paymentService.voidPayment(eventId, orderId, payload.path("reason").asText(null));
+            } else if (EventTypes.STOCK_RELEASED.equals(eventType) && payload.hasNonNull("reason")) {
+                // Released by inventory itself, e.g. an expired hold, in every saga mode: the order is
+                // cancelled, so its payment must not be captured, or is refunded if it already was.
+                // A saga-requested release carries no reason and follows the payment.
+                UUID orderId = UUID.fromString(payload.get("orderId").asText());
+                paymentService.voidPayment(eventId, orderId, payload.get("reason").asText());
             } else {
                 log.debug("Ignoring event type: {}", eventType);
             }
@@ -0,0 +1,53 @@
+package com.platform.payment.consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.platform.events.EventTypes;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.payment.service.PaymentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Starts the provider authorization on {@code OrderCreated}, in parallel with the stock
+ * reservation. Only active with {@code payment.saga.speculative-authorization=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.saga.speculative-authorization", havingValue = "true")
+public class OrderEventsConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventsConsumer.class);
+
+    private final PaymentService paymentService;
+
+    public OrderEventsConsumer(PaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    @KafkaListener(topics = "order-events", groupId = "payment-service")
+    public void consume(String message) {
+        try {
+            JsonNode root = EventObjectMapper.instance().readTree(message);
+            String eventType = root.get("eventType").asText();
+            UUID eventId = UUID.fromString(root.get("eventId").asText());
+
+            if (EventTypes.ORDER_CREATED.equals(eventType)) {
+                JsonNode payload = root.get("payload");
+                UUID orderId = UUID.fromString(payload.get("orderId").asText());
+                UUID customerId = UUID.fromString(payload.get("customerId").asText());
+                BigDecimal totalAmount = new BigDecimal(payload.get("totalAmount").asText());
+                paymentService.authorizePayment(eventId, orderId, customerId, totalAmount);
+            } else {
+                log.debug("Ignoring event type: {}", eventType);
+            }
+        } catch (Exception e) {
+            log.error("Failed to process order event: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to process event", e);
+        }
+    }
+}
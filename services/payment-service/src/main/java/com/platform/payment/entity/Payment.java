@@ -9,6 +9,16 @@ import java.util.UUID;
 @Table(name = "payments")
 public class Payment {
 
+    public static final String PENDING = "PENDING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+    public static final String AUTHORIZED = "AUTHORIZED";
+    public static final String VOIDED = "VOIDED";
+    public static final String REFUNDED = "REFUNDED";
+
+    /** What a pending payment becomes once the provider approves it. */
+    public enum Intent { CAPTURE, AUTHORIZE, VOID }
+
     @Id
     private UUID id;
 
@@ -21,9 +31,19 @@ public class Payment {
     @Column(nullable = false)
     private String status;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Intent intent = Intent.CAPTURE;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
     protected Payment() {}
 
     public Payment(UUID orderId, BigDecimal amount, String status) {
@@ -34,9 +54,37 @@ public class Payment {
         this.createdAt = Instant.now();
     }
 
+    public Payment(UUID orderId, BigDecimal amount, Intent intent) {
+        this(orderId, amount, PENDING);
+        this.intent = intent;
+    }
+
+    /** Changes what happens on approval; only while the provider has not answered yet. */
+    public void changeIntent(Intent intent) {
+        this.intent = intent;
+    }
+
+    /** Makes the provider's answer void the payment, keeping {@code reason} for the event. */
+    public void requestVoid(String reason) {
+        this.intent = Intent.VOID;
+        this.failureReason = reason != null && reason.length() > 255 ? reason.substring(0, 255) : reason;
+    }
+
+    /** Moves to {@code status} and records the reason for a failure or void, if any. */
+    public void complete(String status, String reason) {
+        this.status = status;
+        this.failureReason = reason != null && reason.length() > 255 ? reason.substring(0, 255) : reason;
+        this.completedAt = Instant.now();
+    }
+
+    public boolean isPending() { return PENDING.equals(status); }
+
     public UUID getId() { return id; }
     public UUID getOrderId() { return orderId; }
     public BigDecimal getAmount() { return amount; }
     public String getStatus() { return status; }
+    public Intent getIntent() { return intent; }
     public Instant getCreatedAt() { return createdAt; }
+    public Instant getCompletedAt() { return completedAt; }
+    public String getFailureReason() { return failureReason; }
 }
@@ -0,0 +1,33 @@
+package com.platform.payment.ledger;
+
+import com.platform.payment.ledger.PaymentLedgerRepository.DailyBalance;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * {@code GET /actuator/ledgerbalances?from=2026-01-01&to=2026-01-31}: the ledger's daily
+ * balances per account, read from the running totals rather than the entries. Both dates are
+ * inclusive and default to today (UTC).
+ */
+@Component
+@Endpoint(id = "ledgerbalances")
+public class LedgerBalancesEndpoint {
+
+    private final PaymentLedgerRepository repository;
+
+    public LedgerBalancesEndpoint(PaymentLedgerRepository repository) {
+        this.repository = repository;
+    }
+
+    @ReadOperation
+    public List<DailyBalance> balances(@Nullable LocalDate from, @Nullable LocalDate to) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return repository.findBalances(from != null ? from : today, to != null ? to : today);
+    }
+}
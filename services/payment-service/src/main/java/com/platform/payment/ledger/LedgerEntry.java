@@ -0,0 +1,59 @@
+package com.platform.payment.ledger;
+
+import com.platform.payment.entity.Payment;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/** One row of {@code payment_ledger}: {@code amount} moves from {@code type.credit} to {@code type.debit}. */
+public record LedgerEntry(
+        UUID paymentId,
+        UUID orderId,
+        EntryType type,
+        BigDecimal amount,
+        Instant occurredAt
+) {
+
+    public enum Account { CUSTOMER, HELD, CAPTURED }
+
+    public enum EntryType {
+        AUTHORIZATION(Account.HELD, Account.CUSTOMER),
+        CAPTURE(Account.CAPTURED, Account.HELD),
+        VOID(Account.CUSTOMER, Account.HELD),
+        REFUND(Account.CUSTOMER, Account.CAPTURED);
+
+        final Account debit;
+        final Account credit;
+
+        EntryType(Account debit, Account credit) {
+            this.debit = debit;
+            this.credit = credit;
+        }
+    }
+
+    /**
+     * The entries a payment in {@code status} has in total. A captured or voided payment was
+     * authorized first, even when both happened at once, and a refunded one was captured too;
+     * entries the ledger already holds are skipped when appending.
+     */
+    static List<LedgerEntry> forStatus(UUID paymentId, UUID orderId, String status, BigDecimal amount,
+                                       Instant occurredAt) {
+        if (amount.signum() == 0) {
+            return List.of();
+        }
+        LedgerEntry authorization = new LedgerEntry(paymentId, orderId, EntryType.AUTHORIZATION, amount, occurredAt);
+        return switch (status) {
+            case Payment.AUTHORIZED -> List.of(authorization);
+            case Payment.SUCCEEDED -> List.of(authorization,
+                    new LedgerEntry(paymentId, orderId, EntryType.CAPTURE, amount, occurredAt));
+            case Payment.VOIDED -> List.of(authorization,
+                    new LedgerEntry(paymentId, orderId, EntryType.VOID, amount, occurredAt));
+            case Payment.REFUNDED -> List.of(authorization,
+                    new LedgerEntry(paymentId, orderId, EntryType.CAPTURE, amount, occurredAt),
+                    new LedgerEntry(paymentId, orderId, EntryType.REFUND, amount, occurredAt));
+            default -> List.of();
+        };
+    }
+}
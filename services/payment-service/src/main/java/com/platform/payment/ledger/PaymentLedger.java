@@ -0,0 +1,229 @@
+package com.platform.payment.ledger;
+
+import com.platform.payment.entity.Payment;
+import com.platform.payment.ledger.PaymentLedgerRepository.CompletedPayment;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the payment ledger with group commit. Entries of a payment transition are queued
+ * once its transaction commits, and a single writer appends them in batches: a batch is
+ * flushed when it reaches {@code payment.ledger.max-batch-size} or when its first entry has
+ * waited {@code max-wait}, in one statement that also updates the daily balances.
+ *
+ * <p>Entries still queued when the instance dies are not lost for good: on startup, entries
+ * are re-derived from the payments completed since shortly before the last flush, and the
+ * ones the ledger already holds are skipped. The same pass, a page of payments at a time,
+ * backfills the ledger on first start.
+ */
+@Component
+public class PaymentLedger implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentLedger.class);
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final PaymentLedgerRepository repository;
+    private final BlockingQueue<LedgerEntry> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Duration recoveryMargin;
+    private final DistributionSummary batchSizes;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean running = false;
+    private Thread writer;
+
+    public PaymentLedger(PaymentLedgerRepository repository,
+                         MeterRegistry meterRegistry,
+                         @Value("${payment.ledger.max-batch-size:256}") int maxBatchSize,
+                         @Value("${payment.ledger.max-wait:20ms}") Duration maxWait,
+                         @Value("${payment.ledger.queue-capacity:10000}") int queueCapacity,
+                         @Value("${payment.ledger.recovery-margin:1m}") Duration recoveryMargin) {
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.recoveryMargin = recoveryMargin;
+        this.meterRegistry = meterRegistry;
+        this.batchSizes = DistributionSummary.builder("payment_ledger_batch_size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("payment_ledger_queue_depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the entries the payment's new status adds to the ledger, once the current
+     * transaction commits. Blocks while {@code queue-capacity} entries are waiting.
+     */
+    public void record(Payment payment) {
+        List<LedgerEntry> entries = LedgerEntry.forStatus(payment.getId(), payment.getOrderId(),
+                payment.getStatus(), payment.getAmount(), payment.getCompletedAt());
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(entries);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(entries);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        recover();
+        running = true;
+        writer = new Thread(this::runWriter, "payment-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushRemaining();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the Kafka listeners, so their entries are still flushed.
+        return DEFAULT_PHASE - 2048;
+    }
+
+    private void enqueue(List<LedgerEntry> entries) {
+        if (!running) {
+            // Stopped already, e.g. provider calls completing during shutdown: nobody else will flush.
+            try {
+                flush(entries);
+            } catch (RuntimeException e) {
+                log.warn("Ledger flush after shutdown failed, entries are re-derived on restart: {}", e.getMessage());
+            }
+            return;
+        }
+        try {
+            for (LedgerEntry entry : entries) {
+                queue.put(entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while queueing ledger entries for payment {}; they are re-derived on restart",
+                    entries.get(0).paymentId());
+        }
+    }
+
+    private void recover() {
+        Instant lastRecordedAt = repository.findLastRecordedAt();
+        Instant since = lastRecordedAt != null ? lastRecordedAt.minus(recoveryMargin) : Instant.EPOCH;
+        long derived = 0;
+        CompletedPayment last = null;
+        List<CompletedPayment> page;
+        do {
+            page = repository.findCompletedSince(since, last, maxBatchSize);
+            List<LedgerEntry> entries = new ArrayList<>();
+            page.forEach(payment -> entries.addAll(payment.entries()));
+            for (int from = 0; from < entries.size(); from += maxBatchSize) {
+                repository.append(entries.subList(from, Math.min(from + maxBatchSize, entries.size())));
+            }
+            derived += entries.size();
+            last = page.isEmpty() ? last : page.get(page.size() - 1);
+        } while (page.size() == maxBatchSize);
+        if (derived > 0) {
+            log.info("Re-derived {} ledger entries for payments completed since {}", derived, since);
+        }
+    }
+
+    private void runWriter() {
+        List<LedgerEntry> batch = new ArrayList<>(maxBatchSize);
+        int consecutiveFailures = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    batch.add(queue.take());
+                    long deadline = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < maxBatchSize) {
+                        if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                            continue;
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        LedgerEntry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                flush(batch);
+                batch.clear();
+                consecutiveFailures = 0;
+            } catch (InterruptedException e) {
+                // Put back what was taken, for the final flush in stop().
+                batch.forEach(queue::offer);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Keep the batch and retry it; appending is idempotent.
+                consecutiveFailures++;
+                long backoffMs = Math.min(100L * (1L << Math.min(consecutiveFailures, 8)), MAX_BACKOFF_MS);
+                meterRegistry.counter("payment_ledger_flush_failures_total").increment();
+                log.warn("Ledger flush of {} entries failed, retrying in {}ms: {}", batch.size(), backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    batch.forEach(queue::offer);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void flushRemaining() {
+        List<LedgerEntry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        try {
+            for (int from = 0; from < remaining.size(); from += maxBatchSize) {
+                flush(remaining.subList(from, Math.min(from + maxBatchSize, remaining.size())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Final ledger flush failed, entries are re-derived on restart: {}", e.getMessage());
+        }
+    }
+
+    private void flush(List<LedgerEntry> batch) {
+        repository.append(batch);
+        batchSizes.record(batch.size());
+        meterRegistry.counter("payment_ledger_entries_total").increment(batch.size());
+    }
+}
@@ -0,0 +1,138 @@
+package com.platform.payment.ledger;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public class PaymentLedgerRepository {
+
+    // One statement per batch: entries already in the ledger are skipped, and only the ones
+    // actually appended are added to the daily balances, in (day, account) order so that
+    // concurrent writers lock balance rows in the same order.
+    private static final String APPEND_SQL = """
+            WITH appended AS (
+                INSERT INTO payment_ledger (payment_id, order_id, entry_type, debit_account, credit_account,
+                                            amount, occurred_at)
+                SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::varchar[], ?::varchar[], ?::varchar[],
+                                     ?::numeric[], ?::timestamptz[])
+                ON CONFLICT (payment_id, entry_type) DO NOTHING
+                RETURNING debit_account, credit_account, amount, (occurred_at AT TIME ZONE 'UTC')::date AS day
+            ), postings AS (
+                SELECT day, debit_account AS account, amount AS debit, 0 AS credit FROM appended
+                UNION ALL
+                SELECT day, credit_account, 0, amount FROM appended
+            )
+            INSERT INTO payment_ledger_balances (day, account, debits, credits, entries)
+            SELECT day, account, sum(debit), sum(credit), count(*)
+            FROM postings
+            GROUP BY day, account
+            ORDER BY day, account
+            ON CONFLICT (day, account) DO UPDATE SET
+                debits = payment_ledger_balances.debits + EXCLUDED.debits,
+                credits = payment_ledger_balances.credits + EXCLUDED.credits,
+                entries = payment_ledger_balances.entries + EXCLUDED.entries
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentLedgerRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Appends the entries the ledger does not hold yet and adds them to the daily balances. */
+    public void append(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        int size = entries.size();
+        UUID[] paymentIds = new UUID[size];
+        UUID[] orderIds = new UUID[size];
+        String[] types = new String[size];
+        String[] debits = new String[size];
+        String[] credits = new String[size];
+        String[] amounts = new String[size];
+        String[] occurredAt = new String[size];
+        for (int i = 0; i < size; i++) {
+            LedgerEntry entry = entries.get(i);
+            paymentIds[i] = entry.paymentId();
+            orderIds[i] = entry.orderId();
+            types[i] = entry.type().name();
+            debits[i] = entry.type().debit.name();
+            credits[i] = entry.type().credit.name();
+            amounts[i] = entry.amount().toPlainString();
+            occurredAt[i] = entry.occurredAt().toString();
+        }
+        jdbcTemplate.update(APPEND_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", paymentIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", orderIds));
+            ps.setArray(3, ps.getConnection().createArrayOf("varchar", types));
+            ps.setArray(4, ps.getConnection().createArrayOf("varchar", debits));
+            ps.setArray(5, ps.getConnection().createArrayOf("varchar", credits));
+            ps.setArray(6, ps.getConnection().createArrayOf("varchar", amounts));
+            ps.setArray(7, ps.getConnection().createArrayOf("varchar", occurredAt));
+        });
+    }
+
+    /** When the last batch was flushed, or null while the ledger is empty. */
+    public Instant findLastRecordedAt() {
+        Timestamp last = jdbcTemplate.queryForObject("SELECT max(recorded_at) FROM payment_ledger", Timestamp.class);
+        return last != null ? last.toInstant() : null;
+    }
+
+    /**
+     * Up to {@code limit} payments authorized, captured, voided or refunded at or after {@code since}, in
+     * {@code (completed_at, id)} order, starting after {@code after} (or from the first one when
+     * it is null).
+     */
+    public List<CompletedPayment> findCompletedSince(Instant since, CompletedPayment after, int limit) {
+        String sql = """
+                SELECT id, order_id, status, amount, completed_at FROM payments
+                WHERE completed_at >= ? AND status IN ('AUTHORIZED', 'SUCCEEDED', 'VOIDED', 'REFUNDED')
+                """
+                + (after != null ? "AND (completed_at, id) > (?, ?)\n" : "")
+                + "ORDER BY completed_at, id LIMIT ?";
+        Object[] args = after != null
+                ? new Object[] {Timestamp.from(since), Timestamp.from(after.completedAt()), after.id(), limit}
+                : new Object[] {Timestamp.from(since), limit};
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new CompletedPayment(rs.getObject("id", UUID.class),
+                        rs.getObject("order_id", UUID.class), rs.getString("status"),
+                        rs.getBigDecimal("amount"), rs.getTimestamp("completed_at").toInstant()),
+                args);
+    }
+
+    /** Daily balances from {@code from} to {@code to}, both inclusive. */
+    public List<DailyBalance> findBalances(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                        SELECT day, account, debits, credits, entries FROM payment_ledger_balances
+                        WHERE day BETWEEN ? AND ?
+                        ORDER BY day, account
+                        """,
+                (rs, rowNum) -> new DailyBalance(rs.getObject("day", LocalDate.class),
+                        LedgerEntry.Account.valueOf(rs.getString("account")), rs.getBigDecimal("debits"),
+                        rs.getBigDecimal("credits"), rs.getLong("entries")),
+                from, to);
+    }
+
+    /** A payment whose ledger entries are re-derived on startup. */
+    public record CompletedPayment(UUID id, UUID orderId, String status, BigDecimal amount, Instant completedAt) {
+        List<LedgerEntry> entries() {
+            return LedgerEntry.forStatus(id, orderId, status, amount, completedAt);
+        }
+    }
+
+    /** An account's movements on one UTC day; {@code debits - credits} is its net change. */
+    public record DailyBalance(LocalDate day, LedgerEntry.Account account, BigDecimal debits, BigDecimal credits,
+                               long entries) {
+        public BigDecimal net() {
+            return debits.subtract(credits);
+        }
+    }
+}
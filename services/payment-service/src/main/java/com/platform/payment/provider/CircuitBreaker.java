@@ -0,0 +1,125 @@
+package com.platform.payment.provider;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Count-based circuit breaker. While {@code CLOSED} it tracks the outcome of the last
+ * {@code windowSize} calls and opens once at least {@code minimumCalls} were recorded and
+ * {@code failureRateThreshold} percent of them failed. While {@code OPEN} every call is
+ * rejected; after {@code openNanos} it lets {@code halfOpenCalls} trial calls through, and
+ * closes if all of them succeed or opens again on the first failure.
+ *
+ * <p>Each admitted call gets the generation it was admitted in, and outcomes of calls from an
+ * earlier generation are ignored, so a slow call admitted before the circuit opened cannot
+ * close it again.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    static final long REJECTED = -1;
+
+    private final boolean[] failed;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final BiConsumer<State, State> onTransition;
+
+    private State state = State.CLOSED;
+    private long generation = 0;
+    private int next = 0;
+    private int recorded = 0;
+    private int failures = 0;
+    private long openedAt;
+    private int trialsAdmitted;
+    private int trialsSucceeded;
+
+    CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openNanos, int halfOpenCalls,
+                   BiConsumer<State, State> onTransition) {
+        this.failed = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.onTransition = onTransition;
+    }
+
+    /** Returns the generation to report the call's outcome with, or {@link #REJECTED}. */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return switch (state) {
+            case CLOSED -> generation;
+            case OPEN -> REJECTED;
+            case HALF_OPEN -> trialsAdmitted < halfOpenCalls ? admitTrial() : REJECTED;
+        };
+    }
+
+    synchronized void onSuccess(long admittedIn) {
+        if (admittedIn != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded == halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure(long admittedIn) {
+        if (admittedIn != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private long admitTrial() {
+        trialsAdmitted++;
+        return generation;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failed.length) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        state = target;
+        generation++;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        trialsAdmitted = 0;
+        trialsSucceeded = 0;
+        if (target == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+        onTransition.accept(previous, target);
+    }
+}
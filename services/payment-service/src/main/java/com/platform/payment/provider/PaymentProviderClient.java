@@ -0,0 +1,162 @@
+package com.platform.payment.provider;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calls the payment provider off the caller's thread, one virtual thread per call, so a slow
+ * provider ties up neither consumer threads nor database connections. Each call passes three
+ * guards, and a call stopped by any of them completes with {@link ProviderUnavailableException}:
+ * <ul>
+ *   <li>a bulkhead of {@code payment.provider.max-concurrency} calls; a caller waits up to
+ *       {@code bulkhead-max-wait} for a slot, which holds back the Kafka consumer without
+ *       queueing without bound</li>
+ *   <li>a {@code call-timeout}, after which the call is interrupted</li>
+ *   <li>a {@link CircuitBreaker} over errors and timeouts, which rejects calls without waiting
+ *       while the provider is failing (declines count as successful calls)</li>
+ * </ul>
+ *
+ * <p>The returned future is completed on a virtual thread of its own rather than on the JDK's
+ * single timeout thread, so whatever the caller chains onto it, database work included, never
+ * queues behind other calls' timeouts.
+ */
+@Component
+public class PaymentProviderClient {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentProviderClient.class);
+
+    private final SimulatedPaymentProvider provider;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService callbacks = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long bulkheadMaxWaitMs;
+    private final long callTimeoutMs;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Timer latency;
+
+    public PaymentProviderClient(SimulatedPaymentProvider provider,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payment.provider.max-concurrency:200}") int maxConcurrency,
+                                 @Value("${payment.provider.bulkhead-max-wait:500ms}") Duration bulkheadMaxWait,
+                                 @Value("${payment.provider.call-timeout:2s}") Duration callTimeout,
+                                 @Value("${payment.provider.circuit-breaker.sliding-window-size:20}") int windowSize,
+                                 @Value("${payment.provider.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                 @Value("${payment.provider.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                                 @Value("${payment.provider.circuit-breaker.open-duration:10s}") Duration openDuration,
+                                 @Value("${payment.provider.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        this.provider = provider;
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.bulkheadMaxWaitMs = bulkheadMaxWait.toMillis();
+        this.callTimeoutMs = callTimeout.toMillis();
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold,
+                openDuration.toNanos(), halfOpenCalls, this::onTransition);
+        this.latency = Timer.builder("payment_provider_latency_seconds")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("payment_provider_in_flight", this, client -> client.maxConcurrency - client.permits.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("payment_provider_circuit_state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the provider call and returns its decision. Blocks for up to
+     * {@code bulkhead-max-wait} while {@code max-concurrency} calls are running.
+     */
+    public CompletableFuture<Boolean> authorize(UUID orderId, BigDecimal amount) throws InterruptedException {
+        if (!permits.tryAcquire(bulkheadMaxWaitMs, TimeUnit.MILLISECONDS)) {
+            // Not the provider's fault, so this does not count against the circuit.
+            return rejected("bulkhead_full", "Payment provider is at its concurrency limit");
+        }
+        // Asked only once a slot is held, so that every half-open trial call really reaches the provider.
+        long generation = circuitBreaker.tryAcquire();
+        if (generation == CircuitBreaker.REJECTED) {
+            permits.release();
+            return rejected("circuit_open", "Payment provider circuit is open");
+        }
+
+        CompletableFuture<Boolean> decision = new CompletableFuture<>();
+        Future<?> call;
+        try {
+            call = executor.submit(() -> {
+                Timer.Sample sample = Timer.start();
+                try {
+                    decision.complete(provider.authorize(orderId, amount));
+                } catch (InterruptedException | RuntimeException e) {
+                    decision.completeExceptionally(e);
+                } finally {
+                    sample.stop(latency);
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        return decision.orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS).handleAsync((approved, error) -> {
+            if (error == null) {
+                circuitBreaker.onSuccess(generation);
+                count(approved ? "approved" : "declined");
+                return approved;
+            }
+            circuitBreaker.onFailure(generation);
+            if (error instanceof TimeoutException) {
+                call.cancel(true);
+                count("timeout");
+                throw new ProviderUnavailableException("Payment provider timed out after " + callTimeoutMs + "ms", error);
+            }
+            count("error");
+            throw new ProviderUnavailableException("Payment provider error: " + error.getMessage(), error);
+        }, callbacks);
+    }
+
+    /** Lets calls in flight finish, so that their payments are completed before shutdown. */
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+        // Only now: calls finishing above still hand their outcome to the callbacks.
+        callbacks.close();
+    }
+
+    private CompletableFuture<Boolean> rejected(String outcome, String reason) {
+        count(outcome);
+        return CompletableFuture.failedFuture(new ProviderUnavailableException(reason));
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("payment_provider_calls_total", "outcome", outcome).increment();
+    }
+
+    private void onTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        meterRegistry.counter("payment_provider_circuit_transitions_total",
+                "from", from.name().toLowerCase(), "to", to.name().toLowerCase()).increment();
+        if (to == CircuitBreaker.State.OPEN) {
+            log.warn("Payment provider circuit opened ({} -> {})", from, to);
+        } else {
+            log.info("Payment provider circuit {} -> {}", from, to);
+        }
+    }
+}
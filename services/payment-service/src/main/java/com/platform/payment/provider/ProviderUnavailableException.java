@@ -0,0 +1,16 @@
+package com.platform.payment.provider;
+
+/**
+ * The provider did not decide the payment: the call was rejected by the bulkhead or the open
+ * circuit, timed out, or failed. Unlike a decline, the same payment may succeed later.
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+
+    public ProviderUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
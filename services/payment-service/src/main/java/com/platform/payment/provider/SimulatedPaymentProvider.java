@@ -0,0 +1,95 @@
+package com.platform.payment.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stands in for the external payment provider. The decision is derived from the order id, so
+ * retries of the same payment get the same answer. Each call blocks for
+ * {@code payment.simulate.latency-ms} plus a jitter of {@code jitter-ms} drawn from
+ * {@code jitter-distribution}:
+ * <ul>
+ *   <li>{@code UNIFORM}: anywhere between 0 and {@code jitter-ms}</li>
+ *   <li>{@code NORMAL}: a standard deviation of {@code jitter-ms} around the base latency</li>
+ *   <li>{@code EXPONENTIAL}: a mean of {@code jitter-ms}, with a long tail capped at ten times that</li>
+ * </ul>
+ *
+ * <p>For exercising the resilience around the provider, {@code payment.simulate.fault.error-rate}
+ * of the calls fail with an exception and {@code fault.hang-rate} of them hang for
+ * {@code fault.hang-ms}; see the {@code provider-faults} profile.
+ */
+@Component
+public class SimulatedPaymentProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatedPaymentProvider.class);
+
+    private final double successRate;
+    private final String forceOutcome;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final JitterDistribution jitterDistribution;
+    private final double errorRate;
+    private final double hangRate;
+    private final long hangMs;
+
+    public SimulatedPaymentProvider(@Value("${payment.simulate.success-rate:0.8}") double successRate,
+                                    @Value("${payment.simulate.force-outcome:}") String forceOutcome,
+                                    @Value("${payment.simulate.latency-ms:0}") long latencyMs,
+                                    @Value("${payment.simulate.jitter-ms:0}") long jitterMs,
+                                    @Value("${payment.simulate.jitter-distribution:UNIFORM}") JitterDistribution jitterDistribution,
+                                    @Value("${payment.simulate.fault.error-rate:0}") double errorRate,
+                                    @Value("${payment.simulate.fault.hang-rate:0}") double hangRate,
+                                    @Value("${payment.simulate.fault.hang-ms:30000}") long hangMs) {
+        this.successRate = successRate;
+        this.forceOutcome = forceOutcome;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.jitterDistribution = jitterDistribution;
+        this.errorRate = errorRate;
+        this.hangRate = hangRate;
+        this.hangMs = hangMs;
+    }
+
+    /** Returns whether the provider approved the payment. */
+    public boolean authorize(UUID orderId, BigDecimal amount) throws InterruptedException {
+        double fault = ThreadLocalRandom.current().nextDouble();
+        long delayMs = fault < hangRate ? hangMs : sampleLatencyMs();
+        if (delayMs > 0) {
+            Thread.sleep(delayMs);
+        }
+        if (fault >= hangRate && fault < hangRate + errorRate) {
+            throw new IllegalStateException("Simulated provider error (fault.error-rate=" + errorRate + ")");
+        }
+        if ("success".equalsIgnoreCase(forceOutcome)) {
+            log.info("Payment forced to SUCCESS for order {} (force-outcome=success)", orderId);
+            return true;
+        }
+        if ("failure".equalsIgnoreCase(forceOutcome)) {
+            log.info("Payment forced to FAILURE for order {} (force-outcome=failure)", orderId);
+            return false;
+        }
+        int hash = (orderId.hashCode() & 0x7FFFFFFF) % 100;
+        return hash < (successRate * 100);
+    }
+
+    private long sampleLatencyMs() {
+        if (jitterMs <= 0) {
+            return latencyMs;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double jitter = switch (jitterDistribution) {
+            case UNIFORM -> random.nextDouble() * jitterMs;
+            case NORMAL -> random.nextGaussian() * jitterMs;
+            case EXPONENTIAL -> Math.min(-Math.log(1 - random.nextDouble()) * jitterMs, 10.0 * jitterMs);
+        };
+        return Math.max(0, Math.round(latencyMs + jitter));
+    }
+
+    public enum JitterDistribution { UNIFORM, NORMAL, EXPONENTIAL }
+}
@@ -3,25 +3,64 @@ package com.platform.payment.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.platform.events.EventEnvelope;
 import com.platform.events.EventTypes;
+import com.platform.events.payment.PaymentAuthorizedEvent;
 import com.platform.events.payment.PaymentFailedEvent;
+import com.platform.events.payment.PaymentRefundedEvent;
 import com.platform.events.payment.PaymentSucceededEvent;
+import com.platform.events.payment.PaymentVoidedEvent;
 import com.platform.events.serde.EventObjectMapper;
 import com.platform.payment.entity.Payment;
+import com.platform.payment.entity.Payment.Intent;
 import com.platform.payment.entity.ProcessedEvent;
+import com.platform.payment.ledger.PaymentLedger;
 import com.platform.payment.outbox.OutboxEvent;
 import com.platform.payment.outbox.OutboxRepository;
+import com.platform.payment.provider.PaymentProviderClient;
 import com.platform.payment.repository.PaymentRepository;
 import com.platform.payment.repository.ProcessedEventRepository;
+import com.platform.payment.velocity.VelocityLimiter;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Processes a payment in two short transactions with the provider call in between, so no
+ * database connection is held while the provider decides. The first records a
+ * {@code PENDING} payment and the triggering event as processed. The second completes the
+ * payment and writes its outbox event. A payment left pending, e.g. because the service
+ * stopped mid-call, is picked up again by {@link PendingPaymentRecovery}.
+ *
+ * <p>When the provider is unavailable (bulkhead full, circuit open, timeout or error), the
+ * payment either fails right away ({@code payment.provider.on-unavailable=FAIL}) or stays
+ * pending and is retried by the recovery job ({@code DEFER}) until it has been pending for
+ * {@code payment.provider.give-up-after}, after which it fails.
+ *
+ * <p>With speculative authorization the provider call starts on {@code OrderCreated}, in
+ * parallel with the stock reservation, and an approved payment is only held
+ * ({@code AUTHORIZED}). {@code StockReserved} captures it without another provider call, and
+ * {@code StockRejected} voids it. Either may arrive while the provider is still deciding;
+ * it then changes the payment's {@link Intent}, which the completion applies.
+ *
+ * <p>Before a new payment reaches the provider, the {@link VelocityLimiter} checks the
+ * customer's recent payments in memory; a payment over the limits fails with the reason.
+ *
+ * <p>Every authorization, capture and void is also recorded in the {@link PaymentLedger}.
+ */
 @Service
 public class PaymentService {
 
@@ -30,71 +69,291 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final ProcessedEventRepository processedEventRepository;
     private final OutboxRepository outboxRepository;
+    private final PaymentProviderClient providerClient;
+    private final VelocityLimiter velocityLimiter;
+    private final PaymentLedger paymentLedger;
+    private final TransactionTemplate transactionTemplate;
     private final MeterRegistry meterRegistry;
-    private final double successRate;
-    private final String forceOutcome;
+    private final UnavailablePolicy onUnavailable;
+    private final Duration giveUpAfter;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
 
     public PaymentService(PaymentRepository paymentRepository,
                           ProcessedEventRepository processedEventRepository,
                           OutboxRepository outboxRepository,
+                          PaymentProviderClient providerClient,
+                          VelocityLimiter velocityLimiter,
+                          PaymentLedger paymentLedger,
+                          PlatformTransactionManager transactionManager,
                           MeterRegistry meterRegistry,
-                          @Value("${payment.simulate.success-rate:0.8}") double successRate,
-                          @Value("${payment.simulate.force-outcome:}") String forceOutcome) {
+                          @Value("${payment.provider.on-unavailable:DEFER}") UnavailablePolicy onUnavailable,
+                          @Value("${payment.provider.give-up-after:5m}") Duration giveUpAfter) {
         this.paymentRepository = paymentRepository;
         this.processedEventRepository = processedEventRepository;
         this.outboxRepository = outboxRepository;
+        this.providerClient = providerClient;
+        this.velocityLimiter = velocityLimiter;
+        this.paymentLedger = paymentLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.meterRegistry = meterRegistry;
-        this.successRate = successRate;
-        this.forceOutcome = forceOutcome;
+        this.onUnavailable = onUnavailable;
+        this.giveUpAfter = giveUpAfter;
     }
 
-    @Transactional
-    public void processPayment(UUID eventId, UUID orderId, BigDecimal amount) {
-        if (processedEventRepository.existsById(eventId)) {
-            log.info("Event {} already processed, skipping", eventId);
-            return;
+    /**
+     * Handles {@code StockReserved}. If the order has no payment yet, records the payment
+     * intent and hands it to the provider; returns once the intent is committed and the call
+     * has started, and blocks while the provider is at its concurrency limit. An authorized
+     * payment is captured right away, and a pending one as soon as the provider approves it.
+     */
+    public void processPayment(UUID eventId, UUID orderId, UUID customerId, BigDecimal amount)
+            throws InterruptedException {
+        Payment payment = transactionTemplate.execute(status -> {
+            if (processedEventRepository.existsById(eventId)) {
+                log.info("Event {} already processed, skipping", eventId);
+                return null;
+            }
+            processedEventRepository.save(new ProcessedEvent(eventId));
+            Optional<Payment> authorization = paymentRepository.findByOrderIdForUpdate(orderId);
+            if (authorization.isEmpty()) {
+                Payment created = new Payment(orderId, amount, Intent.CAPTURE);
+                Optional<String> declined = velocityLimiter.tryRecord(customerId, amount);
+                if (declined.isPresent()) {
+                    created.complete(Payment.FAILED, declined.get());
+                    paymentRepository.save(created);
+                    publishFailed(created);
+                    return null;
+                }
+                return paymentRepository.save(created);
+            }
+            capture(authorization.get());
+            return null;
+        });
+        if (payment != null) {
+            submit(payment);
         }
+    }
 
-        boolean success = simulatePayment(orderId);
+    /**
+     * Handles {@code OrderCreated} with speculative authorization: asks the provider to hold
+     * the amount while inventory reserves the stock. Skipped if the order already has a
+     * payment, because its {@code StockReserved} or {@code StockRejected} came first, or if the
+     * customer is over the velocity limits, in which case {@code StockReserved} declines it.
+     */
+    public void authorizePayment(UUID eventId, UUID orderId, UUID customerId, BigDecimal amount)
+            throws InterruptedException {
+        Payment payment = transactionTemplate.execute(status -> {
+            if (processedEventRepository.existsById(eventId)) {
+                log.info("Event {} already processed, skipping", eventId);
+                return null;
+            }
+            processedEventRepository.save(new ProcessedEvent(eventId));
+            if (paymentRepository.existsByOrderId(orderId)) {
+                log.info("Order {} already has a payment, not authorizing again", orderId);
+                return null;
+            }
+            if (velocityLimiter.tryRecord(customerId, amount).isPresent()) {
+                log.info("Customer {} is over the velocity limits, not authorizing order {}", customerId, orderId);
+                return null;
+            }
+            return paymentRepository.save(new Payment(orderId, amount, Intent.AUTHORIZE));
+        });
+        if (payment != null) {
+            submit(payment);
+        }
+    }
 
-        if (success) {
-            Payment payment = new Payment(orderId, amount, "SUCCEEDED");
-            paymentRepository.save(payment);
+    /**
+     * Handles {@code StockRejected} with speculative authorization, and a hold that inventory
+     * released on its own in any mode: voids the order's authorization, makes sure a pending or
+     * later one is never captured, and refunds a payment that was captured already.
+     */
+    public void voidPayment(UUID eventId, UUID orderId, String reason) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (processedEventRepository.existsById(eventId)) {
+                log.info("Event {} already processed, skipping", eventId);
+                return;
+            }
+            processedEventRepository.save(new ProcessedEvent(eventId));
+            Optional<Payment> authorization = paymentRepository.findByOrderIdForUpdate(orderId);
+            if (authorization.isEmpty()) {
+                // OrderCreated has not reached us yet; this voided placeholder stops it from authorizing.
+                Payment voided = new Payment(orderId, BigDecimal.ZERO, Intent.VOID);
+                voided.complete(Payment.VOIDED, reason);
+                paymentRepository.save(voided);
+                return;
+            }
+            Payment payment = authorization.get();
+            if (payment.isPending()) {
+                payment.requestVoid(reason);
+            } else if (Payment.AUTHORIZED.equals(payment.getStatus())) {
+                payment.complete(Payment.VOIDED, reason);
+                publishVoided(payment);
+            } else if (Payment.SUCCEEDED.equals(payment.getStatus())) {
+                payment.complete(Payment.REFUNDED, reason);
+                publishRefunded(payment);
+            } else {
+                log.info("Payment for order {} is {}, nothing to void", orderId, payment.getStatus());
+            }
+        });
+    }
 
-            PaymentSucceededEvent event = new PaymentSucceededEvent(orderId, payment.getId(), amount);
-            EventEnvelope<PaymentSucceededEvent> envelope = EventEnvelope.wrap(
-                    EventTypes.PAYMENT_SUCCEEDED, event, orderId);
-            saveOutboxEvent("Payment", orderId, EventTypes.PAYMENT_SUCCEEDED, envelope);
+    /** Calls the provider again for payments pending since before {@code cutoff}; returns how many. */
+    public int retryPendingPayments(Instant cutoff) throws InterruptedException {
+        List<Payment> stalled = paymentRepository.findTop100ByStatusAndCreatedAtBeforeOrderByCreatedAtAsc(
+                Payment.PENDING, cutoff);
+        int retried = 0;
+        for (Payment payment : stalled) {
+            if (submit(payment)) {
+                retried++;
+            }
+        }
+        if (retried > 0) {
+            meterRegistry.counter("payments_retried_total").increment(retried);
+            log.warn("Retrying {} payments pending since before {}", retried, cutoff);
+        }
+        return retried;
+    }
 
-            meterRegistry.counter("payments_processed_total", "outcome", "success").increment();
-            log.info("Payment succeeded for order {}: paymentId={}", orderId, payment.getId());
+    private boolean submit(Payment payment) throws InterruptedException {
+        if (!inFlight.add(payment.getId())) {
+            return false;
+        }
+        try {
+            providerClient.authorize(payment.getOrderId(), payment.getAmount())
+                    .whenComplete((approved, error) -> {
+                        try {
+                            if (error == null) {
+                                complete(payment.getId(), approved, approved ? null : "Payment declined by provider");
+                            } else {
+                                providerUnavailable(payment,
+                                        error instanceof CompletionException ? error.getCause() : error);
+                            }
+                        } catch (RuntimeException e) {
+                            log.error("Failed to complete payment {}, it stays pending: {}",
+                                    payment.getId(), e.getMessage(), e);
+                        } finally {
+                            inFlight.remove(payment.getId());
+                        }
+                    });
+            return true;
+        } catch (InterruptedException | RuntimeException e) {
+            inFlight.remove(payment.getId());
+            throw e;
+        }
+    }
+
+    private void providerUnavailable(Payment payment, Throwable error) {
+        boolean expired = payment.getCreatedAt().isBefore(Instant.now().minus(giveUpAfter));
+        if (onUnavailable == UnavailablePolicy.FAIL || expired) {
+            complete(payment.getId(), false, "Payment provider unavailable: " + error.getMessage());
         } else {
-            Payment payment = new Payment(orderId, amount, "FAILED");
-            paymentRepository.save(payment);
+            meterRegistry.counter("payments_deferred_total").increment();
+            log.warn("Payment for order {} deferred, it stays pending: {}", payment.getOrderId(), error.getMessage());
+        }
+    }
 
-            PaymentFailedEvent event = new PaymentFailedEvent(orderId, amount, "Payment declined by provider");
-            EventEnvelope<PaymentFailedEvent> envelope = EventEnvelope.wrap(
-                    EventTypes.PAYMENT_FAILED, event, orderId);
-            saveOutboxEvent("Payment", orderId, EventTypes.PAYMENT_FAILED, envelope);
+    /** Applies the provider's answer to the payment's current intent, which may have changed meanwhile. */
+    private void complete(UUID paymentId, boolean approved, String reason) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Payment payment = paymentRepository.findByIdForUpdate(paymentId).orElseThrow();
+            if (!payment.isPending()) {
+                log.info("Payment {} already completed, skipping", paymentId);
+                return;
+            }
+            if (payment.getIntent() == Intent.VOID) {
+                // The order is already cancelled, so a declined payment needs no event.
+                if (approved) {
+                    payment.complete(Payment.VOIDED, payment.getFailureReason());
+                    publishVoided(payment);
+                } else {
+                    payment.complete(Payment.FAILED, reason);
+                }
+            } else if (!approved) {
+                payment.complete(Payment.FAILED, reason);
+                publishFailed(payment);
+            } else if (payment.getIntent() == Intent.AUTHORIZE) {
+                payment.complete(Payment.AUTHORIZED, null);
+                publishAuthorized(payment);
+            } else {
+                payment.complete(Payment.SUCCEEDED, null);
+                publishSucceeded(payment);
+            }
+        });
+    }
 
-            meterRegistry.counter("payments_processed_total", "outcome", "failure").increment();
-            log.warn("Payment failed for order {}", orderId);
+    private void capture(Payment payment) {
+        if (payment.isPending()) {
+            payment.changeIntent(Intent.CAPTURE);
+        } else if (Payment.AUTHORIZED.equals(payment.getStatus())) {
+            payment.complete(Payment.SUCCEEDED, null);
+            publishSucceeded(payment);
+        } else {
+            log.info("Payment for order {} is {}, nothing to capture", payment.getOrderId(), payment.getStatus());
         }
+    }
 
-        processedEventRepository.save(new ProcessedEvent(eventId));
+    private void publishSucceeded(Payment payment) {
+        UUID orderId = payment.getOrderId();
+        PaymentSucceededEvent event = new PaymentSucceededEvent(orderId, payment.getId(), payment.getAmount());
+        EventEnvelope<PaymentSucceededEvent> envelope = EventEnvelope.wrap(
+                EventTypes.PAYMENT_SUCCEEDED, event, orderId);
+        saveOutboxEvent("Payment", orderId, EventTypes.PAYMENT_SUCCEEDED, envelope);
+        paymentLedger.record(payment);
+        meterRegistry.counter("payments_processed_total", "outcome", "success").increment();
+        log.info("Payment succeeded for order {}: paymentId={}", orderId, payment.getId());
     }
 
-    private boolean simulatePayment(UUID orderId) {
-        if ("success".equalsIgnoreCase(forceOutcome)) {
-            log.info("Payment forced to SUCCESS for order {} (force-outcome=success)", orderId);
-            return true;
-        }
-        if ("failure".equalsIgnoreCase(forceOutcome)) {
-            log.info("Payment forced to FAILURE for order {} (force-outcome=failure)", orderId);
-            return false;
-        }
-        int hash = (orderId.hashCode() & 0x7FFFFFFF) % 100;
-        return hash < (successRate * 100);
+    private void publishFailed(Payment payment) {
+        UUID orderId = payment.getOrderId();
+        PaymentFailedEvent event = new PaymentFailedEvent(orderId, payment.getAmount(), payment.getFailureReason());
+        EventEnvelope<PaymentFailedEvent> envelope = EventEnvelope.wrap(
+                EventTypes.PAYMENT_FAILED, event, orderId);
+        saveOutboxEvent("Payment", orderId, EventTypes.PAYMENT_FAILED, envelope);
+
+        meterRegistry.counter("payments_processed_total", "outcome", "failure").increment();
+        log.warn("Payment failed for order {}: {}", orderId, payment.getFailureReason());
+    }
+
+    private void publishAuthorized(Payment payment) {
+        UUID orderId = payment.getOrderId();
+        PaymentAuthorizedEvent event = new PaymentAuthorizedEvent(orderId, payment.getId(), payment.getAmount());
+        EventEnvelope<PaymentAuthorizedEvent> envelope = EventEnvelope.wrap(
+                EventTypes.PAYMENT_AUTHORIZED, event, orderId);
+        saveOutboxEvent("Payment", orderId, EventTypes.PAYMENT_AUTHORIZED, envelope);
+        paymentLedger.record(payment);
+        meterRegistry.counter("payments_authorized_total").increment();
+        log.info("Payment authorized for order {}: paymentId={}", orderId, payment.getId());
+    }
+
+    private void publishVoided(Payment payment) {
+        UUID orderId = payment.getOrderId();
+        PaymentVoidedEvent event = new PaymentVoidedEvent(
+                orderId, payment.getId(), payment.getAmount(), payment.getFailureReason());
+        EventEnvelope<PaymentVoidedEvent> envelope = EventEnvelope.wrap(
+                EventTypes.PAYMENT_VOIDED, event, orderId);
+        saveOutboxEvent("Payment", orderId, EventTypes.PAYMENT_VOIDED, envelope);
+        paymentLedger.record(payment);
+        meterRegistry.counter("payments_voided_total").increment();
+        log.info("Payment authorization voided for order {}: {}", orderId, payment.getFailureReason());
+    }
+
+    private void publishRefunded(Payment payment) {
+        UUID orderId = payment.getOrderId();
+        PaymentRefundedEvent event = new PaymentRefundedEvent(
+                orderId, payment.getId(), payment.getAmount(), payment.getFailureReason());
+        EventEnvelope<PaymentRefundedEvent> envelope = EventEnvelope.wrap(
+                EventTypes.PAYMENT_REFUNDED, event, orderId);
+        saveOutboxEvent("Payment", orderId, EventTypes.PAYMENT_REFUNDED, envelope);
+        paymentLedger.record(payment);
+        meterRegistry.counter("payments_refunded_total").increment();
+        log.warn("Captured payment for order {} refunded: {}", orderId, payment.getFailureReason());
+    }
+
+    /** Waits for provider calls in flight, while the database is still available to complete them. */
+    @PreDestroy
+    public void drain() {
+        providerClient.shutdown();
     }
 
     private void saveOutboxEvent(String aggregateType, UUID aggregateId, String eventType, Object envelope) {
@@ -105,4 +364,7 @@ public class PaymentService {
             throw new RuntimeException("Failed to serialize event for outbox", e);
         }
     }
+
+    /** What to do with a payment the provider could not decide. */
+    public enum UnavailablePolicy { DEFER, FAIL }
 }
@@ -0,0 +1,33 @@
+package com.platform.payment.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Completes payments whose intent was committed but whose provider call never finished, e.g.
+ * because the instance stopped mid-call or the second transaction failed. They are retried
+ * once they have been pending for {@code payment.provider.pending-timeout}; the provider
+ * answers a retry of the same payment the same way, and only the first completion writes an
+ * outbox event.
+ */
+@Component
+public class PendingPaymentRecovery {
+
+    private final PaymentService paymentService;
+    private final Duration pendingTimeout;
+
+    public PendingPaymentRecovery(PaymentService paymentService,
+                                  @Value("${payment.provider.pending-timeout:60s}") Duration pendingTimeout) {
+        this.paymentService = paymentService;
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.provider.recovery-interval-ms:10000}")
+    public void retryPending() throws InterruptedException {
+        paymentService.retryPendingPayments(Instant.now().minus(pendingTimeout));
+    }
+}
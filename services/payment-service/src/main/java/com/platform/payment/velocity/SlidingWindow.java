@@ -0,0 +1,110 @@
+package com.platform.payment.velocity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One customer's payments over the last {@code slots} time buckets, as primitive ring
+ * buffers: slot {@code bucket % slots} holds the count and amount (in minor units) of the
+ * bucket it was last written in, and slots from before the window are ignored until reused.
+ * Alongside it, the latest totals other instances reported for the same customer.
+ *
+ * <p>Not thread-safe; {@link VelocityLimiter} guards each window with the lock of its stripe.
+ */
+final class SlidingWindow {
+
+    private final long[] buckets;
+    private final int[] counts;
+    private final long[] amounts;
+    private Map<String, long[]> remote;
+
+    /** Recorded a payment since the last sync. */
+    boolean dirty;
+    /** Last sync published non-zero totals, which must be withdrawn once they age out. */
+    boolean published;
+
+    SlidingWindow(int slots) {
+        this.buckets = new long[slots];
+        this.counts = new int[slots];
+        this.amounts = new long[slots];
+        Arrays.fill(buckets, Long.MIN_VALUE);
+    }
+
+    void add(long bucket, long amount) {
+        int slot = (int) (bucket % buckets.length);
+        if (buckets[slot] != bucket) {
+            buckets[slot] = bucket;
+            counts[slot] = 0;
+            amounts[slot] = 0;
+        }
+        counts[slot]++;
+        amounts[slot] += amount;
+        dirty = true;
+    }
+
+    /** Takes back a payment {@link #add} recorded in {@code bucket}, unless the slot was reused since. */
+    void remove(long bucket, long amount) {
+        int slot = (int) (bucket % buckets.length);
+        if (buckets[slot] == bucket && counts[slot] > 0) {
+            counts[slot]--;
+            amounts[slot] -= amount;
+            dirty = true;
+        }
+    }
+
+    long localCount(long bucket) {
+        long total = 0;
+        for (int slot = 0; slot < buckets.length; slot++) {
+            if (buckets[slot] > bucket - buckets.length) {
+                total += counts[slot];
+            }
+        }
+        return total;
+    }
+
+    long localAmount(long bucket) {
+        long total = 0;
+        for (int slot = 0; slot < buckets.length; slot++) {
+            if (buckets[slot] > bucket - buckets.length) {
+                total += amounts[slot];
+            }
+        }
+        return total;
+    }
+
+    void putRemote(String instanceId, long count, long amount, long asOfMillis) {
+        if (remote == null) {
+            remote = new HashMap<>(4);
+        }
+        remote.put(instanceId, new long[] {count, amount, asOfMillis});
+    }
+
+    void removeRemote(String instanceId) {
+        if (remote != null) {
+            remote.remove(instanceId);
+        }
+    }
+
+    /** Sum of the other instances' totals reported at or after {@code sinceMillis}. */
+    long remoteCount(long sinceMillis) {
+        return remoteSum(0, sinceMillis);
+    }
+
+    long remoteAmount(long sinceMillis) {
+        return remoteSum(1, sinceMillis);
+    }
+
+    private long remoteSum(int field, long sinceMillis) {
+        if (remote == null) {
+            return 0;
+        }
+        long total = 0;
+        for (long[] totals : remote.values()) {
+            if (totals[2] >= sinceMillis) {
+                total += totals[field];
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,225 @@
+package com.platform.payment.velocity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Per-customer velocity limits: at most {@code payment.velocity.max-count} payments and
+ * {@code max-amount} in total per customer within {@code window}, checked in memory before
+ * the provider is called. Each customer's payments are kept in a {@link SlidingWindow} of
+ * {@code buckets} slots.
+ *
+ * <p>Customers are spread over {@code stripes} access-ordered maps, each holding at most
+ * {@code max-customers / stripes} windows and evicting the least recently used one beyond
+ * that, so memory stays bounded however many customers pay. A check holds only the lock of
+ * its customer's stripe, for a few array reads.
+ *
+ * <p>Every instance counts the payments it handled itself. {@link VelocitySync} publishes
+ * those totals on a compacted topic and feeds the other instances' totals back in, which are
+ * added to the local count while they are younger than the window. Limits are therefore
+ * enforced across instances up to the sync interval.
+ */
+@Component
+public class VelocityLimiter {
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final long bucketMillis;
+    private final int slots;
+    private final int maxCount;
+    private final BigDecimal maxAmount;
+    private final long maxAmountMinor;
+    private final String instanceId;
+    private final Stripe[] stripes;
+    private final MeterRegistry meterRegistry;
+
+    public VelocityLimiter(MeterRegistry meterRegistry,
+                           @Value("${payment.velocity.enabled:true}") boolean enabled,
+                           @Value("${payment.velocity.window:60s}") Duration window,
+                           @Value("${payment.velocity.buckets:12}") int buckets,
+                           @Value("${payment.velocity.max-count:10}") int maxCount,
+                           @Value("${payment.velocity.max-amount:5000.00}") BigDecimal maxAmount,
+                           @Value("${payment.velocity.stripes:64}") int stripes,
+                           @Value("${payment.velocity.max-customers:100000}") int maxCustomers,
+                           @Value("${payment.velocity.instance-id:payment-service}") String instanceId) {
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.slots = buckets;
+        this.maxCount = maxCount;
+        this.maxAmount = maxAmount;
+        this.maxAmountMinor = toMinor(maxAmount);
+        this.instanceId = instanceId;
+        this.meterRegistry = meterRegistry;
+
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes));
+        Counter evictions = meterRegistry.counter("payment_velocity_evictions_total");
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(Math.max(1, maxCustomers / stripeCount), evictions);
+        }
+        Gauge.builder("payment_velocity_customers", this, VelocityLimiter::trackedCustomers)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a payment of {@code amount} for the customer if it stays within the limits, and
+     * otherwise returns why it was declined without recording it. Payments without a customer
+     * are not limited. Called inside a transaction, the payment is taken back again if that
+     * transaction does not commit, so a redelivered event is not counted twice.
+     */
+    public Optional<String> tryRecord(UUID customerId, BigDecimal amount) {
+        if (!enabled || customerId == null) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        long bucket = now / bucketMillis;
+        long amountMinor = toMinor(amount);
+        Stripe stripe = stripeOf(customerId);
+        long count;
+        long total;
+        synchronized (stripe) {
+            SlidingWindow window = stripe.computeIfAbsent(customerId, id -> new SlidingWindow(slots));
+            count = window.localCount(bucket) + window.remoteCount(now - windowMillis) + 1;
+            total = window.localAmount(bucket) + window.remoteAmount(now - windowMillis) + amountMinor;
+            if (count <= maxCount && total <= maxAmountMinor) {
+                window.add(bucket, amountMinor);
+                undoOnRollback(customerId, bucket, amountMinor);
+                return Optional.empty();
+            }
+        }
+        if (total > maxAmountMinor) {
+            meterRegistry.counter("payments_velocity_declined_total", "limit", "amount").increment();
+            return Optional.of("Velocity limit exceeded: " + BigDecimal.valueOf(total, 2) + " within "
+                    + Duration.ofMillis(windowMillis).toSeconds() + "s (max " + maxAmount + ")");
+        }
+        meterRegistry.counter("payments_velocity_declined_total", "limit", "count").increment();
+        return Optional.of("Velocity limit exceeded: " + count + " payments within "
+                + Duration.ofMillis(windowMillis).toSeconds() + "s (max " + maxCount + ")");
+    }
+
+    /**
+     * Returns this instance's current totals for every customer that paid since the last call,
+     * plus zero totals for customers whose published totals have since aged out.
+     */
+    List<VelocitySnapshot> changedSnapshots() {
+        long now = System.currentTimeMillis();
+        long bucket = now / bucketMillis;
+        Instant asOf = Instant.ofEpochMilli(now);
+        List<VelocitySnapshot> snapshots = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Map.Entry<UUID, SlidingWindow> entry : stripe.entrySet()) {
+                    SlidingWindow window = entry.getValue();
+                    if (!window.dirty && !window.published) {
+                        continue;
+                    }
+                    long count = window.localCount(bucket);
+                    if (window.dirty || count == 0) {
+                        snapshots.add(new VelocitySnapshot(entry.getKey(), instanceId, count,
+                                BigDecimal.valueOf(window.localAmount(bucket), 2), asOf));
+                        window.dirty = false;
+                        window.published = count > 0;
+                    }
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    /** Takes another instance's totals into account; zero totals withdraw earlier ones. */
+    void applyRemote(VelocitySnapshot snapshot) {
+        if (!enabled || instanceId.equals(snapshot.instanceId())) {
+            return;
+        }
+        Stripe stripe = stripeOf(snapshot.customerId());
+        synchronized (stripe) {
+            if (snapshot.count() == 0) {
+                SlidingWindow window = stripe.get(snapshot.customerId());
+                if (window != null) {
+                    window.removeRemote(snapshot.instanceId());
+                }
+                return;
+            }
+            stripe.computeIfAbsent(snapshot.customerId(), id -> new SlidingWindow(slots))
+                    .putRemote(snapshot.instanceId(), snapshot.count(), toMinor(snapshot.amount()),
+                            snapshot.asOf().toEpochMilli());
+        }
+    }
+
+    private void undoOnRollback(UUID customerId, long bucket, long amountMinor) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                Stripe stripe = stripeOf(customerId);
+                synchronized (stripe) {
+                    SlidingWindow window = stripe.get(customerId);
+                    if (window != null) {
+                        window.remove(bucket, amountMinor);
+                    }
+                }
+            }
+        });
+    }
+
+    private Stripe stripeOf(UUID customerId) {
+        int hash = customerId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private double trackedCustomers() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.size();
+        }
+        return total;
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Access-ordered, so iteration starts at the least recently used customer. */
+    private static final class Stripe extends LinkedHashMap<UUID, SlidingWindow> {
+
+        private final int capacity;
+        private final Counter evictions;
+
+        Stripe(int capacity, Counter evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, SlidingWindow> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
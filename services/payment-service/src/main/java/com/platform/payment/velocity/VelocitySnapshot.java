@@ -0,0 +1,21 @@
+package com.platform.payment.velocity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One instance's payments for a customer over the velocity window ending at {@code asOf}, as
+ * published on the compacted {@code payment-velocity} topic under {@code customerId/instanceId}.
+ */
+public record VelocitySnapshot(
+        UUID customerId,
+        String instanceId,
+        long count,
+        BigDecimal amount,
+        Instant asOf
+) {
+    public String key() {
+        return customerId + "/" + instanceId;
+    }
+}
@@ -0,0 +1,62 @@
+package com.platform.payment.velocity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.platform.events.serde.EventObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reconciles velocity totals between instances over the compacted {@code payment-velocity}
+ * topic. Every {@code payment.velocity.sync-interval-ms} it publishes this instance's totals
+ * for customers that paid since the last round, keyed by customer and instance, so compaction
+ * keeps only the latest totals per pair. Totals that dropped to zero are published as a
+ * tombstone. Each instance reads the whole topic in its own consumer group.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.velocity.enabled", havingValue = "true", matchIfMissing = true)
+public class VelocitySync {
+
+    public static final String TOPIC = "payment-velocity";
+
+    private static final Logger log = LoggerFactory.getLogger(VelocitySync.class);
+
+    private final VelocityLimiter limiter;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    public VelocitySync(VelocityLimiter limiter, KafkaTemplate<String, String> kafkaTemplate) {
+        this.limiter = limiter;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.velocity.sync-interval-ms:1000}")
+    public void publish() throws JsonProcessingException {
+        List<VelocitySnapshot> snapshots = limiter.changedSnapshots();
+        for (VelocitySnapshot snapshot : snapshots) {
+            String value = snapshot.count() == 0 ? null : EventObjectMapper.instance().writeValueAsString(snapshot);
+            kafkaTemplate.send(TOPIC, snapshot.key(), value);
+        }
+        if (!snapshots.isEmpty()) {
+            log.debug("Published velocity totals for {} customers", snapshots.size());
+        }
+    }
+
+    @KafkaListener(topics = TOPIC, groupId = "payment-velocity-${payment.velocity.instance-id:payment-service}")
+    public void consume(ConsumerRecord<String, String> record) throws JsonProcessingException {
+        if (record.value() != null) {
+            limiter.applyRemote(EventObjectMapper.instance().readValue(record.value(), VelocitySnapshot.class));
+            return;
+        }
+        int separator = record.key().indexOf('/');
+        UUID customerId = UUID.fromString(record.key().substring(0, separator));
+        limiter.applyRemote(new VelocitySnapshot(customerId, record.key().substring(separator + 1), 0, null, null));
+    }
+}
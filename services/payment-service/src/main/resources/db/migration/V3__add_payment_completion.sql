@@ -0,0 +1,10 @@
+-- Payments are recorded as PENDING before the provider is called and completed in a second
+-- transaction. The partial index lets the recovery job find intents that never completed.
+ALTER TABLE payments ADD COLUMN completed_at TIMESTAMPTZ;
+ALTER TABLE payments ADD COLUMN failure_reason VARCHAR(255);
+
+-- Until now a payment was settled in the transaction that created it, so its creation time is
+-- also when it completed. The ledger backfill on first start pages through payments by this.
+UPDATE payments SET completed_at = created_at WHERE status <> 'PENDING';
+
+CREATE INDEX idx_payments_pending ON payments(created_at) WHERE status = 'PENDING';
@@ -0,0 +1,9 @@
+-- What to do once the provider approves a pending payment: capture it right away (the
+-- sequential saga), only hold the authorization (speculative authorization on OrderCreated),
+-- or release it again because the stock was rejected meanwhile.
+ALTER TABLE payments ADD COLUMN intent VARCHAR(16) NOT NULL DEFAULT 'CAPTURE';
+
+-- One payment per order: OrderCreated and StockReserved arrive on different topics and may
+-- both try to start it, so the loser of that race fails and is retried against the winner.
+DROP INDEX idx_payments_order_id;
+CREATE UNIQUE INDEX idx_payments_order_id ON payments(order_id);
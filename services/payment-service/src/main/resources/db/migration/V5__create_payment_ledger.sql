@@ -0,0 +1,44 @@
+-- Append-only settlement ledger. Each entry moves its amount from the credit to the debit
+-- account: AUTHORIZATION holds it (CUSTOMER -> HELD), CAPTURE takes it (HELD -> CAPTURED) and
+-- VOID releases it (HELD -> CUSTOMER); REFUND gives a captured amount back (CAPTURED ->
+-- CUSTOMER). A payment has at most one entry of each type, so entries can be re-derived from
+-- payments without double counting.
+CREATE TABLE payment_ledger (
+    id             BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    payment_id     UUID NOT NULL,
+    order_id       UUID NOT NULL,
+    entry_type     VARCHAR(16) NOT NULL,
+    debit_account  VARCHAR(16) NOT NULL,
+    credit_account VARCHAR(16) NOT NULL,
+    amount         NUMERIC(12, 2) NOT NULL,
+    occurred_at    TIMESTAMPTZ NOT NULL,
+    recorded_at    TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT uq_payment_ledger_entry UNIQUE (payment_id, entry_type)
+);
+
+CREATE INDEX idx_payment_ledger_recorded_at ON payment_ledger(recorded_at);
+
+CREATE FUNCTION payment_ledger_append_only() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'payment_ledger is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_payment_ledger_append_only
+    BEFORE UPDATE OR DELETE ON payment_ledger
+    FOR EACH ROW EXECUTE FUNCTION payment_ledger_append_only();
+
+-- Running totals per UTC day and account, updated in the same statement that appends the
+-- entries. An account's net movement on a day is debits - credits.
+CREATE TABLE payment_ledger_balances (
+    day     DATE NOT NULL,
+    account VARCHAR(16) NOT NULL,
+    debits  NUMERIC(16, 2) NOT NULL,
+    credits NUMERIC(16, 2) NOT NULL,
+    entries BIGINT NOT NULL,
+    PRIMARY KEY (day, account)
+);
+
+-- Re-deriving entries after a crash reads only payments completed since the last flush, a
+-- page at a time in (completed_at, id) order; on first start that is every settled payment.
+CREATE INDEX idx_payments_completed_at_id ON payments(completed_at, id) WHERE completed_at IS NOT NULL;
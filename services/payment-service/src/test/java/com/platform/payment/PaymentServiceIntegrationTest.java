@@ -3,8 +3,10 @@ package com.platform.payment;
 import com.platform.events.EventEnvelope;
 import com.platform.events.EventTypes;
 import com.platform.events.OrderLineItem;
+import com.platform.events.inventory.StockReleasedEvent;
 import com.platform.events.inventory.StockReservedEvent;
 import com.platform.events.serde.EventObjectMapper;
+import com.platform.payment.ledger.PaymentLedger;
 import com.platform.payment.outbox.OutboxEvent;
 import com.platform.payment.outbox.OutboxRepository;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.containers.KafkaContainer;
@@ -21,14 +24,16 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 
-@SpringBootTest
+@SpringBootTest(properties = "payment.simulate.latency-ms=1000")
 @Testcontainers
 @ActiveProfiles("test")
 class PaymentServiceIntegrationTest {
@@ -47,6 +52,12 @@ class PaymentServiceIntegrationTest {
     @Autowired
     private OutboxRepository outboxRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentLedger paymentLedger;
+
     @Test
     void shouldProcessPaymentOnStockReserved() throws Exception {
         UUID orderId = UUID.randomUUID();
@@ -71,4 +82,118 @@ class PaymentServiceIntegrationTest {
                     && e.getAggregateId().equals(orderId));
         });
     }
+
+    @Test
+    void shouldCommitPendingIntentBeforeCallingProvider() throws Exception {
+        UUID orderId = UUID.randomUUID();
+
+        StockReservedEvent event = new StockReservedEvent(
+                orderId,
+                List.of(new OrderLineItem(UUID.randomUUID(), 2, new BigDecimal("20.00"))),
+                new BigDecimal("40.00"),
+                "EUR"
+        );
+        String payload = EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.STOCK_RESERVED, event, orderId));
+        kafkaTemplate.send(new ProducerRecord<>("inventory-events", orderId.toString(), payload));
+
+        // The provider takes a second, during which the intent is visible and no event is written yet.
+        await().atMost(10, TimeUnit.SECONDS).pollInterval(Duration.ofMillis(50)).untilAsserted(() ->
+                assertThat(jdbcTemplate.queryForList("SELECT status FROM payments WHERE order_id = ?",
+                        String.class, orderId)).containsExactly("PENDING"));
+        assertThat(outboxRepository.findByPublishedFalseOrderByCreatedAtAsc())
+                .noneMatch(e -> e.getAggregateId().equals(orderId));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(jdbcTemplate.queryForList("SELECT status FROM payments WHERE order_id = ?",
+                    String.class, orderId)).containsExactly("SUCCEEDED");
+            assertThat(outboxRepository.findByPublishedFalseOrderByCreatedAtAsc()).anyMatch(e ->
+                    e.getEventType().equals(EventTypes.PAYMENT_SUCCEEDED) && e.getAggregateId().equals(orderId));
+        });
+    }
+
+    @Test
+    void shouldRecordCaptureInLedgerAndDailyBalances() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        BigDecimal capturedBefore = capturedToday();
+
+        StockReservedEvent event = new StockReservedEvent(
+                orderId,
+                List.of(new OrderLineItem(UUID.randomUUID(), 1, new BigDecimal("12.50"))),
+                new BigDecimal("12.50"),
+                "EUR"
+        );
+        String payload = EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.STOCK_RESERVED, event, orderId));
+        kafkaTemplate.send(new ProducerRecord<>("inventory-events", orderId.toString(), payload));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(jdbcTemplate.queryForList(
+                        "SELECT entry_type FROM payment_ledger WHERE order_id = ? ORDER BY entry_type",
+                        String.class, orderId)).containsExactly("AUTHORIZATION", "CAPTURE"));
+        assertThat(capturedToday().subtract(capturedBefore)).isGreaterThanOrEqualTo(new BigDecimal("12.50"));
+    }
+
+    @Test
+    void shouldRefundCapturedPaymentWhenHoldExpires() throws Exception {
+        UUID orderId = UUID.randomUUID();
+
+        StockReservedEvent reserved = new StockReservedEvent(
+                orderId,
+                List.of(new OrderLineItem(UUID.randomUUID(), 1, new BigDecimal("30.00"))),
+                new BigDecimal("30.00"),
+                "EUR"
+        );
+        kafkaTemplate.send(new ProducerRecord<>("inventory-events", orderId.toString(),
+                EventObjectMapper.instance().writeValueAsString(
+                        EventEnvelope.wrap(EventTypes.STOCK_RESERVED, reserved, orderId))));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(jdbcTemplate.queryForList("SELECT status FROM payments WHERE order_id = ?",
+                        String.class, orderId)).containsExactly("SUCCEEDED"));
+
+        // The sweeper's release carries a reason and arrives after the capture.
+        StockReleasedEvent released = new StockReleasedEvent(orderId, "Reservation expired");
+        kafkaTemplate.send(new ProducerRecord<>("inventory-events", orderId.toString(),
+                EventObjectMapper.instance().writeValueAsString(
+                        EventEnvelope.wrap(EventTypes.STOCK_RELEASED, released, orderId))));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(jdbcTemplate.queryForList("SELECT status FROM payments WHERE order_id = ?",
+                    String.class, orderId)).containsExactly("REFUNDED");
+            assertThat(outboxRepository.findByPublishedFalseOrderByCreatedAtAsc()).anyMatch(e ->
+                    e.getEventType().equals(EventTypes.PAYMENT_REFUNDED) && e.getAggregateId().equals(orderId));
+            assertThat(jdbcTemplate.queryForList(
+                    "SELECT entry_type FROM payment_ledger WHERE order_id = ? ORDER BY entry_type",
+                    String.class, orderId)).containsExactly("AUTHORIZATION", "CAPTURE", "REFUND");
+        });
+    }
+
+    @Test
+    void shouldRederiveMissingLedgerEntriesAcrossPagesOnRestart() {
+        // More payments than one recovery page (payment.ledger.max-batch-size, 256 by default),
+        // completed without their entries ever reaching the ledger.
+        List<Object[]> payments = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            payments.add(new Object[] {UUID.randomUUID(), UUID.randomUUID()});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO payments (id, order_id, amount, status, completed_at)
+                VALUES (?, ?, 1.00, 'AUTHORIZED', now())
+                """, payments);
+
+        paymentLedger.stop();
+        paymentLedger.start();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM payment_ledger WHERE entry_type = 'AUTHORIZATION' AND payment_id = ANY(?)",
+                Integer.class, (Object) payments.stream().map(p -> p[0]).toArray(UUID[]::new))).isEqualTo(300);
+    }
+
+    private BigDecimal capturedToday() {
+        return jdbcTemplate.queryForObject("""
+                SELECT coalesce(sum(debits - credits), 0) FROM payment_ledger_balances
+                WHERE day = (now() AT TIME ZONE 'UTC')::date AND account = 'CAPTURED'
+                """, BigDecimal.class);
+    }
 }
@@ -0,0 +1,89 @@
+package com.platform.payment;
+
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.inventory.StockReservedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.payment.outbox.OutboxEvent;
+import com.platform.payment.outbox.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "payment.simulate.fault.error-rate=1.0",
+        "payment.provider.on-unavailable=FAIL",
+        "payment.provider.circuit-breaker.sliding-window-size=4",
+        "payment.provider.circuit-breaker.minimum-calls=2",
+        "payment.provider.circuit-breaker.open-duration=1m"
+})
+@Testcontainers
+@ActiveProfiles("test")
+class ProviderResilienceIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldOpenCircuitAndFailPaymentsFastWhenProviderErrors() throws Exception {
+        List<UUID> orderIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            UUID orderId = UUID.randomUUID();
+            orderIds.add(orderId);
+            StockReservedEvent event = new StockReservedEvent(
+                    orderId,
+                    List.of(new OrderLineItem(UUID.randomUUID(), 1, new BigDecimal("10.00"))),
+                    new BigDecimal("10.00"),
+                    "EUR"
+            );
+            String payload = EventObjectMapper.instance().writeValueAsString(
+                    EventEnvelope.wrap(EventTypes.STOCK_RESERVED, event, orderId));
+            kafkaTemplate.send(new ProducerRecord<>("inventory-events", orderId.toString(), payload));
+        }
+
+        await().atMost(15, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<OutboxEvent> events = outboxRepository.findByPublishedFalseOrderByCreatedAtAsc();
+            assertThat(orderIds).allMatch(orderId -> events.stream().anyMatch(e ->
+                    e.getEventType().equals(EventTypes.PAYMENT_FAILED) && e.getAggregateId().equals(orderId)
+                            && e.getPayload().contains("Payment provider unavailable")));
+        });
+        assertThat(meterRegistry.counter("payment_provider_circuit_transitions_total",
+                "from", "closed", "to", "open").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("payment_provider_calls_total", "outcome", "circuit_open").count())
+                .isGreaterThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,121 @@
+package com.platform.payment;
+
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.inventory.StockRejectedEvent;
+import com.platform.events.inventory.StockReservedEvent;
+import com.platform.events.order.OrderCreatedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.payment.entity.Payment;
+import com.platform.payment.outbox.OutboxEvent;
+import com.platform.payment.outbox.OutboxRepository;
+import com.platform.payment.repository.PaymentRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "payment.saga.speculative-authorization=true",
+        "payment.simulate.force-outcome=success",
+        "payment.simulate.latency-ms=500"
+})
+@Testcontainers
+@ActiveProfiles("test")
+class SpeculativeAuthorizationIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void shouldCaptureAuthorizationOnStockReserved() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        BigDecimal amount = new BigDecimal("25.00");
+        sendOrderCreated(orderId, amount);
+
+        awaitOutboxEvent(orderId, EventTypes.PAYMENT_AUTHORIZED);
+        assertThat(paymentRepository.findAll()).anyMatch(p ->
+                p.getOrderId().equals(orderId) && Payment.AUTHORIZED.equals(p.getStatus()));
+
+        StockReservedEvent reserved = new StockReservedEvent(orderId, items(amount), amount, "EUR");
+        send("inventory-events", orderId, EventTypes.STOCK_RESERVED, reserved);
+
+        // Capture is a local transition, so it does not wait for the provider's latency again.
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(outboxEvents(orderId)).anyMatch(e -> e.getEventType().equals(EventTypes.PAYMENT_SUCCEEDED)));
+        assertThat(paymentRepository.findAll().stream().filter(p -> p.getOrderId().equals(orderId)))
+                .singleElement()
+                .satisfies(p -> assertThat(p.getStatus()).isEqualTo(Payment.SUCCEEDED));
+    }
+
+    @Test
+    void shouldVoidAuthorizationStillInFlightOnStockRejected() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        BigDecimal amount = new BigDecimal("40.00");
+        sendOrderCreated(orderId, amount);
+        send("inventory-events", orderId, EventTypes.STOCK_REJECTED,
+                new StockRejectedEvent(orderId, "Insufficient stock"));
+
+        awaitOutboxEvent(orderId, EventTypes.PAYMENT_VOIDED);
+        assertThat(outboxEvents(orderId)).noneMatch(e ->
+                e.getEventType().equals(EventTypes.PAYMENT_AUTHORIZED)
+                        || e.getEventType().equals(EventTypes.PAYMENT_SUCCEEDED));
+        assertThat(outboxEvents(orderId)).anyMatch(e -> e.getPayload().contains("Insufficient stock"));
+    }
+
+    private void sendOrderCreated(UUID orderId, BigDecimal amount) throws Exception {
+        OrderCreatedEvent created = new OrderCreatedEvent(orderId, UUID.randomUUID(), items(amount), amount, "EUR");
+        send("order-events", orderId, EventTypes.ORDER_CREATED, created);
+    }
+
+    private void send(String topic, UUID orderId, String eventType, Object event) throws Exception {
+        String payload = EventObjectMapper.instance().writeValueAsString(EventEnvelope.wrap(eventType, event, orderId));
+        kafkaTemplate.send(new ProducerRecord<>(topic, orderId.toString(), payload));
+    }
+
+    private void awaitOutboxEvent(UUID orderId, String eventType) {
+        await().atMost(15, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(outboxEvents(orderId)).anyMatch(e -> e.getEventType().equals(eventType)));
+    }
+
+    private List<OutboxEvent> outboxEvents(UUID orderId) {
+        return outboxRepository.findAll().stream()
+                .filter(e -> e.getAggregateId().equals(orderId))
+                .toList();
+    }
+
+    private static List<OrderLineItem> items(BigDecimal amount) {
+        return List.of(new OrderLineItem(UUID.randomUUID(), 1, amount));
+    }
+}
@@ -0,0 +1,135 @@
+package com.platform.payment;
+
+import com.platform.events.EventEnvelope;
+import com.platform.events.EventTypes;
+import com.platform.events.OrderLineItem;
+import com.platform.events.inventory.StockReservedEvent;
+import com.platform.events.serde.EventObjectMapper;
+import com.platform.payment.outbox.OutboxEvent;
+import com.platform.payment.outbox.OutboxRepository;
+import com.platform.payment.velocity.VelocityLimiter;
+import com.platform.payment.velocity.VelocitySnapshot;
+import com.platform.payment.velocity.VelocitySync;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "payment.simulate.force-outcome=success",
+        "payment.velocity.max-count=2",
+        "payment.velocity.max-amount=100.00",
+        "payment.velocity.instance-id=velocity-test"
+})
+@Testcontainers
+@ActiveProfiles("test")
+class VelocityLimitIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private VelocityLimiter velocityLimiter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldDeclinePaymentsOverCountLimit() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        List<UUID> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UUID orderId = UUID.randomUUID();
+            orderIds.add(orderId);
+            sendStockReserved(orderId, customerId, new BigDecimal("10.00"));
+            // One after another, so the third is the one over the limit.
+            await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                    assertThat(outboxEvents(orderId)).isNotEmpty());
+        }
+
+        assertThat(outboxEvents(orderIds.get(0))).allMatch(e -> e.getEventType().equals(EventTypes.PAYMENT_SUCCEEDED));
+        assertThat(outboxEvents(orderIds.get(1))).allMatch(e -> e.getEventType().equals(EventTypes.PAYMENT_SUCCEEDED));
+        assertThat(outboxEvents(orderIds.get(2))).singleElement().satisfies(e -> {
+            assertThat(e.getEventType()).isEqualTo(EventTypes.PAYMENT_FAILED);
+            assertThat(e.getPayload()).contains("Velocity limit exceeded");
+        });
+    }
+
+    @Test
+    void shouldCountPaymentsReportedByOtherInstances() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        VelocitySnapshot remote = new VelocitySnapshot(customerId, "other-instance", 1,
+                new BigDecimal("95.00"), Instant.now());
+        kafkaTemplate.send(VelocitySync.TOPIC, remote.key(), EventObjectMapper.instance().writeValueAsString(remote));
+
+        // Only the remote 95.00 can push a 10.00 payment over the amount limit.
+        await().atMost(15, TimeUnit.SECONDS).untilAsserted(() -> {
+            UUID orderId = UUID.randomUUID();
+            sendStockReserved(orderId, customerId, new BigDecimal("10.00"));
+            await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                    assertThat(outboxEvents(orderId)).isNotEmpty());
+            assertThat(outboxEvents(orderId)).anyMatch(e -> e.getEventType().equals(EventTypes.PAYMENT_FAILED)
+                    && e.getPayload().contains("(max 100.00)"));
+        });
+    }
+
+    @Test
+    void shouldTakeBackPaymentsRecordedInRolledBackTransaction() {
+        UUID customerId = UUID.randomUUID();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(velocityLimiter.tryRecord(customerId, new BigDecimal("10.00"))).isEmpty();
+            assertThat(velocityLimiter.tryRecord(customerId, new BigDecimal("10.00"))).isEmpty();
+            status.setRollbackOnly();
+        });
+
+        // The redelivered payments fit within max-count again.
+        assertThat(velocityLimiter.tryRecord(customerId, new BigDecimal("10.00"))).isEmpty();
+        assertThat(velocityLimiter.tryRecord(customerId, new BigDecimal("10.00"))).isEmpty();
+        assertThat(velocityLimiter.tryRecord(customerId, new BigDecimal("10.00"))).isPresent();
+    }
+
+    private void sendStockReserved(UUID orderId, UUID customerId, BigDecimal amount) throws Exception {
+        StockReservedEvent event = new StockReservedEvent(orderId,
+                List.of(new OrderLineItem(UUID.randomUUID(), 1, amount)), amount, "EUR", customerId);
+        String payload = EventObjectMapper.instance().writeValueAsString(
+                EventEnvelope.wrap(EventTypes.STOCK_RESERVED, event, orderId));
+        kafkaTemplate.send(new ProducerRecord<>("inventory-events", orderId.toString(), payload));
+    }
+
+    private List<OutboxEvent> outboxEvents(UUID orderId) {
+        return outboxRepository.findAll().stream()
+                .filter(e -> e.getAggregateId().equals(orderId))
+                .toList();
+    }
+}
@@ -11,7 +11,11 @@ public final class EventTypes {
     public static final String STOCK_RESERVED = "StockReserved";
     public static final String STOCK_REJECTED = "StockRejected";
     public static final String STOCK_RELEASED = "StockReleased";
+    public static final String STOCK_RESTOCKED = "StockRestocked";
 
     public static final String PAYMENT_SUCCEEDED = "PaymentSucceeded";
     public static final String PAYMENT_FAILED = "PaymentFailed";
+    public static final String PAYMENT_AUTHORIZED = "PaymentAuthorized";
+    public static final String PAYMENT_VOIDED = "PaymentVoided";
+    public static final String PAYMENT_REFUNDED = "PaymentRefunded";
 }
@@ -1,8 +1,18 @@
 package com.platform.events.inventory;
 
+import java.util.List;
 import java.util.UUID;
 
 public record StockRejectedEvent(
         UUID orderId,
-        String reason
-) {}
+        String reason,
+        List<StockShortage> shortages
+) {
+    public StockRejectedEvent {
+        shortages = shortages == null ? List.of() : List.copyOf(shortages);
+    }
+
+    public StockRejectedEvent(UUID orderId, String reason) {
+        this(orderId, reason, List.of());
+    }
+}
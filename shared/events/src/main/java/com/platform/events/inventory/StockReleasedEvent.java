@@ -2,6 +2,15 @@ package com.platform.events.inventory;
 
 import java.util.UUID;
 
+/**
+ * {@code reason} is null when the release was requested by the saga, and set when inventory
+ * released the stock on its own, e.g. because the reservation expired.
+ */
 public record StockReleasedEvent(
-        UUID orderId
-) {}
+        UUID orderId,
+        String reason
+) {
+    public StockReleasedEvent(UUID orderId) {
+        this(orderId, null);
+    }
+}
@@ -6,9 +6,18 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * {@code customerId} is carried over from {@code OrderCreated} for payment checks; it is null
+ * in events written before it was added.
+ */
 public record StockReservedEvent(
         UUID orderId,
         List<OrderLineItem> items,
         BigDecimal totalAmount,
-        String currency
-) {}
+        String currency,
+        UUID customerId
+) {
+    public StockReservedEvent(UUID orderId, List<OrderLineItem> items, BigDecimal totalAmount, String currency) {
+        this(orderId, items, totalAmount, currency, null);
+    }
+}
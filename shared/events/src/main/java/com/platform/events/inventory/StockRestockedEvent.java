@@ -0,0 +1,15 @@
+package com.platform.events.inventory;
+
+import java.util.UUID;
+
+/**
+ * A product's stock was set from outside the order flow, e.g. by a catalog import, or the
+ * product was created. {@code delta} is {@code stock} minus the stock it replaced, and equals
+ * {@code stock} for a new product. Published to {@code product-events}, keyed by product id.
+ */
+public record StockRestockedEvent(
+        UUID productId,
+        String name,
+        int stock,
+        int delta
+) {}
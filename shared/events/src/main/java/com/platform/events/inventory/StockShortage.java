@@ -0,0 +1,12 @@
+package com.platform.events.inventory;
+
+import java.util.UUID;
+
+/**
+ * A line that could not be reserved. {@code available} is 0 for unknown products.
+ */
+public record StockShortage(
+        UUID productId,
+        int requested,
+        int available
+) {}
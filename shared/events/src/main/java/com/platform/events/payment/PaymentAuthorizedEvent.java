@@ -0,0 +1,16 @@
+package com.platform.events.payment;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The provider approved the payment and holds the amount, but nothing has been captured yet.
+ * Only emitted with speculative authorization, where payment is authorized on
+ * {@code OrderCreated} while inventory is still reserving; {@code PaymentSucceeded} follows
+ * once the stock is reserved.
+ */
+public record PaymentAuthorizedEvent(
+        UUID orderId,
+        UUID paymentId,
+        BigDecimal amount
+) {}
@@ -0,0 +1,12 @@
+package com.platform.events.payment;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** A captured payment was given back, because the order's stock hold expired before it was confirmed. */
+public record PaymentRefundedEvent(
+        UUID orderId,
+        UUID paymentId,
+        BigDecimal amount,
+        String reason
+) {}
@@ -0,0 +1,12 @@
+package com.platform.events.payment;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** A speculative authorization was released without capture, e.g. because the stock was rejected. */
+public record PaymentVoidedEvent(
+        UUID orderId,
+        UUID paymentId,
+        BigDecimal amount,
+        String reason
+) {}